@@ -0,0 +1,16 @@
+package com.qelery.chip8.benchmark;
+
+/**
+ * Where the benchmarks find the bundled ROMs.
+ * <p>
+ * The path is relative to the chip8-core module, which is the working
+ * directory the benchmarks are run from.
+ */
+final class BenchmarkRoms {
+
+    static final String DIRECTORY = "src/main/resources/ROMS";
+    static final String INSTRUCTIONS_FILE = "src/main/resources/ROMInstructions.txt";
+
+    private BenchmarkRoms() {
+    }
+}
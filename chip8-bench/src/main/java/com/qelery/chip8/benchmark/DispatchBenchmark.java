@@ -0,0 +1,74 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.Keypad;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import com.qelery.chip8.components.sound.SilentSound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cycles per second of each {@link ExecutionEngine} on a
+ * loop that mixes register, memory, subroutine, and sprite instructions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int CYCLES_PER_INVOCATION = 10_000;
+
+    private static final int[] INSTRUCTION_MIX = {
+            0x61, 0x08, // 0x200: V1 = 8
+            0xA2, 0x80, // 0x202: I = 0x280
+            0x70, 0x01, // 0x204: V0 += 1
+            0x82, 0x14, // 0x206: V2 += V1
+            0x83, 0x26, // 0x208: V3 >>= 1
+            0x30, 0x00, // 0x20A: skip if V0 == 0
+            0x22, 0x20, // 0x20C: call 0x220
+            0xD1, 0x25, // 0x20E: draw 5 byte sprite at (V1, V2)
+            0xE1, 0x9E, // 0x210: skip if key V1 is pressed
+            0x12, 0x02, // 0x212: jump to 0x202
+            0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+            0x84, 0x50, // 0x220: V4 = V5
+            0x84, 0x04, // 0x222: V4 += V0
+            0xF4, 0x33, // 0x224: store BCD of V4 at I
+            0xF2, 0x65, // 0x226: read V0 through V2 from I
+            0x00, 0xEE  // 0x228: return
+    };
+
+    @Param({"SWITCH", "TABLE", "CACHED", "JIT"})
+    private ExecutionEngine engine;
+
+    private CPU cpu;
+
+    @Setup
+    public void setUp() {
+        Memory memory = new Memory(Memory.DEFAULT_SIZE);
+        memory.loadData(INSTRUCTION_MIX, Memory.READ_WRITE_START_LOCATION);
+        cpu = new CPU(500, memory, new PackedFrameBuffer(), new SilentSound(), new Keypad(), engine);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES_PER_INVOCATION)
+    public void emulateCycles() {
+        cpu.emulateCycles(CYCLES_PER_INVOCATION);
+    }
+}
@@ -0,0 +1,166 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.Keypad;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import com.qelery.chip8.components.sound.SilentSound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares drawing sprites pixel by pixel on the old {@code int[64][32]}
+ * framebuffer against drawing them a row at a time on the bit-packed
+ * {@link PackedFrameBuffer}, and measures the whole DXYN instruction
+ * as the CPU executes it, at sprite heights up to the 15 rows DXYN
+ * allows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawSpriteBenchmark {
+
+    private static final int SPRITES_PER_INVOCATION = 64;
+    private static final int MAX_SPRITE_ROWS = 15;
+    private static final int SPRITE_ADDRESS = 0xF00;
+
+    @Param({"1", "5", "8", "15"})
+    private int spriteRows;
+
+    private final int[] sprite = new int[MAX_SPRITE_ROWS];
+    private PixelDisplay pixelDisplay;
+    private FrameBuffer display;
+    private CPU cpu;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < MAX_SPRITE_ROWS; i++) {
+            sprite[i] = (0xA5 * (i + 1)) & 0xFF;
+        }
+        pixelDisplay = new PixelDisplay();
+        display = new PackedFrameBuffer();
+        cpu = newDrawingCpu();
+    }
+
+    /**
+     * A CPU whose memory holds {@link #SPRITES_PER_INVOCATION} DXYN
+     * instructions in a row, each drawing the sprite at (V0, V1) and
+     * moving V0 and V1 on so consecutive draws land in different places.
+     */
+    private CPU newDrawingCpu() {
+        Memory memory = new Memory(Memory.DEFAULT_SIZE);
+        int[] program = new int[SPRITES_PER_INVOCATION * 6];
+        for (int i = 0; i < SPRITES_PER_INVOCATION; i++) {
+            program[i * 6] = 0xD0;           // draw n byte sprite at (V0, V1)
+            program[i * 6 + 1] = 0x10 | spriteRows;
+            program[i * 6 + 2] = 0x70;       // V0 += 5
+            program[i * 6 + 3] = 0x05;
+            program[i * 6 + 4] = 0x71;       // V1 += 3
+            program[i * 6 + 5] = 0x03;
+        }
+        memory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+        memory.loadData(sprite, SPRITE_ADDRESS);
+        CPU drawingCpu = new CPU(500, memory, new PackedFrameBuffer(), new SilentSound(), new Keypad());
+        drawingCpu.setIRegister(SPRITE_ADDRESS);
+        return drawingCpu;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPRITES_PER_INVOCATION)
+    public int perPixel() {
+        int collisions = 0;
+        for (int i = 0; i < SPRITES_PER_INVOCATION; i++) {
+            collisions += drawPerPixel(i * 5, i * 3);
+        }
+        return collisions;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPRITES_PER_INVOCATION)
+    public int perRow() {
+        int collisions = 0;
+        for (int i = 0; i < SPRITES_PER_INVOCATION; i++) {
+            collisions += drawPerRow(i * 5, i * 3);
+        }
+        return collisions;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPRITES_PER_INVOCATION)
+    public int dxyn() {
+        cpu.setPc(Memory.READ_WRITE_START_LOCATION);
+        for (int i = 0; i < SPRITES_PER_INVOCATION * 3; i++) {
+            cpu.emulateCycle();
+        }
+        return cpu.getVRegister()[0xF];
+    }
+
+    /**
+     * The DXYN loop as it was before the framebuffer was bit-packed.
+     */
+    private int drawPerPixel(int vx, int vy) {
+        int collision = 0;
+        for (int yLine = 0; yLine < spriteRows; yLine++) {
+            int spriteByte = sprite[yLine];
+            int yCoord = (vy + yLine) % FrameBuffer.HEIGHT_IN_PIXELS;
+            for (int xLine = 0; xLine < 8; xLine++) {
+                int xCoord = (vx + xLine) % FrameBuffer.LENGTH_IN_PIXELS;
+                int previousPixelVal = pixelDisplay.getPixel(xCoord, yCoord);
+                int newPixelVal = previousPixelVal ^ (1 & (spriteByte >> 7 - xLine));
+                pixelDisplay.setPixel(xCoord, yCoord, newPixelVal);
+                if (previousPixelVal == 1 && newPixelVal == 0) {
+                    collision = 1;
+                }
+            }
+        }
+        return collision;
+    }
+
+    private int drawPerRow(int vx, int vy) {
+        int collision = 0;
+        int xCoord = vx % FrameBuffer.LENGTH_IN_PIXELS;
+        for (int yLine = 0; yLine < spriteRows; yLine++) {
+            int yCoord = (vy + yLine) % FrameBuffer.HEIGHT_IN_PIXELS;
+            if (display.drawSpriteRow(xCoord, yCoord, sprite[yLine])) {
+                collision = 1;
+            }
+        }
+        return collision;
+    }
+
+    /**
+     * The pixel storage and accessors the display used before rows
+     * were packed into longs.
+     */
+    private static class PixelDisplay {
+
+        private final int[][] pixelArr = new int[FrameBuffer.LENGTH_IN_PIXELS][FrameBuffer.HEIGHT_IN_PIXELS];
+
+        int getPixel(int x, int y) {
+            return pixelArr[x][y];
+        }
+
+        void setPixel(int x, int y, int val) {
+            if (val != FrameBuffer.PIXEL_ON_VALUE && val != FrameBuffer.PIXEL_OFF_VALUE) {
+                throw new IllegalArgumentException("Can only assign pixel the 0 (OFF) or 1 (ON). Value: " + val);
+            }
+            pixelArr[x][y] = val;
+        }
+    }
+}
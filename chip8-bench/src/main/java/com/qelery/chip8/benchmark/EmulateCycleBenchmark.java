@@ -0,0 +1,61 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.ExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single {@link CPU#emulateCycle()} calls on the instruction
+ * mix of real games rather than a synthetic loop.
+ * <p>
+ * Each ROM is run for a second of emulated time before measuring, so
+ * the CPU is past the game's start up code and into its main loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmulateCycleBenchmark {
+
+    private static final int CYCLES_PER_INVOCATION = 1_000;
+    private static final int WARM_UP_FRAMES = 60;
+
+    @Param({"PONG", "BRIX", "TETRIS", "INVADERS"})
+    private String rom;
+
+    private CPU cpu;
+
+    @Setup
+    public void setUp() {
+        Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        chip8.loadROM(Path.of(BenchmarkRoms.DIRECTORY, rom));
+        chip8.runFrames(WARM_UP_FRAMES);
+        cpu = chip8.getCpu();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES_PER_INVOCATION)
+    public int emulateCycle() {
+        for (int i = 0; i < CYCLES_PER_INVOCATION; i++) {
+            cpu.emulateCycle();
+        }
+        return cpu.getPc();
+    }
+}
@@ -0,0 +1,67 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.components.ExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures forks per second of a machine partway through a game, on
+ * their own and followed by a frame of play on the fork, as a tree
+ * search would do.
+ * <p>
+ * The played forks are kept alive in a ring of {@value #LIVE_FORKS},
+ * so the bytes allocated per operation that the GC profiler reports
+ * for {@link #forkAndRunFrame()} are the memory each live fork holds
+ * on to once it has copied the pages it wrote.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForkBenchmark {
+
+    private static final int LIVE_FORKS = 1024;
+
+    @Param({"PONG", "BRIX"})
+    private String rom;
+
+    private Chip8VM chip8;
+    private final Chip8VM[] liveForks = new Chip8VM[LIVE_FORKS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        chip8.loadROM(Path.of(BenchmarkRoms.DIRECTORY, rom));
+        chip8.runFrames(600);
+    }
+
+    @Benchmark
+    public Chip8VM fork() {
+        return chip8.fork();
+    }
+
+    @Benchmark
+    public Chip8VM forkAndRunFrame() {
+        Chip8VM child = chip8.fork();
+        child.runFrames(1);
+        liveForks[next] = child;
+        next = (next + 1) % LIVE_FORKS;
+        return child;
+    }
+}
@@ -0,0 +1,59 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.components.ExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end to end frames per second for each bundled ROM, running
+ * the headless machine with no pacing, rendering, or input.
+ * <p>
+ * A frame is a tick of the 60Hz timers and the cycles the CPU runs
+ * in it, so a score of 60 is real time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FramesBenchmark {
+
+    private static final int FRAMES_PER_INVOCATION = 60;
+
+    @Param({"15PUZZLE", "AIRPLANE", "ASTRODODGE", "BOWLING", "BREAKOUT", "BRIX", "HIDDEN", "INVADERS",
+            "KALEIDOSCOPE", "MERLIN", "PONG", "PUZZLE", "SUBMARINE", "TETRIS", "UFO"})
+    private String rom;
+
+    @Param({"SWITCH", "JIT"})
+    private ExecutionEngine engine;
+
+    private Chip8VM chip8;
+
+    @Setup
+    public void setUp() {
+        chip8 = Chip8VM.headlessBuild(engine);
+        chip8.loadROM(Path.of(BenchmarkRoms.DIRECTORY, rom));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES_PER_INVOCATION)
+    public int runFrames() {
+        chip8.runFrames(FRAMES_PER_INVOCATION);
+        return chip8.getCpu().getPc();
+    }
+}
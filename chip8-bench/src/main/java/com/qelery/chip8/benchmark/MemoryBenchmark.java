@@ -0,0 +1,64 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.Keypad;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import com.qelery.chip8.components.sound.SilentSound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a ROM that fills all of program memory, with and
+ * without a CPU that caches decoded instructions listening for writes,
+ * and creating a memory, whose allocated bytes per operation are the
+ * footprint of one machine's RAM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBenchmark {
+
+    @Param({"false", "true"})
+    private boolean watched;
+
+    private final byte[] rom = new byte[Memory.DEFAULT_SIZE - Memory.READ_WRITE_START_LOCATION];
+    private Memory memory;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < rom.length; i++) {
+            rom[i] = (byte) (i * 31);
+        }
+        memory = new Memory(Memory.DEFAULT_SIZE);
+        if (watched) {
+            new CPU(500, memory, new PackedFrameBuffer(), new SilentSound(), new Keypad(), ExecutionEngine.CACHED);
+        }
+    }
+
+    @Benchmark
+    public Memory loadData() {
+        memory.loadData(rom, Memory.READ_WRITE_START_LOCATION);
+        return memory;
+    }
+
+    @Benchmark
+    public Memory create() {
+        return new Memory(Memory.DEFAULT_SIZE);
+    }
+}
@@ -0,0 +1,99 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.MoviePlayer;
+import com.qelery.chip8.MovieRecorder;
+import com.qelery.chip8.components.ExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replaying a minute long movie of random key presses on a
+ * fresh machine, from opening the file to the last frame, and seeking
+ * to random frames of an hour long one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieBenchmark {
+
+    private static final int FRAMES = 60 * Chip8VM.INTERNAL_TIMERS_HERTZ;
+    private static final int HOUR_FRAMES = 60 * FRAMES;
+
+    /**
+     * INVADERS is left out because an hour of random input eventually
+     * leads it into calling more subroutines than the stack holds.
+     */
+    @Param({"PONG", "BRIX"})
+    private String rom;
+
+    @Param({"SWITCH", "JIT"})
+    private ExecutionEngine engine;
+
+    private Path moviePath;
+    private Path hourMoviePath;
+    private MoviePlayer hourPlayer;
+    private Random seekTargets;
+
+    @Setup
+    public void setUp() throws IOException {
+        moviePath = record(FRAMES);
+        hourMoviePath = record(HOUR_FRAMES);
+        hourPlayer = new MoviePlayer(hourMoviePath, Chip8VM.headlessBuild(engine));
+        seekTargets = new Random(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(moviePath);
+        Files.deleteIfExists(hourMoviePath);
+    }
+
+    @Benchmark
+    public Chip8VM replay() throws IOException {
+        Chip8VM chip8 = Chip8VM.headlessBuild(engine);
+        new MoviePlayer(moviePath, chip8).playToEnd();
+        return chip8;
+    }
+
+    @Benchmark
+    public long seek() {
+        hourPlayer.seek(seekTargets.nextInt(HOUR_FRAMES + 1));
+        return hourPlayer.frame();
+    }
+
+    private Path record(int frames) throws IOException {
+        Path path = Files.createTempFile("chip8-" + rom, ".c8m");
+        Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        chip8.loadROM(Files.readAllBytes(Path.of(BenchmarkRoms.DIRECTORY, rom)));
+        Random random = new Random(0);
+        try (MovieRecorder recorder = new MovieRecorder(chip8, path, 0)) {
+            for (int i = 0; i < frames; i++) {
+                int keyMask = random.nextInt(8) == 0 ? 1 << random.nextInt(16) : 0;
+                chip8.getKeypad().setKeyMask(keyMask);
+                chip8.runFrames(1);
+                recorder.recordFrame(keyMask, chip8.getCyclesPerFrame());
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,43 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.ROMLoader;
+import com.qelery.chip8.components.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures scanning the ROMs directory and looking up each ROM's
+ * instructions, the work done before the user is shown the catalogue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ROMLoaderBenchmark {
+
+    private ROMLoader romLoader;
+
+    @Setup
+    public void setUp() {
+        romLoader = new ROMLoader(new Memory(Memory.DEFAULT_SIZE), BenchmarkRoms.DIRECTORY,
+                BenchmarkRoms.INSTRUCTIONS_FILE);
+    }
+
+    @Benchmark
+    public int findRoms() {
+        romLoader.findRoms();
+        return romLoader.getAvailableRoms().size();
+    }
+}
@@ -0,0 +1,62 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.RewindBuffer;
+import com.qelery.chip8.components.ExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time recording a frame of rewind history adds to
+ * emulating that frame. The overhead of capturing is the difference
+ * between {@code frameWithCapture} and {@code frame}, as a share of
+ * {@code frame}, for the same ROM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewindBenchmark {
+
+    @Param({"PONG", "BRIX", "INVADERS"})
+    private String rom;
+
+    private Chip8VM chip8;
+    private RewindBuffer rewindBuffer;
+    private int cyclesPerFrame;
+
+    @Setup
+    public void setUp() {
+        chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        chip8.loadROM(Path.of(BenchmarkRoms.DIRECTORY, rom));
+        rewindBuffer = new RewindBuffer(chip8, 30, 16);
+        cyclesPerFrame = chip8.getCyclesPerFrame();
+    }
+
+    @Benchmark
+    public Chip8VM frame() {
+        chip8.runFrames(1);
+        return chip8;
+    }
+
+    @Benchmark
+    public Chip8VM frameWithCapture() {
+        chip8.runFrames(1);
+        rewindBuffer.capture(chip8.getKeypad().getKeyMask(), cyclesPerFrame);
+        return chip8;
+    }
+}
@@ -0,0 +1,72 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.components.ExecutionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures taking a snapshot of a running machine into a reused
+ * buffer, and restoring it, as a search loop would, and reading the
+ * machine's state hash against computing it from scratch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"SWITCH", "JIT"})
+    private ExecutionEngine engine;
+
+    private Chip8VM chip8;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        chip8 = Chip8VM.headlessBuild(engine);
+        chip8.loadROM(Path.of(BenchmarkRoms.DIRECTORY, "BRIX"));
+        chip8.runFrames(600);
+        buffer = ByteBuffer.allocate(chip8.snapshotSize());
+    }
+
+    @Benchmark
+    public ByteBuffer snapshot() {
+        buffer.clear();
+        chip8.snapshot(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Chip8VM snapshotAndRestore() {
+        buffer.clear();
+        chip8.snapshot(buffer);
+        chip8.restore(buffer.flip());
+        return chip8;
+    }
+
+    @Benchmark
+    public long stateHash() {
+        return chip8.stateHash();
+    }
+
+    @Benchmark
+    public long computeStateHash() {
+        return chip8.computeStateHash();
+    }
+}
@@ -0,0 +1,64 @@
+package com.qelery.chip8.benchmark;
+
+import com.qelery.chip8.VectorEnv;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.TimingModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures machine steps per second through {@link VectorEnv} on PONG
+ * with different numbers of threads, where one step is one machine
+ * running one frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorEnvBenchmark {
+
+    private static final int ENVS = 256;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private final int[] actions = new int[ENVS];
+    private VectorEnv env;
+
+    @Setup
+    public void setUp() {
+        env = new VectorEnv(Path.of(BenchmarkRoms.DIRECTORY, "PONG"), ENVS, threads, ExecutionEngine.SWITCH,
+                TimingModel.FLAT, VectorEnv.RewardFunction.NONE);
+        for (int i = 0; i < ENVS; i++) {
+            actions[i] = (i & 1) == 0 ? 0x2 : 0x10;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENVS)
+    public long[][] step() {
+        env.step(actions);
+        return env.getObservations();
+    }
+}
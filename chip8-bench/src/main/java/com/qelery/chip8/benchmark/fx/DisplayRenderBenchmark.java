@@ -0,0 +1,56 @@
+package com.qelery.chip8.benchmark.fx;
+
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import com.qelery.chip8.fx.Display;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering a frame into the JavaFX {@link Display} when only
+ * some of its rows have changed since the last render.
+ * <p>
+ * Only compiled with the {@code fx} profile, so other benchmark runs
+ * do not depend on the JavaFX front end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayRenderBenchmark {
+
+    @Param({"1", "8", "32"})
+    private int dirtyRows;
+
+    private Display display;
+    private FrameBuffer frameBuffer;
+
+    @Setup
+    public void setUp() {
+        display = new Display(12);
+        frameBuffer = new PackedFrameBuffer();
+        display.render(frameBuffer);
+    }
+
+    @Benchmark
+    public Display render() {
+        for (int y = 0; y < dirtyRows; y++) {
+            frameBuffer.drawSpriteRow(y, y, 0xA5);
+        }
+        display.render(frameBuffer);
+        return display;
+    }
+}
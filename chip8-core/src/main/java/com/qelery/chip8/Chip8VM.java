@@ -0,0 +1,370 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.Keypad;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import com.qelery.chip8.components.TimingModel;
+import com.qelery.chip8.components.sound.SilentSound;
+import com.qelery.chip8.components.sound.Sound;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An emulated CHIP-8 virtual machine.
+ * <p>
+ * The machine does not depend on any UI toolkit. Its pixels live in a
+ * {@link FrameBuffer} and its keys in a {@link Keypad}, and a front
+ * end such as the JavaFX one in the chip8-fx module renders the one
+ * and drives the other.
+ * <p>
+ * The whole machine can be captured with {@link #snapshot()} and put
+ * back with {@link #restore(ByteBuffer)}. A snapshot is a versioned
+ * binary record of about 4.5KB: a header, the CPU's registers, stack,
+ * timers, and random number generator, the held keys, the cycles left
+ * until the next timer tick, the screen rows, and all of memory.
+ * <p>
+ * A running machine can also be split in two with {@link #fork()},
+ * which copies its state lazily rather than up front, and told apart
+ * from other machines cheaply by its {@link #stateHash()}.
+ */
+public class Chip8VM {
+
+    public static final int INTERNAL_TIMERS_HERTZ = CPU.TIMERS_HERTZ;
+
+    /**
+     * "C8SN", the first four bytes of every snapshot.
+     */
+    public static final int SNAPSHOT_MAGIC = 0x4338534E;
+    /**
+     * Incremented whenever the snapshot layout changes.
+     */
+    public static final short SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 4 + 2 + 4;
+    private static final String ROMS_DIRECTORY_PATH = "src/main/resources/ROMS/";
+    private static final String INSTRUCTIONS_FILE_PATH = "src/main/resources/ROMInstructions.txt";
+
+    private final FrameBuffer frameBuffer;
+    private final Sound sound;
+    private final Keypad keypad;
+    private final Memory memory;
+    private final CPU cpu;
+    private final ROMLoader romLoader;
+    private final int cyclesPerFrame;
+    private int cyclesUntilTimerTick;
+
+    public Chip8VM(FrameBuffer frameBuffer, Sound sound, Keypad keypad, Memory memory, CPU cpu,
+                   String romsDirectoryPath, String instructionsFilePath) {
+        this(frameBuffer, sound, keypad, memory, cpu, new ROMLoader(memory, romsDirectoryPath, instructionsFilePath));
+    }
+
+    private Chip8VM(FrameBuffer frameBuffer, Sound sound, Keypad keypad, Memory memory, CPU cpu,
+                    ROMLoader romLoader) {
+        this.frameBuffer = frameBuffer;
+        this.sound = sound;
+        this.keypad = keypad;
+        this.memory = memory;
+        this.cpu = cpu;
+        this.romLoader = romLoader;
+        this.cyclesPerFrame = Math.max(1, Math.round(cpu.getClockSpeed() / (float) INTERNAL_TIMERS_HERTZ));
+        this.cyclesUntilTimerTick = cyclesPerFrame;
+    }
+
+    /**
+     * Builds a CHIP-8 machine with the default components, the given
+     * sound, and a CPU clocked at the speed the timing model is
+     * calibrated for.
+     *
+     * @param sound       the sound played while the sound timer is active
+     * @param engine      the strategy the CPU uses to execute instructions
+     * @param timingModel how many cycles each instruction costs
+     */
+    public static Chip8VM build(Sound sound, ExecutionEngine engine, TimingModel timingModel) {
+        FrameBuffer frameBuffer = new PackedFrameBuffer();
+        Keypad keypad = new Keypad();
+        Memory memory = new Memory(Memory.DEFAULT_SIZE);
+        CPU cpu = new CPU(timingModel.clockSpeed(), memory, frameBuffer, sound, keypad, engine, timingModel);
+        return new Chip8VM(frameBuffer, sound, keypad, memory, cpu, ROMS_DIRECTORY_PATH, INSTRUCTIONS_FILE_PATH);
+    }
+
+    /**
+     * Builds a CHIP-8 machine for running without a window or audio.
+     * <p>
+     * Sound is silent and the display is never rendered, so the
+     * machine can be driven with {@link #runFrames(int)} or
+     * {@link #runCycles(long)} as fast as the host allows.
+     *
+     * @param engine the strategy the CPU uses to execute instructions
+     */
+    public static Chip8VM headlessBuild(ExecutionEngine engine) {
+        return headlessBuild(engine, TimingModel.FLAT);
+    }
+
+    /**
+     * Builds a CHIP-8 machine for running without a window or audio,
+     * with a CPU clocked at the speed the timing model is calibrated for.
+     *
+     * @param engine      the strategy the CPU uses to execute instructions
+     * @param timingModel how many cycles each instruction costs
+     */
+    public static Chip8VM headlessBuild(ExecutionEngine engine, TimingModel timingModel) {
+        return build(new SilentSound(), engine, timingModel);
+    }
+
+    public void loadROM() {
+        romLoader.loadUserSelectedRom();
+    }
+
+    public void loadROM(Path romPath) {
+        romLoader.loadRom(romPath);
+    }
+
+    /**
+     * Writes a ROM that has already been read into memory, skipping the
+     * ROM loader's file and instructions lookups. Useful when many
+     * machines run the same ROM.
+     *
+     * @param rom the contents of the ROM file
+     */
+    public void loadROM(byte[] rom) {
+        memory.loadData(rom, Memory.READ_WRITE_START_LOCATION);
+    }
+
+    /**
+     * Runs the given number of frames without any real-time pacing.
+     * <p>
+     * A frame is the number of CPU cycles that fit into one tick of
+     * the 60Hz timers at the CPU's clock speed.
+     *
+     * @param frames number of frames to run
+     */
+    public void runFrames(int frames) {
+        runCycles((long) frames * cyclesPerFrame);
+    }
+
+    /**
+     * Runs the given number of CPU cycles without any real-time pacing.
+     * <p>
+     * The delay and sound timers are ticked once every
+     * {@link #getCyclesPerFrame()} emulated cycles rather than by the
+     * wall clock, so a run is the same no matter how fast the host is.
+     * A partial frame carries over into the next call.
+     *
+     * @param cycles number of cycles to run
+     */
+    public void runCycles(long cycles) {
+        long remaining = cycles;
+        while (remaining > 0) {
+            int batch = (int) Math.min(remaining, cyclesUntilTimerTick);
+            cpu.emulateCycles(batch);
+            remaining -= batch;
+            cyclesUntilTimerTick -= batch;
+            if (cyclesUntilTimerTick == 0) {
+                cpu.tickClocks();
+                cyclesUntilTimerTick = cyclesPerFrame;
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes a snapshot of this machine takes
+     */
+    public int snapshotSize() {
+        return SNAPSHOT_HEADER_SIZE + CPU.STATE_SIZE + 2 + 4
+                + FrameBuffer.HEIGHT_IN_PIXELS * Long.BYTES + memory.size();
+    }
+
+    /**
+     * Captures the whole machine into a new buffer.
+     *
+     * @return a buffer positioned at the start of the snapshot
+     */
+    public ByteBuffer snapshot() {
+        ByteBuffer target = ByteBuffer.allocate(snapshotSize());
+        snapshot(target);
+        return target.flip();
+    }
+
+    /**
+     * Captures the whole machine into an existing buffer, so snapshots
+     * can be taken repeatedly without allocating.
+     *
+     * @param target a buffer with at least {@link #snapshotSize()} bytes
+     *               remaining, written from its position
+     */
+    public void snapshot(ByteBuffer target) {
+        target.putInt(SNAPSHOT_MAGIC)
+                .putShort(SNAPSHOT_VERSION)
+                .putInt(memory.size());
+        cpu.saveState(target);
+        target.putShort((short) keypad.getKeyMask())
+                .putInt(cyclesUntilTimerTick);
+        for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+            target.putLong(frameBuffer.getRow(y));
+        }
+        memory.saveState(target);
+    }
+
+    /**
+     * Puts the machine back into the state captured by a snapshot.
+     *
+     * @param source a buffer positioned at the start of a snapshot
+     * @throws IllegalArgumentException if the buffer does not hold a
+     *                                  snapshot of this version taken
+     *                                  from a machine with the same
+     *                                  memory size
+     */
+    public void restore(ByteBuffer source) {
+        if (source.remaining() < snapshotSize()) {
+            throw new IllegalArgumentException("Snapshot is too short: " + source.remaining() + " bytes");
+        }
+        int magic = source.getInt();
+        short version = source.getShort();
+        int memorySize = source.getInt();
+        if (magic != SNAPSHOT_MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot");
+        }
+        if (version != SNAPSHOT_VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        }
+        if (memorySize != memory.size()) {
+            throw new IllegalArgumentException("Snapshot has " + memorySize + " bytes of memory but the machine has "
+                    + memory.size());
+        }
+        cpu.restoreState(source);
+        keypad.setKeyMask(source.getShort() & 0xFFFF);
+        cyclesUntilTimerTick = source.getInt();
+        for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+            frameBuffer.setRow(y, source.getLong());
+        }
+        memory.restoreState(source);
+        if (cpu.getSoundTimer() <= 0) {
+            sound.stop();
+        }
+    }
+
+    /**
+     * Returns a 64 bit hash of the machine's state: the CPU's
+     * registers, stack, and timers, all of memory, and the screen.
+     * Machines in the same state have the same hash, so it can be used
+     * to find states already visited in a search or to compare runs.
+     * The held keys, the random number generator, and the cycles left
+     * until the next timer tick are not included.
+     * <p>
+     * Memory and the screen keep their parts of the hash up to date as
+     * they are written, so a call only hashes the registers and any
+     * screen rows drawn since the last call, never all of memory. When
+     * assertions are enabled, as they are in tests, every call also
+     * checks the hash against {@link #computeStateHash()}.
+     *
+     * @return the hash
+     */
+    public long stateHash() {
+        return cpu.stateHash() ^ memory.stateHash() ^ frameBuffer.stateHash();
+    }
+
+    /**
+     * Computes the hash returned by {@link #stateHash()} from scratch,
+     * reading all of memory and every row of the screen.
+     *
+     * @return the hash
+     */
+    public long computeStateHash() {
+        return cpu.stateHash() ^ memory.computeStateHash() ^ frameBuffer.computeStateHash();
+    }
+
+    /**
+     * Creates a copy of the machine that can run on from here
+     * independently, e.g. to try out different inputs in a search.
+     * <p>
+     * The copy shares memory pages and screen rows with this machine,
+     * and a page or the screen is only copied once either machine
+     * writes to it, so forking takes the same small amount of time and
+     * memory however much state there is. The copy is always silent.
+     * Call from the thread running this machine. The copy may then be
+     * run on any thread.
+     *
+     * @return the new machine
+     */
+    public Chip8VM fork() {
+        Memory childMemory = memory.fork();
+        FrameBuffer childFrameBuffer = frameBuffer.fork();
+        Keypad childKeypad = new Keypad();
+        childKeypad.setKeyMask(keypad.getKeyMask());
+        Sound childSound = new SilentSound();
+        CPU childCpu = cpu.fork(childMemory, childFrameBuffer, childSound, childKeypad);
+        Chip8VM child = new Chip8VM(childFrameBuffer, childSound, childKeypad, childMemory, childCpu,
+                romLoader.withMemory(childMemory));
+        child.cyclesUntilTimerTick = cyclesUntilTimerTick;
+        return child;
+    }
+
+    /**
+     * Writes a snapshot of the machine to a file, replacing it if it exists.
+     *
+     * @param path the file to write
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        ByteBuffer snapshot = snapshot();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Restores the machine from a snapshot written by {@link #saveSnapshot(Path)}.
+     *
+     * @param path the file to read
+     * @throws IllegalArgumentException if the file does not hold a usable snapshot
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        ByteBuffer snapshot = ByteBuffer.allocate(snapshotSize());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (snapshot.hasRemaining() && channel.read(snapshot) >= 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+        }
+        restore(snapshot.flip());
+    }
+
+    public void printInstructions() {
+        romLoader.printLoadedRomInstructions();
+    }
+
+    public void stop() {
+        sound.closeLine();
+    }
+
+    public int getCyclesPerFrame() {
+        return cyclesPerFrame;
+    }
+
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    public Sound getSound() {
+        return sound;
+    }
+
+    public Keypad getKeypad() {
+        return keypad;
+    }
+
+    public Memory getMemory() {
+        return memory;
+    }
+
+    public CPU getCpu() {
+        return cpu;
+    }
+}
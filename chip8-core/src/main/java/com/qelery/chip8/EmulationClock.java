@@ -0,0 +1,104 @@
+package com.qelery.chip8;
+
+/**
+ * Converts elapsed wall-clock time into the CPU cycles and 60Hz timer
+ * ticks the emulator owes.
+ * <p>
+ * Fractions of a cycle or tick are carried over to the next call, so
+ * the long-run rate is exact no matter how often or how regularly
+ * {@link #advance(long)} is called. A stall longer than the catch-up
+ * cap is mostly forgotten rather than run off in one burst.
+ * <p>
+ * The speed multiplier can be changed at any time from any thread.
+ */
+public class EmulationClock {
+
+    public static final double MIN_SPEED = 0.25;
+    public static final double UNLIMITED_SPEED = Double.POSITIVE_INFINITY;
+    public static final long DEFAULT_MAX_CATCH_UP_NANO_SEC = 250_000_000L;
+    private static final double NANO_SEC_PER_SEC = 1.0e9;
+
+    private final int clockSpeed;
+    private final int timerHertz;
+    private final long maxCatchUpNanoSec;
+    private volatile double speed = 1.0;
+    private double owedCycles;
+    private double owedTimerTicks;
+
+    public EmulationClock(int clockSpeed, int timerHertz) {
+        this(clockSpeed, timerHertz, DEFAULT_MAX_CATCH_UP_NANO_SEC);
+    }
+
+    /**
+     * @param clockSpeed        CPU cycles per emulated second
+     * @param timerHertz        timer ticks per emulated second
+     * @param maxCatchUpNanoSec the most wall-clock time a single call
+     *                          to {@link #advance(long)} is credited with
+     */
+    public EmulationClock(int clockSpeed, int timerHertz, long maxCatchUpNanoSec) {
+        this.clockSpeed = clockSpeed;
+        this.timerHertz = timerHertz;
+        this.maxCatchUpNanoSec = maxCatchUpNanoSec;
+    }
+
+    /**
+     * Credits the clock with elapsed wall-clock time, scaled by the
+     * speed multiplier. At unlimited speed every call is credited with
+     * one timer tick's worth of emulated time instead, so the caller can
+     * run back to back without waiting.
+     *
+     * @param elapsedNanoSec wall-clock time since the previous call
+     */
+    public void advance(long elapsedNanoSec) {
+        double currentSpeed = speed;
+        double emulatedNanoSec;
+        if (currentSpeed == UNLIMITED_SPEED) {
+            emulatedNanoSec = NANO_SEC_PER_SEC / timerHertz;
+        } else {
+            emulatedNanoSec = Math.min(Math.max(elapsedNanoSec, 0), maxCatchUpNanoSec) * currentSpeed;
+        }
+        owedCycles += emulatedNanoSec * clockSpeed / NANO_SEC_PER_SEC;
+        owedTimerTicks += emulatedNanoSec * timerHertz / NANO_SEC_PER_SEC;
+    }
+
+    /**
+     * @return the whole number of CPU cycles owed, which are no longer
+     * owed afterwards
+     */
+    public int takeCycles() {
+        int cycles = (int) owedCycles;
+        owedCycles -= cycles;
+        return cycles;
+    }
+
+    /**
+     * @return the whole number of timer ticks owed, which are no longer
+     * owed afterwards
+     */
+    public int takeTimerTicks() {
+        int ticks = (int) owedTimerTicks;
+        owedTimerTicks -= ticks;
+        return ticks;
+    }
+
+    /**
+     * @param speed how many emulated seconds pass per real second, from
+     *              {@link #MIN_SPEED} up to {@link #UNLIMITED_SPEED}
+     * @throws IllegalArgumentException if the speed is below {@link #MIN_SPEED}
+     *                                  or not a number
+     */
+    public void setSpeed(double speed) {
+        if (!(speed >= MIN_SPEED)) {
+            throw new IllegalArgumentException("Speed must be at least " + MIN_SPEED + ". Value: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public boolean isUnlimited() {
+        return speed == UNLIMITED_SPEED;
+    }
+}
@@ -0,0 +1,234 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.util.TripleBuffer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a CHIP-8 machine in real time on its own thread.
+ * <p>
+ * Each pass runs the cycles and timer ticks that an
+ * {@link EmulationClock} says are owed for the time that passed. Key
+ * events posted by the UI are applied at each timer tick, so the keys
+ * held down never change between two ticks. Whenever the
+ * screen changed, the finished frame is published through a
+ * {@link TripleBuffer} for the UI thread to pick up with
+ * {@link #takeLatestFrame()}. The UI thread never touches the machine
+ * itself, so neither thread can stall the other.
+ * <p>
+ * With a {@link RewindBuffer} set, the machine is captured at every
+ * timer tick, and {@link #stepBack()} pauses the machine and steps it
+ * back a frame until {@link #resume()} is called. At unlimited speed a
+ * frame takes so little time that capturing it would slow the machine
+ * down noticeably, so nothing is captured and the history is dropped.
+ * <p>
+ * With a {@link MovieRecorder} set, the keys held down and the cycles
+ * run between each pair of timer ticks are recorded, so the session
+ * can be replayed exactly by a {@link MoviePlayer}.
+ */
+public class EmulationLoop implements Runnable {
+
+    private final Chip8VM chip8;
+    private final TripleBuffer<long[]> frames;
+    private final FrameScheduler scheduler;
+    private final EmulationClock clock;
+    private final AtomicInteger pendingStepBacks = new AtomicInteger();
+    private RewindBuffer rewindBuffer;
+    private MovieRecorder movieRecorder;
+    private int frameKeyMask;
+    private int frameCycles;
+    private volatile boolean running;
+    private volatile boolean paused;
+    private Thread thread;
+
+    public EmulationLoop(Chip8VM chip8) {
+        this.chip8 = chip8;
+        this.frames = new TripleBuffer<>(() -> new long[FrameBuffer.HEIGHT_IN_PIXELS]);
+        this.scheduler = new FrameScheduler(Math.round((1.0 / Chip8VM.INTERNAL_TIMERS_HERTZ) * 1.0e9));
+        this.clock = new EmulationClock(chip8.getCpu().getClockSpeed(), Chip8VM.INTERNAL_TIMERS_HERTZ);
+    }
+
+    /**
+     * Starts emulating on a new daemon thread.
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "chip8-emulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops emulating and waits for the current frame to finish.
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    @Override
+    public void run() {
+        CPU cpu = chip8.getCpu();
+        scheduler.reset();
+        long lastAdvance = System.nanoTime();
+        startFrame();
+        while (running) {
+            long now = System.nanoTime();
+            if (paused) {
+                applyStepBacks(cpu);
+            } else {
+                clock.advance(now - lastAdvance);
+                emulateOwedTime(cpu);
+            }
+            lastAdvance = now;
+
+            if (cpu.isDrawFlagSet()) {
+                chip8.getFrameBuffer().copyRowsTo(frames.getBackBuffer());
+                frames.publish();
+                cpu.clearDrawFlag();
+            }
+
+            if (paused || !clock.isUnlimited()) {
+                scheduler.awaitNextFrame();
+            }
+        }
+    }
+
+    /**
+     * Runs the owed cycles, spread evenly between the owed timer ticks
+     * so a tick never lands in the middle of a burst of cycles.
+     */
+    private void emulateOwedTime(CPU cpu) {
+        int cycles = clock.takeCycles();
+        int ticks = clock.takeTimerTicks();
+        if (ticks == 0) {
+            cpu.emulateCycles(cycles);
+            frameCycles += cycles;
+            return;
+        }
+        boolean capturing = rewindBuffer != null && !clock.isUnlimited();
+        if (rewindBuffer != null && !capturing && rewindBuffer.frames() > 0) {
+            // Frames run without being captured would leave a gap in the history
+            rewindBuffer.clear();
+        }
+        int cyclesRun = 0;
+        for (int tick = 1; tick <= ticks; tick++) {
+            int cyclesBeforeTick = (int) ((long) cycles * tick / ticks);
+            cpu.emulateCycles(cyclesBeforeTick - cyclesRun);
+            frameCycles += cyclesBeforeTick - cyclesRun;
+            cyclesRun = cyclesBeforeTick;
+            cpu.tickClocks();
+            if (capturing) {
+                rewindBuffer.capture(frameKeyMask, frameCycles);
+            }
+            if (movieRecorder != null) {
+                movieRecorder.recordFrame(frameKeyMask, frameCycles);
+            }
+            startFrame();
+        }
+    }
+
+    /**
+     * Applies the key events posted during the last frame, which are
+     * then held for the whole of the next one.
+     */
+    private void startFrame() {
+        chip8.getKeypad().applyPostedKeys();
+        frameKeyMask = chip8.getKeypad().getKeyMask();
+        frameCycles = 0;
+    }
+
+    private void applyStepBacks(CPU cpu) {
+        int steps = pendingStepBacks.getAndSet(0);
+        int steppedBack = 0;
+        while (steps-- > 0 && rewindBuffer != null && rewindBuffer.stepBack()) {
+            steppedBack++;
+        }
+        if (steppedBack > 0) {
+            if (movieRecorder != null) {
+                movieRecorder.dropFrames(steppedBack);
+            }
+            frameKeyMask = chip8.getKeypad().getKeyMask();
+            frameCycles = 0;
+            cpu.setDrawFlag(true);
+        }
+    }
+
+    /**
+     * Records a frame of history at every timer tick from now on.
+     * Must be called before {@link #start()}.
+     *
+     * @param rewindBuffer where to record history
+     */
+    public void setRewindBuffer(RewindBuffer rewindBuffer) {
+        this.rewindBuffer = rewindBuffer;
+    }
+
+    /**
+     * Records every frame from now on to a movie. Must be called
+     * before {@link #start()}, right after the ROM is loaded. Stepping
+     * back drops the frames stepped back through from the movie.
+     *
+     * @param movieRecorder where to record the frames
+     */
+    public void setMovieRecorder(MovieRecorder movieRecorder) {
+        this.movieRecorder = movieRecorder;
+    }
+
+    /**
+     * Pauses the machine and steps it back one frame, if there is
+     * history to step back through. Safe to call from any thread.
+     */
+    public void stepBack() {
+        paused = true;
+        pendingStepBacks.incrementAndGet();
+    }
+
+    /**
+     * Carries on emulating from the current frame after
+     * {@link #stepBack()}. Safe to call from any thread.
+     */
+    public void resume() {
+        paused = false;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Changes how fast the machine runs. Safe to call from any thread.
+     *
+     * @param speed emulated seconds per real second, from
+     *              {@link EmulationClock#MIN_SPEED} to
+     *              {@link EmulationClock#UNLIMITED_SPEED}
+     */
+    public void setSpeed(double speed) {
+        clock.setSpeed(speed);
+    }
+
+    public double getSpeed() {
+        return clock.getSpeed();
+    }
+
+    /**
+     * Only called from the UI thread.
+     *
+     * @return the rows of the newest finished frame, or null if the
+     * screen has not changed since the last call
+     */
+    public long[] takeLatestFrame() {
+        return frames.takeLatest();
+    }
+
+    /**
+     * @return how late frames have been starting
+     */
+    public FrameScheduler.Jitter getJitter() {
+        return scheduler.getJitter();
+    }
+}
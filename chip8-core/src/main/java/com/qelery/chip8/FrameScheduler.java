@@ -0,0 +1,100 @@
+package com.qelery.chip8;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a loop to a fixed frame rate without pinning a core.
+ * <p>
+ * The thread is parked for most of the time left in a frame and only
+ * spins for the last {@code spinThresholdNanoSec}, which is about as
+ * long as a park can overshoot by. How late each frame actually started
+ * is recorded so the pacing can be checked with {@link #getJitter()}.
+ */
+public class FrameScheduler {
+
+    public static final long DEFAULT_SPIN_THRESHOLD_NANO_SEC = 500_000;
+    private static final int JITTER_SAMPLES = 1024;
+
+    private final long frameDurationNanoSec;
+    private final long spinThresholdNanoSec;
+    private final long[] frameStartErrors = new long[JITTER_SAMPLES];
+    private int recordedFrames;
+    private long nextFrameStart;
+
+    public FrameScheduler(long frameDurationNanoSec) {
+        this(frameDurationNanoSec, DEFAULT_SPIN_THRESHOLD_NANO_SEC);
+    }
+
+    /**
+     * @param frameDurationNanoSec how long each frame lasts
+     * @param spinThresholdNanoSec how long before the next frame to stop
+     *                             parking and start spinning
+     */
+    public FrameScheduler(long frameDurationNanoSec, long spinThresholdNanoSec) {
+        this.frameDurationNanoSec = frameDurationNanoSec;
+        this.spinThresholdNanoSec = spinThresholdNanoSec;
+        this.nextFrameStart = System.nanoTime();
+    }
+
+    /**
+     * Makes the current time the start of a frame.
+     */
+    public void reset() {
+        nextFrameStart = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the next frame is due to start.
+     * <p>
+     * A loop that falls more than a frame behind is not made to catch
+     * up with a burst of frames. The schedule restarts from now instead.
+     */
+    public void awaitNextFrame() {
+        nextFrameStart += frameDurationNanoSec;
+        long remaining;
+        while ((remaining = nextFrameStart - System.nanoTime()) > spinThresholdNanoSec) {
+            LockSupport.parkNanos(remaining - spinThresholdNanoSec);
+        }
+        long now;
+        while ((now = System.nanoTime()) < nextFrameStart) {
+            Thread.onSpinWait();
+        }
+
+        long error = now - nextFrameStart;
+        frameStartErrors[recordedFrames % JITTER_SAMPLES] = error;
+        recordedFrames++;
+        if (error > frameDurationNanoSec) {
+            nextFrameStart = now;
+        }
+    }
+
+    /**
+     * @return how late frames started, over the most recent frames
+     */
+    public Jitter getJitter() {
+        int samples = Math.min(recordedFrames, JITTER_SAMPLES);
+        if (samples == 0) {
+            return new Jitter(0, 0, 0, 0);
+        }
+        long[] errors = Arrays.copyOf(frameStartErrors, samples);
+        Arrays.sort(errors);
+        return new Jitter(samples, percentile(errors, 50), percentile(errors, 99), errors[samples - 1]);
+    }
+
+    private static long percentile(long[] sortedErrors, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedErrors.length) - 1;
+        return sortedErrors[Math.max(index, 0)];
+    }
+
+    /**
+     * How late frames started compared to when they were due.
+     *
+     * @param samples    number of frames measured
+     * @param p50NanoSec median frame start error
+     * @param p99NanoSec 99th percentile frame start error
+     * @param maxNanoSec largest frame start error
+     */
+    public record Jitter(int samples, long p50NanoSec, long p99NanoSec, long maxNanoSec) {
+    }
+}
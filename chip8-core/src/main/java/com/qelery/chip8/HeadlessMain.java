@@ -0,0 +1,191 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.CosmacVipTimingModel;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.TimingModel;
+import com.qelery.chip8.util.LazyLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Runs a ROM without a window, audio, or real-time pacing.
+ * <p>
+ * Usage: {@code HeadlessMain <rom> [--frames n | --cycles n] [--engine name] [--timing flat|vip]
+ * [--instances n]}, or
+ * {@code HeadlessMain --replay <movie> [--seek frame] [--engine name] [--timing flat|vip]}
+ * <p>
+ * The machine runs as fast as the host allows and prints how many
+ * cycles it got through once it is done. Timers are driven by the
+ * emulated cycle count, so two runs of the same ROM end in the same
+ * state regardless of how long they took.
+ * <p>
+ * With {@code --instances}, that many copies of the ROM are run on a
+ * {@link VMFarm} across all cores and the combined frames per second
+ * is printed instead.
+ * <p>
+ * With {@code --replay}, a movie recorded with a {@link MovieRecorder}
+ * is played back on a fresh machine, and the frames per second, a hash
+ * of the final screen, and the {@link Chip8VM#stateHash()} of the
+ * final machine are printed. Both hashes are the same on every replay
+ * of the same movie. {@code --seek} jumps to a frame first,
+ * starting from the nearest keyframe in the movie.
+ */
+public class HeadlessMain {
+
+    private static final LazyLogger logger = LazyLogger.of(HeadlessMain.class);
+
+    private static final int DEFAULT_FRAMES = 60 * Chip8VM.INTERNAL_TIMERS_HERTZ;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--replay")) {
+            replay(args);
+            return;
+        }
+        if (args.length == 0 || args.length % 2 == 0) {
+            printUsage();
+            System.exit(2);
+        }
+
+        Path romPath = Paths.get(args[0]);
+        Long frames = null;
+        Long cycles = null;
+        Integer instances = null;
+        ExecutionEngine engine = ExecutionEngine.SWITCH;
+        TimingModel timingModel = TimingModel.FLAT;
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--frames" -> frames = Long.parseLong(args[i + 1]);
+                    case "--cycles" -> cycles = Long.parseLong(args[i + 1]);
+                    case "--engine" -> engine = ExecutionEngine.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                    case "--timing" -> timingModel = parseTimingModel(args[i + 1]);
+                    case "--instances" -> instances = Integer.parseInt(args[i + 1]);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            logger.get().error(e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+        if (instances != null && cycles != null) {
+            logger.get().error("--instances runs whole frames and cannot be combined with --cycles");
+            printUsage();
+            System.exit(2);
+        }
+        if (!Files.isRegularFile(romPath)) {
+            logger.get().error("Could not find ROM at path: {}", romPath.toAbsolutePath());
+            System.exit(3);
+        }
+
+        if (instances != null) {
+            runFarm(romPath, instances, frames != null ? frames.intValue() : DEFAULT_FRAMES, engine, timingModel);
+            return;
+        }
+
+        Chip8VM chip8 = Chip8VM.headlessBuild(engine, timingModel);
+        chip8.loadROM(romPath);
+
+        long cyclesToRun;
+        if (cycles != null) {
+            cyclesToRun = cycles;
+        } else {
+            cyclesToRun = (frames != null ? frames : DEFAULT_FRAMES) * chip8.getCyclesPerFrame();
+        }
+
+        long start = System.nanoTime();
+        chip8.runCycles(cyclesToRun);
+        long elapsed = System.nanoTime() - start;
+        chip8.stop();
+
+        double seconds = elapsed / 1.0e9;
+        long skipped = chip8.getCpu().getSkippedCycles();
+        System.out.printf("%s: %d cycles (%d frames) on %s in %.3f s, %.0f cycles/s, %d idle cycles skipped (%.1f%%)%n",
+                romPath.getFileName(), cyclesToRun, cyclesToRun / chip8.getCyclesPerFrame(), engine,
+                seconds, cyclesToRun / seconds, skipped, 100.0 * skipped / cyclesToRun);
+    }
+
+    private static void replay(String[] args) {
+        if (args.length % 2 != 0) {
+            printUsage();
+            System.exit(2);
+        }
+        Path moviePath = Paths.get(args[1]);
+        ExecutionEngine engine = ExecutionEngine.SWITCH;
+        TimingModel timingModel = TimingModel.FLAT;
+        long seekFrame = 0;
+        try {
+            for (int i = 2; i < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--seek" -> seekFrame = Long.parseLong(args[i + 1]);
+                    case "--engine" -> engine = ExecutionEngine.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                    case "--timing" -> timingModel = parseTimingModel(args[i + 1]);
+                    default -> throw new IllegalArgumentException("Unknown replay option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            logger.get().error(e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+
+        Chip8VM chip8 = Chip8VM.headlessBuild(engine, timingModel);
+        long frames;
+        long start;
+        try {
+            MoviePlayer player = new MoviePlayer(moviePath, chip8);
+            if (seekFrame > 0) {
+                long seekStart = System.nanoTime();
+                player.seek(seekFrame);
+                System.out.printf("%s: seeked to frame %d of %d in %.3f ms%n", moviePath.getFileName(),
+                        seekFrame, player.frames(), (System.nanoTime() - seekStart) / 1.0e6);
+            }
+            start = System.nanoTime();
+            frames = player.playToEnd();
+        } catch (IOException | IllegalArgumentException e) {
+            logger.get().error("Could not replay movie at path {}: {}", moviePath.toAbsolutePath(), e.getMessage());
+            System.exit(3);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        chip8.stop();
+
+        long[] rows = new long[FrameBuffer.HEIGHT_IN_PIXELS];
+        chip8.getFrameBuffer().copyRowsTo(rows);
+        double seconds = elapsed / 1.0e9;
+        System.out.printf("%s: %d frames on %s in %.3f s, %.0f frames/s, screen hash %08x, state hash %016x%n",
+                moviePath.getFileName(), frames, engine, seconds, frames / seconds, Arrays.hashCode(rows),
+                chip8.stateHash());
+    }
+
+    private static void runFarm(Path romPath, int instances, int frames, ExecutionEngine engine,
+                                TimingModel timingModel) {
+        try (VMFarm farm = new VMFarm(Runtime.getRuntime().availableProcessors(), engine, timingModel)) {
+            VMFarm.Report report = farm.run(Collections.nCopies(instances, romPath), frames);
+            System.out.printf("%s: %s on %s with %d threads, %.0f cycles/s%n",
+                    romPath.getFileName(), report, engine, farm.getParallelism(),
+                    report.cycles() / (report.elapsedNanos() / 1.0e9));
+        }
+    }
+
+    private static TimingModel parseTimingModel(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "flat" -> TimingModel.FLAT;
+            case "vip" -> new CosmacVipTimingModel();
+            default -> throw new IllegalArgumentException("Unknown timing model " + name);
+        };
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: HeadlessMain <rom> [--frames n | --cycles n] [--engine SWITCH|TABLE|CACHED|JIT]"
+                + " [--timing flat|vip] [--instances n]");
+        System.out.println("       HeadlessMain --replay <movie> [--seek frame] [--engine SWITCH|TABLE|CACHED|JIT] [--timing flat|vip]");
+    }
+}
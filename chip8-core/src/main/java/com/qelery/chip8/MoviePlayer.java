@@ -0,0 +1,216 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.CPU;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Plays back a movie written by {@link MovieRecorder}, as fast as the
+ * host allows, and seeks to any frame in it.
+ * <p>
+ * Each frame holds down the recorded keys, runs the recorded number of
+ * cycles, and ticks the timers, exactly as the recording machine did,
+ * so the machine ends every frame in the same state as the recording.
+ * <p>
+ * The file is memory mapped and its keyframe index read up front.
+ * Seeking restores the last keyframe at or before the frame sought and
+ * plays the frames after it, so it never plays more than one keyframe
+ * interval of frames. A movie whose recording was cut short has no
+ * index, and its keyframes are found from the interval in its header.
+ * <p>
+ * Not thread safe.
+ */
+public class MoviePlayer {
+
+    private final Chip8VM chip8;
+    private final ByteBuffer movie;
+    private final long seed;
+    private final int snapshotSize;
+    private final long frames;
+    private final long[] keyframeFrames;
+    private final int[] keyframeOffsets;
+    private long frame;
+    private int position;
+    private int nextKeyframe;
+
+    /**
+     * Opens a movie and puts the machine into the state it was
+     * recorded from.
+     *
+     * @param path  the movie to play
+     * @param chip8 a machine with the same clock speed and memory size
+     *              as the one that was recorded
+     * @throws IllegalArgumentException if the file is not a movie this
+     *                                  machine can play
+     */
+    public MoviePlayer(Path path, Chip8VM chip8) throws IOException {
+        this.chip8 = chip8;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Movie is too large to map: " + path);
+            }
+            this.movie = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (movie.limit() < MovieRecorder.headerSize(0) || movie.getInt(0) != MovieRecorder.MOVIE_MAGIC) {
+            throw new IllegalArgumentException("Not a movie: " + path);
+        }
+        short version = movie.getShort(4);
+        if (version != MovieRecorder.MOVIE_VERSION) {
+            throw new IllegalArgumentException("Unsupported movie version " + version);
+        }
+        int clockSpeed = movie.getInt(6);
+        if (clockSpeed != chip8.getCpu().getClockSpeed()) {
+            throw new IllegalArgumentException("Movie was recorded at " + clockSpeed
+                    + " cycles per second but the machine runs at " + chip8.getCpu().getClockSpeed());
+        }
+        this.seed = movie.getLong(10);
+        int keyframeInterval = movie.getInt(18);
+        this.snapshotSize = movie.getInt(22);
+        if (snapshotSize != chip8.snapshotSize()) {
+            throw new IllegalArgumentException("Movie snapshots are " + snapshotSize
+                    + " bytes but the machine's are " + chip8.snapshotSize());
+        }
+        int headerSize = MovieRecorder.headerSize(movie.getShort(26) & 0xFFFF);
+
+        int limit = movie.limit();
+        if (limit >= headerSize + MovieRecorder.TRAILER_SIZE && movie.getInt(limit - 4) == MovieRecorder.INDEX_MAGIC) {
+            int trailer = limit - MovieRecorder.TRAILER_SIZE;
+            this.frames = movie.getLong(trailer);
+            int keyframes = movie.getInt(trailer + 8);
+            int indexOffset = (int) movie.getLong(trailer + 12);
+            this.keyframeFrames = new long[keyframes];
+            this.keyframeOffsets = new int[keyframes];
+            for (int i = 0; i < keyframes; i++) {
+                int entry = indexOffset + i * MovieRecorder.INDEX_ENTRY_SIZE;
+                keyframeFrames[i] = movie.getLong(entry);
+                keyframeOffsets[i] = (int) movie.getLong(entry + 8);
+            }
+        } else {
+            long[] foundFrames = new long[16];
+            int[] foundOffsets = new int[16];
+            int keyframes = 0;
+            long frameCount = 0;
+            int offset = headerSize;
+            while (true) {
+                if (frameCount % keyframeInterval == 0) {
+                    if (offset + snapshotSize > limit) {
+                        break;
+                    }
+                    if (keyframes == foundFrames.length) {
+                        foundFrames = Arrays.copyOf(foundFrames, keyframes * 2);
+                        foundOffsets = Arrays.copyOf(foundOffsets, keyframes * 2);
+                    }
+                    foundFrames[keyframes] = frameCount;
+                    foundOffsets[keyframes++] = offset;
+                    offset += snapshotSize;
+                }
+                if (offset + MovieRecorder.FRAME_SIZE > limit) {
+                    break;
+                }
+                offset += MovieRecorder.FRAME_SIZE;
+                frameCount++;
+            }
+            if (keyframes == 0) {
+                throw new IllegalArgumentException("Movie ends before its first keyframe: " + path);
+            }
+            this.frames = frameCount;
+            this.keyframeFrames = Arrays.copyOf(foundFrames, keyframes);
+            this.keyframeOffsets = Arrays.copyOf(foundOffsets, keyframes);
+        }
+        restoreKeyframe(0);
+    }
+
+    /**
+     * Plays the next frame of the movie.
+     *
+     * @return false if the movie has ended
+     */
+    public boolean playFrame() {
+        if (frame == frames) {
+            return false;
+        }
+        if (nextKeyframe < keyframeFrames.length && keyframeFrames[nextKeyframe] == frame) {
+            position = keyframeOffsets[nextKeyframe++] + snapshotSize;
+        }
+        CPU cpu = chip8.getCpu();
+        chip8.getKeypad().setKeyMask(movie.getShort(position) & 0xFFFF);
+        cpu.emulateCycles(movie.getShort(position + 2) & 0xFFFF);
+        cpu.tickClocks();
+        position += MovieRecorder.FRAME_SIZE;
+        frame++;
+        return true;
+    }
+
+    /**
+     * Plays every frame left in the movie.
+     *
+     * @return the number of frames played
+     */
+    public long playToEnd() {
+        long start = frame;
+        while (playFrame()) {
+            // each call plays one frame
+        }
+        return frame - start;
+    }
+
+    /**
+     * Puts the machine into the state it was in after the given number
+     * of frames, going backwards or forwards.
+     *
+     * @param target the number of frames played once the seek is done
+     * @throws IllegalArgumentException if the movie does not have that many frames
+     */
+    public void seek(long target) {
+        if (target < 0 || target > frames) {
+            throw new IllegalArgumentException("Cannot seek to frame " + target + " of " + frames);
+        }
+        int keyframe = Arrays.binarySearch(keyframeFrames, target);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        if (frame > target || keyframeFrames[keyframe] > frame) {
+            restoreKeyframe(keyframe);
+        }
+        while (frame < target) {
+            playFrame();
+        }
+    }
+
+    private void restoreKeyframe(int keyframe) {
+        chip8.restore(movie.slice(keyframeOffsets[keyframe], snapshotSize));
+        frame = keyframeFrames[keyframe];
+        position = keyframeOffsets[keyframe] + snapshotSize;
+        nextKeyframe = keyframe + 1;
+    }
+
+    /**
+     * @return the number of frames played so far
+     */
+    public long frame() {
+        return frame;
+    }
+
+    /**
+     * @return the number of frames in the movie
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * @return the number of snapshots the movie can be seeked from
+     */
+    public int keyframes() {
+        return keyframeFrames.length;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,291 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.Keypad;
+import com.qelery.chip8.components.Memory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records the input to a machine as a movie that {@link MoviePlayer}
+ * can play back exactly, and seek through.
+ * <p>
+ * A movie starts with a header holding the ROM, the seed of the CPU's
+ * random number generator, the clock speed it was recorded at, and the
+ * keyframe interval and snapshot size. After that comes one record per
+ * frame: the 16 bit {@link Keypad} key mask that was held during the
+ * frame, and the number of cycles the CPU ran before the frame's timer
+ * tick, both as unsigned shorts. The number of cycles is recorded
+ * because a real-time loop does not run the same number every frame.
+ * <p>
+ * Before the first frame and every {@code keyframeInterval} frames
+ * after it, a full {@link Chip8VM#snapshot()} of the machine is written
+ * ahead of the frame's record, so a player can start from the nearest
+ * one instead of the beginning. Closing the recorder appends an index
+ * of the keyframes, as pairs of frame number and file offset, followed
+ * by a fixed size trailer:
+ * {@code [frames: long][keyframes: int][index offset: long]["C8MI": int]}.
+ * <p>
+ * Everything is collected in a buffer and written to the file whenever
+ * it fills up, so recording a frame does not normally touch the disk.
+ * An error writing the file stops the recording rather than the
+ * machine, and is thrown by {@link #close()}.
+ * <p>
+ * Not thread safe. Record frames from the thread running the machine.
+ */
+public class MovieRecorder implements AutoCloseable {
+
+    /**
+     * "C8MV", the first four bytes of every movie.
+     */
+    public static final int MOVIE_MAGIC = 0x43384D56;
+    /**
+     * "C8MI", the last four bytes of every movie that was closed.
+     */
+    public static final int INDEX_MAGIC = 0x43384D49;
+    /**
+     * Incremented whenever the movie layout changes.
+     */
+    public static final short MOVIE_VERSION = 2;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10 * Chip8VM.INTERNAL_TIMERS_HERTZ;
+    static final int FRAME_SIZE = 2 + 2;
+    static final int INDEX_ENTRY_SIZE = 8 + 8;
+    static final int TRAILER_SIZE = 8 + 4 + 8 + 4;
+    static final int MAX_FRAME_CYCLES = 0xFFFF;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Chip8VM chip8;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int keyframeInterval;
+    private final int snapshotSize;
+    private final long headerSize;
+    /**
+     * The file offset the start of the buffer will be written to.
+     */
+    private long bufferOffset;
+    private long frames;
+    private IOException failure;
+
+    /**
+     * Starts a movie of a machine that has just had its ROM loaded,
+     * seeding its random number generator with a random seed.
+     *
+     * @param chip8 the machine to record, before it has run any cycles
+     * @param path  where to write the movie, replacing any file there
+     * @throws IOException if the file cannot be written
+     */
+    public MovieRecorder(Chip8VM chip8, Path path) throws IOException {
+        this(chip8, path, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Starts a movie of a machine that has just had its ROM loaded,
+     * with a keyframe every {@link #DEFAULT_KEYFRAME_INTERVAL} frames.
+     *
+     * @param chip8 the machine to record, before it has run any cycles
+     * @param path  where to write the movie, replacing any file there
+     * @param seed  the seed to give the machine's random number generator
+     * @throws IOException if the file cannot be written
+     */
+    public MovieRecorder(Chip8VM chip8, Path path, long seed) throws IOException {
+        this(chip8, path, seed, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Starts a movie of a machine that has just had its ROM loaded.
+     *
+     * @param chip8            the machine to record, before it has run any cycles
+     * @param path             where to write the movie, replacing any file there
+     * @param seed             the seed to give the machine's random number generator
+     * @param keyframeInterval how many frames to record between snapshots
+     * @throws IOException if the file cannot be written
+     */
+    public MovieRecorder(Chip8VM chip8, Path path, long seed, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least one frame");
+        }
+        this.chip8 = chip8;
+        this.keyframeInterval = keyframeInterval;
+        this.snapshotSize = chip8.snapshotSize();
+        byte[] rom = readRom(chip8.getMemory());
+        this.headerSize = headerSize(rom.length);
+        chip8.getCpu().setRandomSeed(seed);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MOVIE_MAGIC)
+                .putShort(MOVIE_VERSION)
+                .putInt(chip8.getCpu().getClockSpeed())
+                .putLong(seed)
+                .putInt(keyframeInterval)
+                .putInt(snapshotSize)
+                .putShort((short) rom.length)
+                .put(rom);
+        writeKeyframe();
+        flush();
+        if (failure != null) {
+            channel.close();
+            throw failure;
+        }
+    }
+
+    /**
+     * Appends a frame to the movie, followed by a snapshot of the
+     * machine if a keyframe is due.
+     *
+     * @param keyMask the keys held down during the frame, bit n being key n
+     * @param cycles  the cycles run before the frame's timer tick
+     * @throws IllegalArgumentException if the cycles do not fit in a frame record
+     */
+    public void recordFrame(int keyMask, int cycles) {
+        if (cycles < 0 || cycles > MAX_FRAME_CYCLES) {
+            throw new IllegalArgumentException("Cannot record a frame of " + cycles + " cycles");
+        }
+        if (failure != null) {
+            return;
+        }
+        ensureRoom(FRAME_SIZE);
+        buffer.putShort((short) keyMask).putShort((short) cycles);
+        frames++;
+        if (frames % keyframeInterval == 0) {
+            writeKeyframe();
+        }
+    }
+
+    /**
+     * Removes frames from the end of the movie, e.g. after the machine
+     * has been stepped back through them, so that recording can carry
+     * on from an earlier frame. The machine must be in the state it was
+     * in at the end of the last frame kept.
+     *
+     * @param count how many frames to remove, at most all of them
+     */
+    public void dropFrames(int count) {
+        frames -= Math.min(count, frames);
+        if (failure != null) {
+            return;
+        }
+        long end = endOffset(frames);
+        if (end >= bufferOffset) {
+            buffer.position((int) (end - bufferOffset));
+            return;
+        }
+        buffer.clear();
+        bufferOffset = end;
+        try {
+            channel.truncate(end);
+            channel.position(end);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * @return the number of frames recorded so far
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * Writes any buffered frames and the keyframe index, and closes
+     * the file.
+     *
+     * @throws IOException if the movie could not be written completely
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            writeIndex();
+            flush();
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeKeyframe() {
+        ensureRoom(snapshotSize);
+        chip8.snapshot(buffer);
+    }
+
+    private void writeIndex() {
+        if (failure != null) {
+            return;
+        }
+        long indexOffset = endOffset(frames);
+        int keyframes = (int) (frames / keyframeInterval) + 1;
+        for (int i = 0; i < keyframes; i++) {
+            ensureRoom(INDEX_ENTRY_SIZE);
+            buffer.putLong((long) i * keyframeInterval).putLong(keyframeOffset(i));
+        }
+        ensureRoom(TRAILER_SIZE);
+        buffer.putLong(frames)
+                .putInt(keyframes)
+                .putLong(indexOffset)
+                .putInt(INDEX_MAGIC);
+    }
+
+    private long keyframeOffset(int keyframe) {
+        return headerSize + keyframe * ((long) snapshotSize + (long) keyframeInterval * FRAME_SIZE);
+    }
+
+    /**
+     * @return the file offset just past the given number of frames and
+     * the keyframe that follows them, if one is due
+     */
+    private long endOffset(long frames) {
+        return headerSize + (frames / keyframeInterval + 1) * snapshotSize + frames * FRAME_SIZE;
+    }
+
+    private void ensureRoom(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (failure != null) {
+            buffer.clear();
+            return;
+        }
+        buffer.flip();
+        bufferOffset += buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        buffer.clear();
+    }
+
+    static int headerSize(int romLength) {
+        return 4 + 2 + 4 + 8 + 4 + 4 + 2 + romLength;
+    }
+
+    /**
+     * @return the program area of memory, without the unused bytes after the program
+     */
+    private static byte[] readRom(Memory memory) {
+        int end = memory.size();
+        while (end > Memory.READ_WRITE_START_LOCATION && memory.readByte(end - 1) == 0) {
+            end--;
+        }
+        byte[] rom = new byte[end - Memory.READ_WRITE_START_LOCATION];
+        for (int i = 0; i < rom.length; i++) {
+            rom[i] = (byte) memory.readByte(Memory.READ_WRITE_START_LOCATION + i);
+        }
+        return rom;
+    }
+}
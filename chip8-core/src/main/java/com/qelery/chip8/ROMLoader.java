@@ -2,8 +2,7 @@ package com.qelery.chip8;
 
 import com.qelery.chip8.components.Memory;
 import com.qelery.chip8.util.IOUtils;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import com.qelery.chip8.util.LazyLogger;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -21,7 +20,8 @@ record ROM(String name, String instructions, Path path) {
 
 public class ROMLoader {
 
-    private static final Logger logger = LogManager.getLogger(ROMLoader.class);
+    private static final LazyLogger logger = LazyLogger.of(ROMLoader.class);
+
     private final String romsDirectoryPath;
     private final String instructionsFilePath;
     private final Memory memory;
@@ -36,10 +36,17 @@ public class ROMLoader {
         this.availableRoms = new ArrayList<>();
     }
 
+    /**
+     * @return a loader for the same ROMs that writes into other memory
+     */
+    ROMLoader withMemory(Memory memory) {
+        return new ROMLoader(memory, romsDirectoryPath, instructionsFilePath);
+    }
+
     public void loadUserSelectedRom() {
         findRoms();
         if (this.availableRoms.isEmpty()) {
-            logger.error("No ROMs were found in directory {}", Paths.get(romsDirectoryPath).toAbsolutePath());
+            logger.get().error("No ROMs were found in directory {}", Paths.get(romsDirectoryPath).toAbsolutePath());
             System.exit(2);
         }
         printAvailableRoms();
@@ -47,7 +54,21 @@ public class ROMLoader {
         writeRomToMemory(selectedRom);
     }
 
-    private void findRoms() {
+    /**
+     * Loads the ROM at the given path without prompting the user.
+     *
+     * @param romPath path to the ROM file
+     */
+    public void loadRom(Path romPath) {
+        String romName = romPath.getFileName().toString();
+        writeRomToMemory(new ROM(romName, findInstructions(romName), romPath));
+    }
+
+    /**
+     * Scans the ROMs directory and looks up the instructions for each
+     * ROM found, replacing the available ROMs.
+     */
+    public void findRoms() {
         Path romsPath = Paths.get(romsDirectoryPath);
         try (Stream<Path> paths = Files.walk(romsPath)) {
             this.availableRoms = paths.filter(Files::isRegularFile)
@@ -58,7 +79,7 @@ public class ROMLoader {
                     })
                     .toList();
         } catch (IOException e) {
-            logger.error("Could not find ROM directory at {}", romsPath.toAbsolutePath());
+            logger.get().error("Could not find ROM directory at {}", romsPath.toAbsolutePath());
             System.exit(1);
         }
     }
@@ -78,10 +99,10 @@ public class ROMLoader {
                 }
             }
         } catch (IOException e) {
-            logger.error("Could not find game instructions file at path: {}", fileLocation.toAbsolutePath());
+            logger.get().error("Could not find game instructions file at path: {}", fileLocation.toAbsolutePath());
         }
         if (instructions == null) {
-            logger.info("No instructions were found for {}", romName);
+            logger.get().info("No instructions were found for {}", romName);
         }
         return instructions;
     }
@@ -125,16 +146,16 @@ public class ROMLoader {
             memory.loadData(byteArray, Memory.READ_WRITE_START_LOCATION);
             this.loadedRom = rom;
         } catch (IOException e) {
-            logger.error("Could not load ROM at path: {}", rom.path().toAbsolutePath());
+            logger.get().error("Could not load ROM at path: {}", rom.path().toAbsolutePath());
             System.exit(3);
         }
     }
 
     public void printLoadedRomInstructions() {
         if (loadedRom == null) {
-            logger.info("Cannot print ROM instructions. No ROM loaded.");
+            logger.get().info("Cannot print ROM instructions. No ROM loaded.");
         } else if (loadedRom.instructions() == null || loadedRom.instructions().isEmpty()) {
-            logger.info("No instructions were found for {}", loadedRom::name);
+            logger.get().info("No instructions were found for {}", loadedRom::name);
         } else {
             System.out.printf("%n<%s> INSTRUCTIONS:%n", loadedRom.name());
             for (String line : loadedRom.instructions().split("<br>")) {
@@ -0,0 +1,457 @@
+package com.qelery.chip8;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Keeps the recent history of a machine so it can be stepped backwards
+ * a frame at a time.
+ * <p>
+ * Taking a snapshot costs far more than emulating a frame, so a frame
+ * is recorded as just the keys held down and the cycles run during it,
+ * and a state of the whole machine is only stored once
+ * {@code stateCycles} cycles have run since the last one. Stepping back
+ * restores the newest state at or before the frame stepped back to and
+ * replays the frames after it, the way a {@link MoviePlayer} does.
+ * <p>
+ * Every {@code keyframeInterval} states a full {@link Chip8VM#snapshot()}
+ * is stored. The states in between are stored as the XOR of their
+ * snapshot with the previous state's, run length encoded so the bytes
+ * that did not change take no space. Since XOR undoes itself, dropping
+ * a delta state only needs that one delta. Dropping a keyframe rebuilds
+ * the state before it from the previous keyframe.
+ * <p>
+ * All of the storage is allocated up front, {@code maxBytes} in all.
+ * The oldest keyframe and its deltas are dropped together when a new
+ * state does not fit, or when the frames after the next keyframe alone
+ * reach back {@code maxFrames} frames. A keyframe is stored at least
+ * every {@code maxFrames} frames, so the buffer holds between
+ * {@code maxFrames} and three times that many frames once it has
+ * filled up.
+ * <p>
+ * Not thread safe. Capture and step back from the thread running the
+ * machine.
+ */
+public class RewindBuffer {
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 16;
+    /**
+     * Running this many cycles takes hundreds of times longer than
+     * storing a state, so the states add under 1% to emulation,
+     * while replaying them on a step back still takes under a
+     * millisecond.
+     */
+    public static final int DEFAULT_STATE_CYCLES = 100_000;
+
+    /**
+     * Unchanged bytes shorter than this stay inside a literal run, as
+     * ending the run and starting another would cost more.
+     */
+    private static final int MIN_SKIPPED_RUN = 4;
+    private static final int RUN_HEADER_SIZE = 4;
+    private static final int FRAME_SIZE = Character.BYTES + Integer.BYTES;
+    private static final int FRAMES_PER_MAX_FRAMES = 3;
+
+    private final Chip8VM chip8;
+    private final int snapshotSize;
+    private final int maxFrames;
+    private final int keyframeInterval;
+    private final int stateCycles;
+
+    /**
+     * The keys held down and cycles run in each frame, by frame number.
+     */
+    private final char[] frameKeyMasks;
+    private final int[] frameCycles;
+    private long newestFrame = -1;
+    private int newestFrameSlot;
+    /**
+     * Counted down by each frame, so capturing a frame only checks
+     * whether either has run out to know if a state is due.
+     */
+    private long cyclesUntilState;
+    private int framesUntilKeyframe;
+
+    private final byte[] data;
+    private int writePosition;
+    private int usedBytes;
+
+    private final int[] offsets;
+    private final int[] lengths;
+    /**
+     * Bytes each record took from the ring, including any skipped at
+     * the end of the ring because the record did not fit there.
+     */
+    private final int[] consumed;
+    private final boolean[] keyframes;
+    private final long[] stateFrames;
+    private int oldest;
+    private int count;
+    private int keyframeCount;
+    private int statesSinceKeyframe;
+    private long newestKeyframeFrame;
+
+    /**
+     * The snapshot of the newest state in the buffer.
+     */
+    private byte[] newest;
+    private byte[] scratch;
+    private final byte[] encoded;
+
+    /**
+     * @param chip8     the machine to record
+     * @param seconds   how many seconds of frames to keep at least
+     * @param megabytes how much memory to use at most
+     */
+    public RewindBuffer(Chip8VM chip8, int seconds, int megabytes) {
+        this(chip8, seconds * Chip8VM.INTERNAL_TIMERS_HERTZ, megabytes * 1024 * 1024,
+                DEFAULT_KEYFRAME_INTERVAL, DEFAULT_STATE_CYCLES);
+    }
+
+    /**
+     * @param chip8            the machine to record
+     * @param maxFrames        how many frames to keep at least, once that many are captured
+     * @param maxBytes         how many bytes to use at most
+     * @param keyframeInterval how often to store a full snapshot rather
+     *                         than the changes since the last state
+     * @param stateCycles      how many cycles to run between storing states
+     * @throws IllegalArgumentException if there is not room for the
+     *                                  frames and two full snapshots
+     */
+    public RewindBuffer(Chip8VM chip8, int maxFrames, int maxBytes, int keyframeInterval, int stateCycles) {
+        this.chip8 = chip8;
+        this.snapshotSize = chip8.snapshotSize();
+        long frameBytes = (long) FRAMES_PER_MAX_FRAMES * FRAME_SIZE * Math.max(maxFrames, 0);
+        if (maxFrames < 2 || maxBytes - frameBytes < 2L * snapshotSize || keyframeInterval < 1 || stateCycles < 1) {
+            throw new IllegalArgumentException("A rewind buffer needs room for " + maxFrames
+                    + " frames and at least two states of " + snapshotSize + " bytes");
+        }
+        this.maxFrames = maxFrames;
+        this.keyframeInterval = keyframeInterval;
+        this.stateCycles = stateCycles;
+        int frames = FRAMES_PER_MAX_FRAMES * maxFrames;
+        this.frameKeyMasks = new char[frames];
+        this.frameCycles = new int[frames];
+        this.newestFrameSlot = frames - 1;
+        this.data = new byte[(int) (maxBytes - frameBytes)];
+        this.offsets = new int[frames];
+        this.lengths = new int[frames];
+        this.consumed = new int[frames];
+        this.keyframes = new boolean[frames];
+        this.stateFrames = new long[frames];
+        this.newest = new byte[snapshotSize];
+        this.scratch = new byte[snapshotSize];
+        this.encoded = new byte[snapshotSize];
+    }
+
+    /**
+     * Records a frame that has just been run as the newest frame.
+     *
+     * @param keyMask the keys held down during the frame, as in {@link com.qelery.chip8.components.Keypad#getKeyMask()}
+     * @param cycles  the cycles run during the frame
+     */
+    public void capture(int keyMask, int cycles) {
+        newestFrame++;
+        int slot = newestFrameSlot + 1;
+        if (slot == frameCycles.length) {
+            slot = 0;
+        }
+        newestFrameSlot = slot;
+        frameKeyMasks[slot] = (char) keyMask;
+        frameCycles[slot] = cycles;
+        cyclesUntilState -= cycles;
+        if (cyclesUntilState <= 0 || --framesUntilKeyframe <= 0) {
+            captureState();
+        }
+    }
+
+    /**
+     * Drops the newest frame and puts the machine back into the state
+     * it was in after the frame before it.
+     *
+     * @return false if there was no earlier frame to go back to
+     */
+    public boolean stepBack() {
+        if (frames() < 2) {
+            return false;
+        }
+        long target = newestFrame - 1;
+        int last = index(count - 1);
+        if (stateFrames[last] > target) {
+            if (keyframes[last]) {
+                rebuildFromKeyframe(count - 2);
+            } else {
+                applyDelta(data, offsets[last], lengths[last], newest);
+            }
+            dropNewest();
+            countStatesSinceKeyframe();
+        }
+        chip8.restore(ByteBuffer.wrap(newest));
+        cyclesUntilState = stateCycles;
+        for (long frame = stateFrames[index(count - 1)] + 1; frame <= target; frame++) {
+            int slot = (int) (frame % frameCycles.length);
+            chip8.getKeypad().setKeyMask(frameKeyMasks[slot]);
+            chip8.getCpu().emulateCycles(frameCycles[slot]);
+            chip8.getCpu().tickClocks();
+            cyclesUntilState -= frameCycles[slot];
+        }
+        newestFrame = target;
+        newestFrameSlot = (int) (target % frameCycles.length);
+        framesUntilKeyframe = (int) (newestKeyframeFrame + maxFrames - target);
+        return true;
+    }
+
+    /**
+     * Drops every frame, e.g. after loading a different ROM.
+     */
+    public void clear() {
+        newestFrame = -1;
+        newestFrameSlot = frameCycles.length - 1;
+        cyclesUntilState = 0;
+        framesUntilKeyframe = 0;
+        count = 0;
+        keyframeCount = 0;
+        oldest = 0;
+        usedBytes = 0;
+        writePosition = 0;
+        statesSinceKeyframe = 0;
+    }
+
+    /**
+     * @return the number of frames that can be stepped back through, plus the newest
+     */
+    public int frames() {
+        return count == 0 ? 0 : (int) (newestFrame - stateFrames[oldest] + 1);
+    }
+
+    /**
+     * @return the number of states stored to replay frames from
+     */
+    public int states() {
+        return count;
+    }
+
+    /**
+     * @return the bytes in use by frames and states
+     */
+    public int usedBytes() {
+        return usedBytes + frames() * FRAME_SIZE;
+    }
+
+    /**
+     * @return the bytes allocated for frames and states
+     */
+    public int capacityBytes() {
+        return data.length + frameCycles.length * FRAME_SIZE;
+    }
+
+    /**
+     * Stores the machine's current state as the state after the newest
+     * frame, as a delta of the newest state where that is smaller.
+     */
+    private void captureState() {
+        long frame = newestFrame;
+        chip8.snapshot(ByteBuffer.wrap(scratch));
+        int length = -1;
+        if (count > 0 && statesSinceKeyframe < keyframeInterval && frame - newestKeyframeFrame < maxFrames) {
+            length = encodeDelta(scratch, newest, encoded);
+        }
+        if (length >= 0 && store(encoded, length, false, frame)) {
+            statesSinceKeyframe++;
+        } else {
+            store(scratch, snapshotSize, true, frame);
+            statesSinceKeyframe = 1;
+            newestKeyframeFrame = frame;
+        }
+        cyclesUntilState = stateCycles;
+        framesUntilKeyframe = (int) (newestKeyframeFrame + maxFrames - frame);
+        byte[] previous = newest;
+        newest = scratch;
+        scratch = previous;
+        trimToFrameLimit();
+    }
+
+    /**
+     * Drops the oldest keyframe and its deltas while the frames from
+     * the next keyframe on still reach back {@code maxFrames} frames.
+     */
+    private void trimToFrameLimit() {
+        while (true) {
+            int next = 1;
+            while (next < count && !keyframes[index(next)]) {
+                next++;
+            }
+            if (next == count || newestFrame - stateFrames[index(next)] + 1 < maxFrames) {
+                return;
+            }
+            dropOldestKeyframe();
+        }
+    }
+
+    /**
+     * Adds a record after the newest, dropping old states to make room.
+     *
+     * @return false if a delta could only be stored by dropping the
+     * keyframe it depends on, in which case nothing is stored
+     */
+    private boolean store(byte[] record, int length, boolean keyframe, long frame) {
+        int position = writePosition;
+        int padding = 0;
+        if (position + length > data.length) {
+            padding = data.length - position;
+            position = 0;
+        }
+        while (count > 0 && (count == offsets.length || usedBytes + padding + length > data.length)) {
+            if (!keyframe && keyframeCount == 1) {
+                return false;
+            }
+            dropOldestKeyframe();
+        }
+        if (count == 0) {
+            usedBytes = 0;
+            padding = 0;
+            position = 0;
+        }
+        System.arraycopy(record, 0, data, position, length);
+        int slot = index(count);
+        offsets[slot] = position;
+        lengths[slot] = length;
+        consumed[slot] = padding + length;
+        keyframes[slot] = keyframe;
+        stateFrames[slot] = frame;
+        count++;
+        if (keyframe) {
+            keyframeCount++;
+        }
+        usedBytes += padding + length;
+        writePosition = position + length;
+        return true;
+    }
+
+    /**
+     * Drops the oldest keyframe and the deltas that depend on it.
+     */
+    private void dropOldestKeyframe() {
+        keyframeCount--;
+        do {
+            usedBytes -= consumed[oldest];
+            oldest = (oldest + 1) % offsets.length;
+            count--;
+        } while (count > 0 && !keyframes[oldest]);
+    }
+
+    private void dropNewest() {
+        int last = index(count - 1);
+        usedBytes -= consumed[last];
+        writePosition = offsets[last] - (consumed[last] - lengths[last]);
+        if (writePosition < 0) {
+            writePosition += data.length;
+        }
+        if (keyframes[last]) {
+            keyframeCount--;
+        }
+        count--;
+    }
+
+    private void countStatesSinceKeyframe() {
+        int keyframe = count - 1;
+        while (!keyframes[index(keyframe)]) {
+            keyframe--;
+        }
+        statesSinceKeyframe = count - keyframe;
+        newestKeyframeFrame = stateFrames[index(keyframe)];
+    }
+
+    /**
+     * Rebuilds the state at the given position into {@link #newest}
+     * by applying the deltas after the keyframe before it.
+     */
+    private void rebuildFromKeyframe(int state) {
+        int keyframe = state;
+        while (!keyframes[index(keyframe)]) {
+            keyframe--;
+        }
+        int slot = index(keyframe);
+        System.arraycopy(data, offsets[slot], newest, 0, snapshotSize);
+        for (int i = keyframe + 1; i <= state; i++) {
+            slot = index(i);
+            applyDelta(data, offsets[slot], lengths[slot], newest);
+        }
+    }
+
+    private int index(int state) {
+        return (oldest + state) % offsets.length;
+    }
+
+    /**
+     * Encodes the XOR of two snapshots as runs of
+     * {@code [unchanged bytes to skip][changed bytes][XOR'd bytes...]},
+     * with both counts as unsigned shorts.
+     *
+     * @return the encoded length, or -1 if it would be no smaller than
+     * the snapshot itself
+     */
+    static int encodeDelta(byte[] current, byte[] previous, byte[] target) {
+        int length = current.length;
+        int out = 0;
+        int runEnd = 0;
+        int i = 0;
+        while (i < length) {
+            int mismatch = Arrays.mismatch(current, i, length, previous, i, length);
+            if (mismatch < 0) {
+                break;
+            }
+            int start = i + mismatch;
+            int end = start + 1;
+            int unchanged = 0;
+            for (i = end; i < length && unchanged < MIN_SKIPPED_RUN; i++) {
+                if (current[i] == previous[i]) {
+                    unchanged++;
+                } else {
+                    unchanged = 0;
+                    end = i + 1;
+                }
+            }
+            int runLength = end - start;
+            if (out + RUN_HEADER_SIZE + runLength >= target.length) {
+                return -1;
+            }
+            putShort(target, out, start - runEnd);
+            putShort(target, out + 2, runLength);
+            out += RUN_HEADER_SIZE;
+            for (int j = start; j < end; j++) {
+                target[out++] = (byte) (current[j] ^ previous[j]);
+            }
+            runEnd = end;
+            i = end;
+        }
+        return out;
+    }
+
+    /**
+     * XORs an encoded delta into a snapshot, turning it into the state
+     * after it or, applied to that state, back again.
+     */
+    static void applyDelta(byte[] delta, int offset, int length, byte[] target) {
+        int in = offset;
+        int end = offset + length;
+        int position = 0;
+        while (in < end) {
+            position += getShort(delta, in);
+            int runLength = getShort(delta, in + 2);
+            in += RUN_HEADER_SIZE;
+            for (int j = 0; j < runLength; j++) {
+                target[position++] ^= delta[in++];
+            }
+        }
+    }
+
+    private static void putShort(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 8);
+        target[offset + 1] = (byte) value;
+    }
+
+    private static int getShort(byte[] source, int offset) {
+        return ((source[offset] & 0xFF) << 8) | (source[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,178 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.TimingModel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many headless machines at once, for automated play testing.
+ * <p>
+ * The machines are spread over a work stealing {@link ForkJoinPool},
+ * so a thread whose ROMs finish early takes work from the others
+ * rather than sitting idle. Each machine is built, loaded, and run
+ * entirely on one thread and shares nothing with the others, so the
+ * farm scales with the number of cores.
+ * <p>
+ * Each ROM is read from disk once no matter how many machines run it,
+ * and machine {@code i} has its random number generator seeded with
+ * {@code i}, so running the same ROMs twice gives the same results.
+ */
+public class VMFarm implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final ExecutionEngine engine;
+    private final TimingModel timingModel;
+
+    /**
+     * Creates a farm that uses every available core, with machines that
+     * run on the switch engine and cost every instruction one cycle.
+     */
+    public VMFarm() {
+        this(Runtime.getRuntime().availableProcessors(), ExecutionEngine.SWITCH, TimingModel.FLAT);
+    }
+
+    /**
+     * @param parallelism number of threads to run machines on
+     * @param engine      the strategy each CPU uses to execute instructions
+     * @param timingModel how many cycles each instruction costs
+     */
+    public VMFarm(int parallelism, ExecutionEngine engine, TimingModel timingModel) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.engine = engine;
+        this.timingModel = timingModel;
+    }
+
+    /**
+     * Runs one machine for each of the given ROMs for the given number
+     * of frames and waits for them all to finish.
+     *
+     * @param roms   the ROM each machine runs, repeated to run a ROM on several machines
+     * @param frames number of frames each machine runs
+     * @return the machines in the same order as {@code roms}, and how fast they ran
+     * @throws UncheckedIOException if a ROM cannot be read
+     */
+    public Report run(List<Path> roms, int frames) {
+        Map<Path, byte[]> romData = new HashMap<>();
+        for (Path rom : roms) {
+            romData.computeIfAbsent(rom, VMFarm::readRom);
+        }
+
+        Result[] results = new Result[roms.size()];
+        long start = System.nanoTime();
+        pool.invoke(new RunMachines(engine, timingModel, roms, romData, frames, results, 0, results.length));
+        long elapsed = System.nanoTime() - start;
+        return new Report(List.of(results), (long) frames * results.length, elapsed);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static byte[] readRom(Path rom) {
+        try {
+            return Files.readAllBytes(rom);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load ROM at path: " + rom.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Splits the machines in half until each task has one to run, so
+     * idle threads can steal whole halves from busy ones.
+     */
+    private static final class RunMachines extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ExecutionEngine engine;
+        private final TimingModel timingModel;
+        private final List<Path> roms;
+        private final Map<Path, byte[]> romData;
+        private final int frames;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        RunMachines(ExecutionEngine engine, TimingModel timingModel, List<Path> roms, Map<Path, byte[]> romData,
+                    int frames, Result[] results, int from, int to) {
+            this.engine = engine;
+            this.timingModel = timingModel;
+            this.roms = roms;
+            this.romData = romData;
+            this.frames = frames;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RunMachines(engine, timingModel, roms, romData, frames, results, from, middle),
+                        new RunMachines(engine, timingModel, roms, romData, frames, results, middle, to));
+            } else if (to > from) {
+                results[from] = runMachine(from);
+            }
+        }
+
+        private Result runMachine(int index) {
+            Path rom = roms.get(index);
+            long start = System.nanoTime();
+            Chip8VM chip8 = Chip8VM.headlessBuild(engine, timingModel);
+            chip8.getCpu().setRandomSeed(index);
+            chip8.loadROM(romData.get(rom));
+            chip8.runFrames(frames);
+            return new Result(rom, chip8, (long) frames * chip8.getCyclesPerFrame(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The outcome of running one machine.
+     *
+     * @param rom          the ROM the machine ran
+     * @param chip8        the machine, in the state it finished in
+     * @param cycles       number of CPU cycles it ran
+     * @param elapsedNanos how long it took to build, load, and run
+     */
+    public record Result(Path rom, Chip8VM chip8, long cycles, long elapsedNanos) {
+    }
+
+    /**
+     * The outcome of a run of the farm.
+     *
+     * @param results      one result per machine, in the order the ROMs were given
+     * @param frames       total number of frames run across all machines
+     * @param elapsedNanos wall clock time from the first machine starting to the last finishing
+     */
+    public record Report(List<Result> results, long frames, long elapsedNanos) {
+
+        public double framesPerSecond() {
+            return frames / (elapsedNanos / 1.0e9);
+        }
+
+        public long cycles() {
+            return results.stream().mapToLong(Result::cycles).sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d machines, %d frames in %.3f s, %.0f frames/s",
+                    results.size(), frames, elapsedNanos / 1.0e9, framesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.TimingModel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Phaser;
+
+/**
+ * A batch of machines running the same ROM that are stepped together
+ * a frame at a time, for training agents on CHIP-8 games.
+ * <p>
+ * Each call to {@link #step(int[])} presses the keys in each machine's
+ * action, runs every machine for one frame, and writes each machine's
+ * screen into {@link #getObservations()} and its reward into
+ * {@link #getRewards()}. Those arrays are allocated once and reused,
+ * so stepping allocates nothing.
+ * <p>
+ * An action is a 16 bit key mask, bit n being key n. An observation is
+ * the machine's 32 screen rows, each packed into a {@code long} as a
+ * {@link FrameBuffer} stores them.
+ * <p>
+ * Machines are built once. Resetting one restores a snapshot of a
+ * machine with the ROM freshly loaded, or any other snapshot taken
+ * with {@link Chip8VM#snapshot()}, in place.
+ * <p>
+ * The machines are split into as many contiguous slices as there are
+ * threads. The thread calling {@link #step(int[])} runs the first slice
+ * and a fixed set of worker threads run the rest, meeting at a
+ * {@link Phaser} at the start and end of each step.
+ */
+public class VectorEnv implements AutoCloseable {
+
+    /**
+     * Scores a machine after each step, e.g. by reading a game's score
+     * out of memory.
+     */
+    @FunctionalInterface
+    public interface RewardFunction {
+
+        RewardFunction NONE = chip8 -> 0;
+
+        double reward(Chip8VM chip8);
+    }
+
+    private final ByteBuffer initialState;
+    private final RewardFunction rewardFunction;
+    private final Chip8VM[] machines;
+    private final long[][] observations;
+    private final double[] rewards;
+    private final int[] sliceStarts;
+    private final Phaser phaser;
+    private final Thread[] workers;
+    private int[] actions;
+    private volatile boolean closed;
+    private volatile RuntimeException workerFailure;
+
+    /**
+     * Creates an environment that runs on the calling thread alone, on
+     * the switch engine with every instruction costing one cycle.
+     *
+     * @param romPath the ROM every machine runs
+     * @param size    number of machines
+     */
+    public VectorEnv(Path romPath, int size) {
+        this(romPath, size, 1, ExecutionEngine.SWITCH, TimingModel.FLAT, RewardFunction.NONE);
+    }
+
+    /**
+     * @param romPath        the ROM every machine runs
+     * @param size           number of machines
+     * @param threads        number of threads to step the machines on, including the caller's
+     * @param engine         the strategy each CPU uses to execute instructions
+     * @param timingModel    how many cycles each instruction costs
+     * @param rewardFunction scores each machine after every step
+     * @throws UncheckedIOException if the ROM cannot be read
+     */
+    public VectorEnv(Path romPath, int size, int threads, ExecutionEngine engine, TimingModel timingModel,
+                     RewardFunction rewardFunction) {
+        if (size < 1 || threads < 1) {
+            throw new IllegalArgumentException("An environment needs at least one machine and one thread");
+        }
+        byte[] rom;
+        try {
+            rom = Files.readAllBytes(romPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load ROM at path: " + romPath.toAbsolutePath(), e);
+        }
+        this.rewardFunction = rewardFunction;
+        this.machines = new Chip8VM[size];
+        this.observations = new long[size][FrameBuffer.HEIGHT_IN_PIXELS];
+        this.rewards = new double[size];
+        for (int i = 0; i < size; i++) {
+            machines[i] = Chip8VM.headlessBuild(engine, timingModel);
+        }
+        machines[0].loadROM(rom);
+        this.initialState = machines[0].snapshot();
+        for (int i = 0; i < size; i++) {
+            reset(i);
+        }
+
+        int slices = Math.min(threads, size);
+        this.sliceStarts = new int[slices + 1];
+        for (int slice = 0; slice <= slices; slice++) {
+            sliceStarts[slice] = (int) ((long) size * slice / slices);
+        }
+        this.phaser = new Phaser(slices);
+        this.workers = new Thread[slices - 1];
+        for (int w = 0; w < workers.length; w++) {
+            int slice = w + 1;
+            workers[w] = new Thread(() -> work(slice), "chip8-env-" + slice);
+            workers[w].setDaemon(true);
+            workers[w].start();
+        }
+    }
+
+    /**
+     * Runs every machine for one frame with the given keys held down,
+     * then fills in the observations and rewards.
+     *
+     * @param actions one key mask per machine
+     * @throws IllegalArgumentException if there is not one action per machine
+     */
+    public void step(int[] actions) {
+        if (actions.length != machines.length) {
+            throw new IllegalArgumentException("Expected " + machines.length + " actions but got " + actions.length);
+        }
+        if (closed) {
+            throw new IllegalStateException("Environment is closed");
+        }
+        this.actions = actions;
+        phaser.arriveAndAwaitAdvance();
+        try {
+            stepSlice(0);
+        } finally {
+            phaser.arriveAndAwaitAdvance();
+        }
+        RuntimeException failure = workerFailure;
+        if (failure != null) {
+            workerFailure = null;
+            throw failure;
+        }
+    }
+
+    /**
+     * Puts a machine back in the state it was in just after the ROM
+     * was loaded, with its random number generator seeded with its
+     * index, and refreshes its observation.
+     *
+     * @param env index of the machine
+     */
+    public void reset(int env) {
+        reset(env, initialState.rewind());
+        machines[env].getCpu().setRandomSeed(env);
+    }
+
+    /**
+     * Puts a machine into the state captured by a snapshot, and
+     * refreshes its observation.
+     *
+     * @param env      index of the machine
+     * @param snapshot a buffer positioned at the start of a snapshot
+     * @throws IllegalArgumentException if the buffer does not hold a usable snapshot
+     */
+    public void reset(int env, ByteBuffer snapshot) {
+        Chip8VM chip8 = machines[env];
+        chip8.restore(snapshot);
+        chip8.getFrameBuffer().copyRowsTo(observations[env]);
+        rewards[env] = 0;
+    }
+
+    public void resetAll() {
+        for (int i = 0; i < machines.length; i++) {
+            reset(i);
+        }
+    }
+
+    /**
+     * @return one array of 32 packed screen rows per machine, overwritten by each step
+     */
+    public long[][] getObservations() {
+        return observations;
+    }
+
+    /**
+     * @return one reward per machine, overwritten by each step
+     */
+    public double[] getRewards() {
+        return rewards;
+    }
+
+    public Chip8VM getMachine(int env) {
+        return machines[env];
+    }
+
+    public int size() {
+        return machines.length;
+    }
+
+    public int getThreads() {
+        return sliceStarts.length - 1;
+    }
+
+    /**
+     * Stops the worker threads. Steps can no longer be taken afterwards.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        phaser.arriveAndAwaitAdvance();
+        phaser.arriveAndDeregister();
+    }
+
+    private void work(int slice) {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (closed) {
+                phaser.arriveAndDeregister();
+                return;
+            }
+            try {
+                stepSlice(slice);
+            } catch (RuntimeException e) {
+                workerFailure = e;
+            }
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    private void stepSlice(int slice) {
+        for (int i = sliceStarts[slice]; i < sliceStarts[slice + 1]; i++) {
+            Chip8VM chip8 = machines[i];
+            chip8.getKeypad().setKeyMask(actions[i]);
+            chip8.runFrames(1);
+            chip8.getFrameBuffer().copyRowsTo(observations[i]);
+            rewards[i] = rewardFunction.reward(chip8);
+        }
+    }
+}
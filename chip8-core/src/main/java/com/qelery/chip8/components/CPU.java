@@ -0,0 +1,1072 @@
+package com.qelery.chip8.components;
+
+import com.qelery.chip8.components.sound.Sound;
+import com.qelery.chip8.util.LazyLogger;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An emulated cpu for fetching, decoding, and executing
+ * instructions from a CHIP-8 ROM.
+ * <p>
+ * <h2>References</h2>
+ * <a href="http://devernay.free.fr/hacks/chip8/C8TECH10.HTM">Cowgod's Chip-8 Technical Reference</a><br>
+ * <a href="http://www.cs.columbia.edu/~sedwards/classes/2016/4840-spring/designs/Chip8.pdf">Columbia University - Chip-8 Design Specification</a><br>
+ * <a href="https://en.wikipedia.org/wiki/CHIP-8">Wikipedia - CHIP-8</a><br>
+ */
+public class CPU {
+
+    private static final LazyLogger logger = LazyLogger.of(CPU.class);
+
+    /**
+     * Delay and sound timers always count down at 60 hz
+     */
+    public static final int TIMERS_HERTZ = 60;
+
+    /**
+     * The number of bytes written by {@link #saveState(ByteBuffer)}.
+     */
+    public static final int STATE_SIZE = 2 + 4 + 1 + 4 + 4 + 1 + 4 + 16 * 4 + 16 * 2 + 4 + 8 + 8;
+
+    /**
+     * Handlers for each 16-bit instruction, used by every engine except
+     * {@link ExecutionEngine#SWITCH}. Each is resolved the first time
+     * its instruction runs, so a machine on the switch engine never
+     * pays for them.
+     */
+    private static final Handler[] HANDLERS = new Handler[0x10000];
+
+    /**
+     * The linear congruential generator of {@link java.util.Random},
+     * kept here so its state can be saved and restored with the rest
+     * of the CPU.
+     */
+    private static final long RANDOM_MULTIPLIER = 0x5DEECE66DL;
+    private static final long RANDOM_ADDEND = 0xBL;
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+
+    /**
+     * The clock speed of the CPU in  hertz.
+     */
+    private final int clockSpeed;
+
+    /**
+     * The strategy used to execute each decoded instruction.
+     */
+    private final ExecutionEngine engine;
+
+    /**
+     * How many cycles each instruction costs. The flat model is checked
+     * for once up front, so the default costs nothing per instruction.
+     */
+    private final TimingModel timingModel;
+    private final boolean flatTiming;
+
+    /**
+     * Cycles overspent by the last instruction of the previous call to
+     * {@link #emulateCycles(int)}, which are taken out of the next call.
+     * Always 0 with the flat timing model.
+     */
+    private int cycleDebt;
+
+    /**
+     * A decrementing timer. Its value is used to set vRegisters on some
+     * instructions.
+     */
+    private int delayTimer;
+
+    /**
+     * A decrementing, non-zero timer which causes CHIP-8 to buzz when its
+     * value is non-zero.
+     */
+    private int soundTimer;
+
+    /**
+     * The next opcode that the CPU will execute.
+     */
+    private Opcode opcode;
+
+    /**
+     * Opcodes already decoded from memory, indexed by the address of
+     * their first byte. Only used by the {@link ExecutionEngine#CACHED}
+     * engine, otherwise null.
+     */
+    private final Opcode[] decodedInstructions;
+
+    /**
+     * Compiles hot runs of instructions to JVM bytecode. Only used by
+     * the {@link ExecutionEngine#JIT} engine, otherwise null.
+     */
+    private final Recompiler recompiler;
+
+    /**
+     * The number of cycles fast-forwarded through idle loops rather
+     * than emulated one instruction at a time.
+     */
+    private long skippedCycles;
+
+    /**
+     * Represents 16, 8-bit unsigned registers.
+     */
+    private final int[] VRegister;
+
+    /**
+     * Represents an array of 16, 16-bit unsigned values used to store
+     * the address that the interpreter should return to when finished
+     * with a subroutine.
+     */
+    private final int[] stack;
+
+    /**
+     * Represents a 16-bit register. This register is generally used to
+     * store memory addresses. Only the lowest 12 big are usually used.
+     */
+    private int IRegister;
+
+    /**
+     * Represents an 8-bit point used to point to the top of the stack.
+     */
+    private int sp;
+
+    /**
+     * Represents an 8-bit program counter used to store the currently executing
+     * address.
+     */
+    private int pc;
+
+    /**
+     * A flag which is used to determine if CHIP-8 should render the
+     * screen.
+     */
+    private boolean drawFlag;
+
+    private final Memory memory;
+    private final FrameBuffer display;
+    private final Sound sound;
+    private final InputSource keyboard;
+
+    /**
+     * The 48 bit state of the generator used by the CXKK instruction.
+     */
+    private long randomState;
+
+    public CPU(int clockSpeed, Memory memory, FrameBuffer display, Sound sound, InputSource keyboard) {
+        this(clockSpeed, memory, display, sound, keyboard, ExecutionEngine.SWITCH);
+    }
+
+    public CPU(int clockSpeed, Memory memory, FrameBuffer display, Sound sound, InputSource keyboard,
+               ExecutionEngine engine) {
+        this(clockSpeed, memory, display, sound, keyboard, engine, TimingModel.FLAT);
+    }
+
+    public CPU(int clockSpeed, Memory memory, FrameBuffer display, Sound sound, InputSource keyboard,
+               ExecutionEngine engine, TimingModel timingModel) {
+        this.clockSpeed = clockSpeed;
+        this.engine = engine;
+        this.timingModel = timingModel;
+        this.flatTiming = timingModel == TimingModel.FLAT;
+        this.pc = Memory.READ_WRITE_START_LOCATION;
+        this.VRegister = new int[16];
+        this.stack = new int[16];
+        this.drawFlag = false;
+        this.memory = memory;
+        this.display = display;
+        this.sound = sound;
+        this.keyboard = keyboard;
+        setRandomSeed(ThreadLocalRandom.current().nextLong());
+        if (engine == ExecutionEngine.CACHED) {
+            this.decodedInstructions = new Opcode[memory.size()];
+            memory.addWriteListener(this::invalidateDecodedInstructions);
+        } else {
+            this.decodedInstructions = null;
+        }
+        this.recompiler = engine == ExecutionEngine.JIT ? new Recompiler(MethodHandles.lookup(), memory, timingModel) : null;
+    }
+
+    public void clearDrawFlag() {
+        drawFlag = false;
+    }
+
+    public void tickClocks() {
+        if (delayTimer > 0) {
+            delayTimer--;
+        }
+
+        if (soundTimer > 0) {
+            sound.play();
+            soundTimer--;
+            if (soundTimer == 0) {
+                sound.stop();
+            }
+        }
+    }
+
+    public void emulateCycle() {
+        fetchInstruction();
+        incrementPC();
+        executeInstruction();
+    }
+
+    /**
+     * Emulates a number of cycles, with each instruction costing as many
+     * cycles as the {@link TimingModel} says. An instruction that runs
+     * over the budget still completes, and the overrun is taken out of
+     * the next call. The JIT engine runs compiled blocks where they fit
+     * in the remaining cycles and interprets everything else, so the
+     * machine state afterwards is the same for every engine.
+     * <p>
+     * Timers only tick and keys only change between calls, so once the
+     * program is caught in an idle loop the rest of the cycles are
+     * skipped rather than emulated. See {@link #getSkippedCycles()}.
+     *
+     * @param cycles the number of cycles to emulate
+     */
+    public void emulateCycles(int cycles) {
+        int remaining = cycles - cycleDebt;
+        while (remaining > 0) {
+            if (recompiler != null) {
+                CompiledBlock block = recompiler.blockAt(pc);
+                if (block != null && block.cycles() <= remaining) {
+                    block.execute(this);
+                    remaining -= block.cycles();
+                    continue;
+                }
+            }
+            int address = pc;
+            emulateCycle();
+            remaining -= cyclesOf(opcode);
+            if (remaining > 0) {
+                int idle = idleCycles(address, remaining);
+                skippedCycles += idle;
+                remaining -= idle;
+            }
+        }
+        cycleDebt = -remaining;
+    }
+
+    private int cyclesOf(Opcode executed) {
+        return flatTiming ? 1 : timingModel.cycles(executed);
+    }
+
+    /**
+     * Works out how many of the remaining cycles can be skipped after
+     * executing the instruction at the given address, leaving the CPU
+     * exactly as if they had been emulated.
+     * <p>
+     * Recognises a jump to itself, an FX0A with no key held, and the
+     * {@code FX07, 3Xkk, 1NNN} loop that polls the delay timer. The first
+     * two leave the CPU unchanged, so they use up every remaining cycle.
+     * For the polling loop only whole iterations that fit are skipped.
+     */
+    private int idleCycles(int address, int remaining) {
+        int o = opcode.o();
+        if (o == 0x1) {
+            int target = opcode.nnn();
+            if (target == address) {
+                return repeatUntilSpent(cyclesOf(opcode), remaining);
+            }
+            if (target == address - 4 && isPollingDelayTimer(target)) {
+                Opcode read = Opcode.of(memory.readByte(target), memory.readByte(target + 1));
+                Opcode skip = Opcode.of(memory.readByte(target + 2), memory.readByte(target + 3));
+                int loopCycles = cyclesOf(read) + cyclesOf(skip) + cyclesOf(opcode);
+                VRegister[read.x()] = delayTimer;
+                return remaining / loopCycles * loopCycles;
+            }
+        } else if (o == 0xF && opcode.kk() == 0x0A && pc == address) {
+            return repeatUntilSpent(cyclesOf(opcode), remaining);
+        }
+        return 0;
+    }
+
+    /**
+     * @return the cycles taken by repeating an instruction until the
+     * remaining cycles are used up, including any overrun
+     */
+    private static int repeatUntilSpent(int instructionCycles, int remaining) {
+        int repeats = (remaining + instructionCycles - 1) / instructionCycles;
+        return repeats * instructionCycles;
+    }
+
+    /**
+     * Whether the code at the address reads the delay timer into Vx
+     * and then skips the following instruction only once Vx = kk, with
+     * the delay timer not yet at kk.
+     */
+    private boolean isPollingDelayTimer(int address) {
+        if (address < 0) {
+            return false;
+        }
+        Opcode read = Opcode.of(memory.readByte(address), memory.readByte(address + 1));
+        Opcode skip = Opcode.of(memory.readByte(address + 2), memory.readByte(address + 3));
+        return read.o() == 0xF && read.kk() == 0x07
+                && skip.o() == 0x3 && skip.x() == read.x()
+                && skip.kk() != delayTimer;
+    }
+
+    protected void fetchInstruction() {
+        if (decodedInstructions != null) {
+            // Memory wraps around, so a program counter past the end
+            // decodes the same bytes as the address it wraps to
+            int address = pc & (decodedInstructions.length - 1);
+            Opcode decoded = decodedInstructions[address];
+            if (decoded == null) {
+                decoded = Opcode.of(memory.readByte(address), memory.readByte(address + 1));
+                decodedInstructions[address] = decoded;
+            }
+            this.opcode = decoded;
+            return;
+        }
+        int firstByte = memory.readByte(pc);
+        int secondByte = memory.readByte(pc + 1);
+        this.opcode = Opcode.of(firstByte, secondByte);
+    }
+
+    /**
+     * Drops any decoded instruction that overlaps the written memory,
+     * so self-modifying ROMs execute the new bytes. An instruction
+     * starting one byte before the write also covers the first byte,
+     * and the instruction at the last address covers address 0.
+     */
+    private void invalidateDecodedInstructions(int address, int length) {
+        int start = Math.max(address - 1, 0);
+        int end = Math.min(address + length, decodedInstructions.length);
+        for (int i = start; i < end; i++) {
+            decodedInstructions[i] = null;
+        }
+        if (address == 0) {
+            decodedInstructions[decodedInstructions.length - 1] = null;
+        }
+    }
+
+    protected void incrementPC() {
+        pc += 2;
+    }
+
+    protected void executeInstruction() {
+        if (engine == ExecutionEngine.SWITCH) {
+            decodeAndExecuteInstruction();
+        } else {
+            executeHandler(handlerFor(opcode));
+        }
+    }
+
+    private static Handler handlerFor(Opcode opcode) {
+        Handler handler = HANDLERS[opcode.fullValue()];
+        if (handler == null) {
+            handler = resolveHandler(opcode);
+            HANDLERS[opcode.fullValue()] = handler;
+        }
+        return handler;
+    }
+
+    private void decodeAndExecuteInstruction() {
+
+        if (this.opcode.fullValue() == 0x00E0) {
+            clearScreen_0x00E0();
+            return;
+        }
+
+        if (this.opcode.fullValue() == 0x00EE) {
+            returnFromSubroutine_0x00EE();
+            return;
+        }
+
+        switch (opcode.o()) {
+            case 0x1 -> op_1NNN_jumpToLocation();
+            case 0x2 -> op_2NNN_callSubroutine();
+            case 0x3 -> op_3XKK_skipIfRegisterEqualsValue();
+            case 0x4 -> op_4XKK_skipIfRegisterNotEqualValue();
+            case 0x5 -> op_5XY0_skipIfRegistersEqual();
+            case 0x6 -> op_6XKK_setValueToRegister();
+            case 0x7 -> op_7XKK_addValueToRegister();
+            case 0x8 -> {
+                switch (opcode.n()) {
+                    case 0x0 -> op_8XY0_setRegistersEqual();
+                    case 0x1 -> op_8XY1_bitwiseOr();
+                    case 0x2 -> op_8XY2_bitwiseAnd();
+                    case 0x3 -> op_8XY3_exclusiveOr();
+                    case 0x4 -> op_8XY4_sumRegisters();
+                    case 0x5 -> op_8XY5_subtractRegister();
+                    case 0x6 -> op_8XY6_rightBitShift();
+                    case 0x7 -> op_8XY7_subtractRegister();
+                    case 0xE -> op_8XYE_leftBitShift();
+                    default -> logUnknownOpcode();
+                }
+            }
+            case 0x9 -> op_9XY0_skipIfRegistersNotEqual();
+            case 0xA -> op_ANNN_setIRegister();
+            case 0xB -> op_BNNN_jumpToLocation();
+            case 0xC -> op_CXKK_setRegisterToRandom();
+            case 0xD -> op_DXYN_drawSprite();
+            case 0xE -> {
+                switch (opcode.kk()) {
+                    case 0x9E -> op_EX9E_skipIfKeyPressed();
+                    case 0xA1 -> op_EXA1_skipIfKeyNotPressed();
+                    default -> logUnknownOpcode();
+                }
+            }
+            case 0xF -> {
+                switch (opcode.kk()) {
+                    case 0x07 -> op_FX07_setRegisterToDelayTimer();
+                    case 0x0A -> op_FX0A_waitForKeyPress();
+                    case 0x15 -> op_FX15_setDelayTimerToRegister();
+                    case 0x18 -> op_FX18_setSoundTimerToValue();
+                    case 0x1E -> op_FX1E_addToIRegister();
+                    case 0x29 -> op_FX29_loadSprite();
+                    case 0x33 -> op_FX33_storeBCD();
+                    case 0x55 -> op_FX55_storeRegisterInMemory();
+                    case 0x65 -> op_FX65_readRegistersFromMemory();
+                    default -> logUnknownOpcode();
+                }
+            }
+            default -> logUnknownOpcode();
+        }
+    }
+
+    /**
+     * Resolves the handler that executes an opcode, following the same
+     * decoding rules as {@link #decodeAndExecuteInstruction()}.
+     */
+    private static Handler resolveHandler(Opcode opcode) {
+        if (opcode.fullValue() == 0x00E0) {
+            return Handler.OP_00E0;
+        }
+
+        if (opcode.fullValue() == 0x00EE) {
+            return Handler.OP_00EE;
+        }
+
+        return switch (opcode.o()) {
+            case 0x1 -> Handler.OP_1NNN;
+            case 0x2 -> Handler.OP_2NNN;
+            case 0x3 -> Handler.OP_3XKK;
+            case 0x4 -> Handler.OP_4XKK;
+            case 0x5 -> Handler.OP_5XY0;
+            case 0x6 -> Handler.OP_6XKK;
+            case 0x7 -> Handler.OP_7XKK;
+            case 0x8 -> switch (opcode.n()) {
+                case 0x0 -> Handler.OP_8XY0;
+                case 0x1 -> Handler.OP_8XY1;
+                case 0x2 -> Handler.OP_8XY2;
+                case 0x3 -> Handler.OP_8XY3;
+                case 0x4 -> Handler.OP_8XY4;
+                case 0x5 -> Handler.OP_8XY5;
+                case 0x6 -> Handler.OP_8XY6;
+                case 0x7 -> Handler.OP_8XY7;
+                case 0xE -> Handler.OP_8XYE;
+                default -> Handler.UNKNOWN;
+            };
+            case 0x9 -> Handler.OP_9XY0;
+            case 0xA -> Handler.OP_ANNN;
+            case 0xB -> Handler.OP_BNNN;
+            case 0xC -> Handler.OP_CXKK;
+            case 0xD -> Handler.OP_DXYN;
+            case 0xE -> switch (opcode.kk()) {
+                case 0x9E -> Handler.OP_EX9E;
+                case 0xA1 -> Handler.OP_EXA1;
+                default -> Handler.UNKNOWN;
+            };
+            case 0xF -> switch (opcode.kk()) {
+                case 0x07 -> Handler.OP_FX07;
+                case 0x0A -> Handler.OP_FX0A;
+                case 0x15 -> Handler.OP_FX15;
+                case 0x18 -> Handler.OP_FX18;
+                case 0x1E -> Handler.OP_FX1E;
+                case 0x29 -> Handler.OP_FX29;
+                case 0x33 -> Handler.OP_FX33;
+                case 0x55 -> Handler.OP_FX55;
+                case 0x65 -> Handler.OP_FX65;
+                default -> Handler.UNKNOWN;
+            };
+            default -> Handler.UNKNOWN;
+        };
+    }
+
+    private void executeHandler(Handler handler) {
+        switch (handler) {
+            case OP_00E0 -> clearScreen_0x00E0();
+            case OP_00EE -> returnFromSubroutine_0x00EE();
+            case OP_1NNN -> op_1NNN_jumpToLocation();
+            case OP_2NNN -> op_2NNN_callSubroutine();
+            case OP_3XKK -> op_3XKK_skipIfRegisterEqualsValue();
+            case OP_4XKK -> op_4XKK_skipIfRegisterNotEqualValue();
+            case OP_5XY0 -> op_5XY0_skipIfRegistersEqual();
+            case OP_6XKK -> op_6XKK_setValueToRegister();
+            case OP_7XKK -> op_7XKK_addValueToRegister();
+            case OP_8XY0 -> op_8XY0_setRegistersEqual();
+            case OP_8XY1 -> op_8XY1_bitwiseOr();
+            case OP_8XY2 -> op_8XY2_bitwiseAnd();
+            case OP_8XY3 -> op_8XY3_exclusiveOr();
+            case OP_8XY4 -> op_8XY4_sumRegisters();
+            case OP_8XY5 -> op_8XY5_subtractRegister();
+            case OP_8XY6 -> op_8XY6_rightBitShift();
+            case OP_8XY7 -> op_8XY7_subtractRegister();
+            case OP_8XYE -> op_8XYE_leftBitShift();
+            case OP_9XY0 -> op_9XY0_skipIfRegistersNotEqual();
+            case OP_ANNN -> op_ANNN_setIRegister();
+            case OP_BNNN -> op_BNNN_jumpToLocation();
+            case OP_CXKK -> op_CXKK_setRegisterToRandom();
+            case OP_DXYN -> op_DXYN_drawSprite();
+            case OP_EX9E -> op_EX9E_skipIfKeyPressed();
+            case OP_EXA1 -> op_EXA1_skipIfKeyNotPressed();
+            case OP_FX07 -> op_FX07_setRegisterToDelayTimer();
+            case OP_FX0A -> op_FX0A_waitForKeyPress();
+            case OP_FX15 -> op_FX15_setDelayTimerToRegister();
+            case OP_FX18 -> op_FX18_setSoundTimerToValue();
+            case OP_FX1E -> op_FX1E_addToIRegister();
+            case OP_FX29 -> op_FX29_loadSprite();
+            case OP_FX33 -> op_FX33_storeBCD();
+            case OP_FX55 -> op_FX55_storeRegisterInMemory();
+            case OP_FX65 -> op_FX65_readRegistersFromMemory();
+            case UNKNOWN -> logUnknownOpcode();
+        }
+    }
+
+    private void logUnknownOpcode() {
+        logger.get().error("Unknown opcode: {}", () -> opcode.toHexString());
+    }
+
+    /**
+     * Clear the display
+     */
+    private void clearScreen_0x00E0() {
+        display.clear();
+        drawFlag = true;
+    }
+
+    /**
+     * Return from a subroutine
+     */
+    private void returnFromSubroutine_0x00EE() {
+        pc = stack[sp];
+        sp--;
+    }
+
+    /**
+     * Jump to location nnn
+     */
+    private void op_1NNN_jumpToLocation() {
+        pc = opcode.nnn();
+    }
+
+    /**
+     * Call subroutine at nnn
+     */
+    private void op_2NNN_callSubroutine() {
+        sp++;
+        stack[sp] = pc;
+        pc = opcode.nnn();
+    }
+
+    /**
+     * Skip next instruction if Vx = kk
+     */
+    private void op_3XKK_skipIfRegisterEqualsValue() {
+        if (VRegister[opcode.x()] == opcode.kk()) {
+            incrementPC();
+        }
+    }
+
+    /**
+     * Skip next instruction if Vx != kk
+     */
+    private void op_4XKK_skipIfRegisterNotEqualValue() {
+        if (VRegister[opcode.x()] != opcode.kk()) {
+            incrementPC();
+        }
+    }
+
+    /**
+     * Skip next instruction if Vx = Vy and n = 0
+     */
+    private void op_5XY0_skipIfRegistersEqual() {
+        if (VRegister[opcode.x()] == VRegister[opcode.y()] && opcode.n() == 0) {
+            incrementPC();
+        }
+    }
+
+    /**
+     * Set Vx = kk
+     */
+    private void op_6XKK_setValueToRegister() {
+        VRegister[opcode.x()] = opcode.kk();
+    }
+
+    /**
+     * Set Vx = Vx + kk
+     */
+    private void op_7XKK_addValueToRegister() {
+        int result = VRegister[opcode.x()] + opcode.kk();
+        if (result >= 256) {
+            VRegister[opcode.x()] = result & 0x00FF;
+        } else {
+            VRegister[opcode.x()] = result;
+        }
+    }
+
+    /**
+     * Set Vx = Vy
+     */
+    private void op_8XY0_setRegistersEqual() {
+        VRegister[opcode.x()] = VRegister[opcode.y()];
+    }
+
+    /**
+     * Set Vx = Vx OR Vy
+     */
+    private void op_8XY1_bitwiseOr() {
+        VRegister[opcode.x()] |= VRegister[opcode.y()];
+    }
+
+    private void op_8XY2_bitwiseAnd() {
+        VRegister[opcode.x()] &= VRegister[opcode.y()];
+    }
+
+    /**
+     * Set Vx = XOR Vy
+     */
+    private void op_8XY3_exclusiveOr() {
+        VRegister[opcode.x()] ^= VRegister[opcode.y()];
+    }
+
+    /**
+     * Set Vx = Vx + Vy, set VF = carry
+     */
+    private void op_8XY4_sumRegisters() {
+        int sum = VRegister[opcode.x()] + VRegister[opcode.y()];
+        int sumsLowestByte = sum & 0xFF;
+        VRegister[opcode.x()] = sumsLowestByte;
+        VRegister[0xF] = sum > 0xFF ? 1 : 0;
+    }
+
+    /**
+     * Set Vx = Vx - Vy, set VF = NOT borrow
+     */
+    private void op_8XY5_subtractRegister() {
+        if (VRegister[opcode.x()] > VRegister[opcode.y()]) {
+            VRegister[0xF] = 1;
+        } else {
+            VRegister[0xF] = 0;
+        }
+        VRegister[opcode.x()] = (VRegister[opcode.x()] - VRegister[opcode.y()]) & 0x00FF;
+    }
+
+    /**
+     * Set Vx = Vx SHR 1
+     */
+    private void op_8XY6_rightBitShift() {
+        int leastSignificantBit = VRegister[opcode.x()] & 1;
+        VRegister[0xF] = leastSignificantBit;
+        VRegister[opcode.x()] >>>= 1;
+    }
+
+    /**
+     * Set Vx = Vy - Vx, set VF = NOT borrow
+     */
+    private void op_8XY7_subtractRegister() {
+        if (VRegister[opcode.y()] > VRegister[opcode.x()]) {
+            VRegister[0xF] = 1;
+        } else {
+            VRegister[0xF] = 0;
+        }
+        VRegister[opcode.x()] = VRegister[opcode.y()] - VRegister[opcode.x()];
+    }
+
+    /**
+     * Set Vx = Vx SHL 1
+     */
+    private void op_8XYE_leftBitShift() {
+        int mostSignificantBit = VRegister[opcode.x()] >> 7;
+        VRegister[0xF] = mostSignificantBit;
+        VRegister[opcode.x()] = (VRegister[opcode.x()] << 1) & 0x00FF;
+    }
+
+    /**
+     * Skip next instruction if Vx != Vy and n = 0
+     */
+    private void op_9XY0_skipIfRegistersNotEqual() {
+        if (VRegister[opcode.x()] != VRegister[opcode.y()] && opcode.n() == 0) {
+            incrementPC();
+        }
+    }
+
+    /**
+     * Set I = nnn
+     */
+    private void op_ANNN_setIRegister() {
+        IRegister = opcode.nnn();
+    }
+
+    /**
+     * Jump to location nnn + V0
+     */
+    private void op_BNNN_jumpToLocation() {
+        pc = VRegister[0] + opcode.nnn();
+    }
+
+    /**
+     * Set Vx = random byte AND kk
+     */
+    private void op_CXKK_setRegisterToRandom() {
+        int randomUnsignedByte = nextRandomInt(266);
+        VRegister[opcode.x()] = randomUnsignedByte & opcode.kk();
+    }
+
+    /**
+     * Display n-byte sprite starting at memory location I at (Vx, Vy), set VF = collision
+     */
+    private void op_DXYN_drawSprite() {
+        VRegister[0xF] = 0;
+        int xCoord = VRegister[opcode.x()] % FrameBuffer.LENGTH_IN_PIXELS;
+        int collision = 0;
+
+        for (int yLine = 0; yLine < opcode.n(); yLine++) {
+
+            int spriteByte = memory.readByte(IRegister + yLine);
+            int yCoord = VRegister[opcode.y()] + yLine;
+            yCoord = yCoord % FrameBuffer.HEIGHT_IN_PIXELS;
+
+            if (display.drawSpriteRow(xCoord, yCoord, spriteByte)) {
+                collision = 1;
+            }
+        }
+        VRegister[0xF] = collision;
+        drawFlag = true;
+    }
+
+    /**
+     * Skip next instruction if key with the value of Vx is pressed
+     */
+    private void op_EX9E_skipIfKeyPressed() {
+        if (keyboard.isKeyDown(VRegister[opcode.x()])) {
+            incrementPC();
+        }
+    }
+
+    /**
+     * Skip next instruction if key with the value of Vx is not pressed
+     */
+    private void op_EXA1_skipIfKeyNotPressed() {
+        if (!keyboard.isKeyDown(VRegister[opcode.x()])) {
+            incrementPC();
+        }
+    }
+
+    /**
+     * Set Vx = delay timer value
+     */
+    private void op_FX07_setRegisterToDelayTimer() {
+        VRegister[opcode.x()] = delayTimer;
+    }
+
+    /**
+     * Wait for a key press, store the value of the key in Vx
+     */
+    private void op_FX0A_waitForKeyPress() {
+        for (int i = 0x0; i < 0xF; i++) {
+            if (keyboard.isKeyDown(i)) {
+                VRegister[opcode.x()] = i;
+                keyboard.forceKeyUp(i);
+                return;
+            }
+        }
+        // Rather than suspending the thread, the CPU is simply not advanced
+        // to the next instruction
+        pc -= 2;
+    }
+
+    /**
+     * Set the delay timer = Vx
+     */
+    private void op_FX15_setDelayTimerToRegister() {
+        delayTimer = VRegister[opcode.x()];
+    }
+
+    /**
+     * Set sound timer = Vx
+     */
+    private void op_FX18_setSoundTimerToValue() {
+        soundTimer = VRegister[opcode.x()];
+    }
+
+    /**
+     * Only the lowest 12 bits of the IRegister are used
+     */
+    private void op_FX1E_addToIRegister() {
+        IRegister = (IRegister + VRegister[opcode.x()]) & 0xFFF;
+    }
+
+    /**
+     * Set I = location of sprite for digit Vx
+     */
+    private void op_FX29_loadSprite() {
+        IRegister = VRegister[opcode.x()] * 5; // each sprite is 5 byte long
+        drawFlag = true;
+    }
+
+    /**
+     * Store BCD representation of Vx in memory locations I, I+1, I+2
+     */
+    private void op_FX33_storeBCD() {
+        int onesDigitOfVx = VRegister[opcode.x()] % 10;
+        int tensDigitOfVx = VRegister[opcode.x()] % 100 / 10;
+        int hundredsDigitOfVx = VRegister[opcode.x()] % 1000 / 100;
+        memory.writeByte(hundredsDigitOfVx, IRegister);
+        memory.writeByte(tensDigitOfVx, IRegister + 1);
+        memory.writeByte(onesDigitOfVx, IRegister + 2);
+    }
+
+    /**
+     * Stores registers V0 through Vx in memory starting at location I
+     */
+    private void op_FX55_storeRegisterInMemory() {
+        for (int i = 0; i < opcode.x() + 1; i++) {
+            memory.writeByte(VRegister[i], IRegister + i);
+        }
+    }
+
+    /**
+     * Reads registers V0 through Vx from memory starting at location I
+     */
+    private void op_FX65_readRegistersFromMemory() {
+        for (int i = 0; i < opcode.x() + 1; i++) {
+            VRegister[i] = memory.readByte(IRegister + i);
+        }
+    }
+
+    public int getClockSpeed() {
+        return clockSpeed;
+    }
+
+    public ExecutionEngine getEngine() {
+        return engine;
+    }
+
+    public TimingModel getTimingModel() {
+        return timingModel;
+    }
+
+    public int getDelayTimer() {
+        return delayTimer;
+    }
+
+    public int getSoundTimer() {
+        return soundTimer;
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    public int[] getVRegister() {
+        return VRegister;
+    }
+
+    public int getIRegister() {
+        return IRegister;
+    }
+
+    public int getSp() {
+        return sp;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public long getSkippedCycles() {
+        return skippedCycles;
+    }
+
+    public int[] getStack() {
+        return stack;
+    }
+
+    public boolean isDrawFlagSet() {
+        return drawFlag;
+    }
+
+    public void setDelayTimer(int delayTimer) {
+        this.delayTimer = delayTimer;
+    }
+
+    public void setSoundTimer(int soundTimer) {
+        this.soundTimer = soundTimer;
+    }
+
+    public void setOpcode(int instruction) {
+        this.opcode = Opcode.of(instruction);
+    }
+
+    public void setIRegister(int IRegister) {
+        this.IRegister = IRegister;
+    }
+
+    public void setSp(int sp) {
+        this.sp = sp;
+    }
+
+    public void setPc(int pc) {
+        this.pc = pc;
+    }
+
+    public void setDrawFlag(boolean drawFlag) {
+        this.drawFlag = drawFlag;
+    }
+
+    /**
+     * Seeds the generator used by the CXKK instruction, making the
+     * random values a ROM sees reproducible.
+     *
+     * @param seed the initial seed
+     */
+    public void setRandomSeed(long seed) {
+        randomState = (seed ^ RANDOM_MULTIPLIER) & RANDOM_MASK;
+    }
+
+    /**
+     * Returns the same values as {@link java.util.Random#nextInt(int)}
+     * would for the same seed.
+     */
+    private int nextRandomInt(int bound) {
+        int r = nextRandomBits(31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = nextRandomBits(31)) {
+            // reject values from the incomplete last interval, as Random does
+        }
+        return r;
+    }
+
+    private int nextRandomBits(int bits) {
+        randomState = (randomState * RANDOM_MULTIPLIER + RANDOM_ADDEND) & RANDOM_MASK;
+        return (int) (randomState >>> (48 - bits));
+    }
+
+    /**
+     * Writes every register, timer, the stack, and the state of the
+     * random number generator into the buffer, in
+     * {@link #STATE_SIZE} bytes. Registers and timers are written
+     * whole rather than as bytes, since 8XY7 can leave them outside
+     * 0 to 255.
+     *
+     * @param target the buffer to write to, from its position
+     */
+    public void saveState(ByteBuffer target) {
+        target.putShort((short) pc)
+                .putInt(IRegister)
+                .put((byte) sp)
+                .putInt(delayTimer)
+                .putInt(soundTimer)
+                .put((byte) (drawFlag ? 1 : 0))
+                .putInt(opcode == null ? -1 : opcode.fullValue());
+        for (int v : VRegister) {
+            target.putInt(v);
+        }
+        for (int address : stack) {
+            target.putShort((short) address);
+        }
+        target.putInt(cycleDebt)
+                .putLong(skippedCycles)
+                .putLong(randomState);
+    }
+
+    /**
+     * Reads back the state written by {@link #saveState(ByteBuffer)}.
+     *
+     * @param source the buffer to read from, from its position
+     */
+    public void restoreState(ByteBuffer source) {
+        pc = source.getShort() & 0xFFFF;
+        IRegister = source.getInt();
+        sp = source.get() & 0xFF;
+        delayTimer = source.getInt();
+        soundTimer = source.getInt();
+        drawFlag = source.get() != 0;
+        int instruction = source.getInt();
+        opcode = instruction < 0 ? null : Opcode.of(instruction);
+        for (int i = 0; i < VRegister.length; i++) {
+            VRegister[i] = source.getInt();
+        }
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = source.getShort() & 0xFFFF;
+        }
+        cycleDebt = source.getInt();
+        skippedCycles = source.getLong();
+        randomState = source.getLong();
+    }
+
+    /**
+     * Returns a 64 bit hash of the V registers, I, the program counter,
+     * the stack pointer, the stack, and the timers, made of the same
+     * kind of keys as {@link Memory#stateHash()} so the two can be
+     * XORed together. The random number generator and the cycle
+     * counters are left out.
+     * <p>
+     * Unlike memory, the registers are hashed on every call. There are
+     * only a few dozen of them, and they are changed by nearly every
+     * instruction and by callers through {@link #getVRegister()} and
+     * {@link #getStack()}.
+     *
+     * @return the hash
+     */
+    public long stateHash() {
+        long hash = 0;
+        for (int i = 0; i < VRegister.length; i++) {
+            hash ^= StateHashing.registerKey(i, VRegister[i]);
+        }
+        for (int i = 0; i < stack.length; i++) {
+            hash ^= StateHashing.registerKey(16 + i, stack[i]);
+        }
+        return hash
+                ^ StateHashing.registerKey(32, IRegister)
+                ^ StateHashing.registerKey(33, pc)
+                ^ StateHashing.registerKey(34, sp)
+                ^ StateHashing.registerKey(35, delayTimer)
+                ^ StateHashing.registerKey(36, soundTimer);
+    }
+
+    /**
+     * Creates a CPU in the same state as this one, wired to the given
+     * components, which should be forks of this CPU's own. Decoded and
+     * compiled instructions are not carried over.
+     *
+     * @param memory   the child's memory
+     * @param display  the child's frame buffer
+     * @param sound    the child's sound
+     * @param keyboard the child's keys
+     * @return the new CPU
+     */
+    public CPU fork(Memory memory, FrameBuffer display, Sound sound, InputSource keyboard) {
+        CPU child = new CPU(clockSpeed, memory, display, sound, keyboard, engine, timingModel);
+        child.pc = pc;
+        child.IRegister = IRegister;
+        child.sp = sp;
+        child.delayTimer = delayTimer;
+        child.soundTimer = soundTimer;
+        child.drawFlag = drawFlag;
+        child.opcode = opcode;
+        System.arraycopy(VRegister, 0, child.VRegister, 0, VRegister.length);
+        System.arraycopy(stack, 0, child.stack, 0, stack.length);
+        child.cycleDebt = cycleDebt;
+        child.skippedCycles = skippedCycles;
+        child.randomState = randomState;
+        return child;
+    }
+
+    /**
+     * Identifies the method that executes an instruction.
+     */
+    private enum Handler {
+        OP_00E0, OP_00EE, OP_1NNN, OP_2NNN, OP_3XKK, OP_4XKK,
+        OP_5XY0, OP_6XKK, OP_7XKK, OP_8XY0, OP_8XY1, OP_8XY2,
+        OP_8XY3, OP_8XY4, OP_8XY5, OP_8XY6, OP_8XY7, OP_8XYE,
+        OP_9XY0, OP_ANNN, OP_BNNN, OP_CXKK, OP_DXYN, OP_EX9E,
+        OP_EXA1, OP_FX07, OP_FX0A, OP_FX15, OP_FX18, OP_FX1E,
+        OP_FX29, OP_FX33, OP_FX55, OP_FX65, UNKNOWN
+    }
+}
@@ -0,0 +1,26 @@
+package com.qelery.chip8.components;
+
+/**
+ * A run of CHIP-8 instructions that the {@link Recompiler} translated
+ * into JVM bytecode.
+ */
+interface CompiledBlock {
+
+    /**
+     * Executes every instruction in the block and leaves the program
+     * counter at the instruction that follows it.
+     *
+     * @param cpu the cpu whose registers the block operates on
+     */
+    void execute(CPU cpu);
+
+    /**
+     * @return the number of instructions in the block
+     */
+    int length();
+
+    /**
+     * @return the cycles the block costs under the CPU's timing model
+     */
+    int cycles();
+}
@@ -0,0 +1,69 @@
+package com.qelery.chip8.components;
+
+/**
+ * Instruction costs modelled on the original CHIP-8 interpreter running
+ * on the RCA COSMAC VIP.
+ * <p>
+ * Costs are in 1802 machine cycles (8 clock periods at 1.76 MHz), and
+ * each includes the interpreter's fixed fetch and decode overhead. They
+ * follow published disassemblies of the VIP interpreter, rounded to a
+ * single figure per instruction: a skip costs the same whether or not
+ * it is taken, and FX33 does not depend on the digits of Vx. DXYN grows
+ * with the height of the sprite, and FX55 and FX65 with the number of
+ * registers copied. Time lost to the display's DMA is not modelled.
+ */
+public class CosmacVipTimingModel implements TimingModel {
+
+    /**
+     * 1802 machine cycles per second on a VIP clocked at 1.76 MHz.
+     */
+    public static final int MACHINE_CYCLES_PER_SECOND = 1_760_640 / 8;
+
+    private static final int FETCH_AND_DECODE = 40;
+    private static final int[] COSTS = new int[0x10000];
+
+    static {
+        for (int instruction = 0; instruction < COSTS.length; instruction++) {
+            COSTS[instruction] = FETCH_AND_DECODE + executionCost(Opcode.of(instruction));
+        }
+    }
+
+    @Override
+    public int cycles(Opcode opcode) {
+        return COSTS[opcode.fullValue()];
+    }
+
+    @Override
+    public int clockSpeed() {
+        return MACHINE_CYCLES_PER_SECOND;
+    }
+
+    private static int executionCost(Opcode opcode) {
+        return switch (opcode.o()) {
+            case 0x0 -> switch (opcode.fullValue()) {
+                case 0x00E0 -> 3078;
+                case 0x00EE -> 10;
+                default -> 0;
+            };
+            case 0x1, 0xA -> 12;
+            case 0x2 -> 26;
+            case 0x3, 0x4 -> 10;
+            case 0x5, 0x9 -> 14;
+            case 0x6 -> 6;
+            case 0x7 -> 10;
+            case 0x8 -> 44;
+            case 0xB -> 22;
+            case 0xC -> 36;
+            case 0xD -> 68 + 74 * opcode.n();
+            case 0xE -> 14;
+            default -> switch (opcode.kk()) {
+                case 0x07, 0x15, 0x18 -> 10;
+                case 0x0A -> 18;
+                case 0x1E, 0x29 -> 16;
+                case 0x33 -> 80;
+                case 0x55, 0x65 -> 14 + 14 * (opcode.x() + 1);
+                default -> 0;
+            };
+        };
+    }
+}
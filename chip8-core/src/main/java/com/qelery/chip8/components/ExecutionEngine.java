@@ -0,0 +1,42 @@
+package com.qelery.chip8.components;
+
+/**
+ * The strategies a {@link CPU} can use to execute decoded instructions.
+ */
+public enum ExecutionEngine {
+
+    /**
+     * Decodes every instruction with nested switches on its nibbles.
+     */
+    SWITCH,
+
+    /**
+     * Looks up a handler that was resolved ahead of time for each of
+     * the 65,536 possible instructions, so executing an instruction is
+     * a single array index and call.
+     */
+    TABLE,
+
+    /**
+     * Executes like {@link #TABLE}, but also caches each decoded
+     * instruction by its address so it is not re-read from memory on
+     * every cycle. Cached instructions are dropped whenever the memory
+     * they were decoded from is written.
+     * <p>
+     * This is not a speedup. Reading an instruction from memory is
+     * already cheap, and in {@code DispatchBenchmark} and
+     * {@code FramesBenchmark} this engine runs no faster than
+     * {@link #SWITCH}, while each CPU that uses it holds a table of
+     * decoded instructions as large as memory and listens to every
+     * memory write. Pick {@link #SWITCH} instead for performance.
+     */
+    CACHED,
+
+    /**
+     * Compiles hot basic blocks to JVM bytecode when cycles are run
+     * through {@link CPU#emulateCycles(int)}, and executes everything
+     * it cannot compile like {@link #TABLE}. Compiled blocks are dropped
+     * whenever the memory they were compiled from is written.
+     */
+    JIT
+}
@@ -0,0 +1,124 @@
+package com.qelery.chip8.components;
+
+/**
+ * The pixels of the CHIP-8 display, as the CPU sees them.
+ * <p>
+ * The original CHIP-8 display resolution was 64x32 pixels and
+ * monochrome. Graphics are drawn using sprites which are XOR'd with
+ * the corresponding pixels. A pixel value of 1 means ON and 0 means
+ * OFF.
+ * <p>
+ * A frame buffer only holds pixel state. Showing it on a screen is
+ * left to a front end, which reads the rows that changed with
+ * {@link #takeDirtyRows()} or copies whole frames out with
+ * {@link #copyRowsTo(long[])}.
+ */
+public interface FrameBuffer {
+
+    int LENGTH_IN_PIXELS = 64;
+    int HEIGHT_IN_PIXELS = 32;
+    int PIXEL_ON_VALUE = 1;
+    int PIXEL_OFF_VALUE = 0;
+
+    /**
+     * Turns every pixel OFF.
+     */
+    void clear();
+
+    /**
+     * XORs one 8 pixel row of a sprite onto the display. Pixels that
+     * go past the right edge wrap around to the left.
+     *
+     * @param x          the x coordinate of the sprite's leftmost pixel,
+     *                   taken modulo the display length
+     * @param y          the y coordinate of the row
+     * @param spriteByte the row of the sprite, most significant bit
+     *                   leftmost
+     * @return true if any pixel that was ON was turned OFF
+     */
+    boolean drawSpriteRow(int x, int y, int spriteByte);
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the value of the pixel, 1 being ON and 0 being OFF
+     */
+    int getPixel(int x, int y);
+
+    /**
+     * @param x   the x coordinate
+     * @param y   the y coordinate
+     * @param val 1 turns the pixel on, 0 turns the pixel off
+     * @throws IllegalArgumentException if {@code val} does not
+     *                                  equal 0 or 1
+     */
+    void setPixel(int x, int y, int val);
+
+    /**
+     * @param y the y coordinate
+     * @return the row, with the pixel at x = 0 in the most significant bit
+     */
+    long getRow(int y);
+
+    /**
+     * Replaces a whole row of pixels, e.g. when restoring a saved
+     * state.
+     *
+     * @param y   the y coordinate
+     * @param row the row, with the pixel at x = 0 in the most significant bit
+     */
+    void setRow(int y, long row);
+
+    /**
+     * Copies every row of pixels into the target, e.g. to hand a
+     * finished frame to another thread.
+     *
+     * @param target an array of at least {@link #HEIGHT_IN_PIXELS} rows
+     */
+    void copyRowsTo(long[] target);
+
+    /**
+     * Returns the rows that changed since the last call and marks
+     * them all clean.
+     *
+     * @return one bit per changed row, bit y being row y
+     */
+    int takeDirtyRows();
+
+    /**
+     * Returns a 64 bit hash of the pixels. Frame buffers showing the
+     * same pixels have the same hash.
+     * <p>
+     * By default the hash is computed from every row on each call.
+     * Implementations that can keep it up to date as pixels change
+     * should return it directly.
+     *
+     * @return the hash
+     */
+    default long stateHash() {
+        return computeStateHash();
+    }
+
+    /**
+     * Computes the hash returned by {@link #stateHash()} from scratch,
+     * reading every row.
+     *
+     * @return the hash
+     */
+    default long computeStateHash() {
+        long hash = 0;
+        for (int y = 0; y < HEIGHT_IN_PIXELS; y++) {
+            hash ^= StateHashing.rowKey(y, getRow(y));
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a copy of the pixels that is cheap to make, e.g. by
+     * sharing them with this frame buffer until one side draws. Every
+     * row of the copy starts out dirty.
+     *
+     * @return the new copy
+     */
+    FrameBuffer fork();
+}
@@ -0,0 +1,27 @@
+package com.qelery.chip8.components;
+
+/**
+ * The state of the 16-key hexadecimal keypad, as the CPU sees it.
+ * <p>
+ * Keys are identified by their hexadecimal value, 0x0 to 0xF.
+ */
+public interface InputSource {
+
+    /**
+     * @param keyVal the value of the key, 0x0 to 0xF
+     * @return true if the key is held down
+     */
+    boolean isKeyDown(int keyVal);
+
+    /**
+     * @return the value of a key that is held down, or -1 if none are
+     */
+    int getDownedKeyValue();
+
+    /**
+     * Releases a key, so a held key is only read once by FX0A.
+     *
+     * @param keyVal the value of the key, 0x0 to 0xF
+     */
+    void forceKeyUp(int keyVal);
+}
@@ -0,0 +1,163 @@
+package com.qelery.chip8.components;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A virtual CHIP-8 keypad, driven by key values rather than by any
+ * particular keyboard or UI toolkit.
+ * <p>
+ * The machines that originally ran CHIP-8 used a 16-key hexadecimal
+ * keypad with the following layout:
+ * <p>
+ * -----------------<br>
+ * | 1 | 2 | 3 | C |<br>
+ * -----------------<br>
+ * | 4 | 5 | 6 | D |<br>
+ * ------------------<br>
+ * | 7 | 8 | 9 | E |<br>
+ * ------------------<br>
+ * | A | 0 | B | F |<br>
+ * ------------------<br>
+ * <p>
+ * When the CPU runs on its own thread, key events from the UI are
+ * posted with {@link #postKeyDown(int)} and {@link #postKeyUp(int)}
+ * and only applied to the keypad once the emulation thread calls
+ * {@link #applyPostedKeys()}. A key pressed and released between two
+ * of those calls stays down until the next one, so a quick tap is
+ * never missed by a program that only checks the keys once a frame.
+ */
+public class Keypad implements InputSource {
+
+    public static final int KEY_COUNT = 16;
+
+    private static final int KEY_DOWN_EVENT = 0x10;
+    private static final int KEY_VALUE_MASK = 0xF;
+
+    private final boolean[] keys = new boolean[KEY_COUNT];
+
+    /**
+     * Key events posted from the UI thread, each encoded as the key
+     * value, OR'd with {@link #KEY_DOWN_EVENT} for a key press.
+     */
+    private final Queue<Integer> postedKeys = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Keys released in the same batch of posted events that pressed
+     * them, to be released by the next {@link #applyPostedKeys()}.
+     * Bit n is key n.
+     */
+    private int deferredReleases;
+
+    public void keyDown(int keyVal) {
+        keys[keyVal] = true;
+    }
+
+    public void keyUp(int keyVal) {
+        keys[keyVal] = false;
+    }
+
+    /**
+     * Queues a key press to be applied by {@link #applyPostedKeys()}.
+     * Safe to call from any thread.
+     *
+     * @throws IndexOutOfBoundsException if the key value is not 0x0 to 0xF
+     */
+    public void postKeyDown(int keyVal) {
+        postedKeys.offer(Objects.checkIndex(keyVal, KEY_COUNT) | KEY_DOWN_EVENT);
+    }
+
+    /**
+     * Queues a key release to be applied by {@link #applyPostedKeys()}.
+     * Safe to call from any thread.
+     *
+     * @throws IndexOutOfBoundsException if the key value is not 0x0 to 0xF
+     */
+    public void postKeyUp(int keyVal) {
+        postedKeys.offer(Objects.checkIndex(keyVal, KEY_COUNT));
+    }
+
+    /**
+     * Applies every posted key event to the keypad, in the order they
+     * were posted. A release of a key that was pressed by this same
+     * call is held back until the next call, so the key is seen down
+     * for at least the time between the two. Called from the thread
+     * running the CPU.
+     */
+    public void applyPostedKeys() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            if (((deferredReleases >>> i) & 1) != 0) {
+                keys[i] = false;
+            }
+        }
+        deferredReleases = 0;
+
+        int pressed = 0;
+        Integer event;
+        while ((event = postedKeys.poll()) != null) {
+            int keyVal = event & KEY_VALUE_MASK;
+            int keyBit = 1 << keyVal;
+            if ((event & KEY_DOWN_EVENT) != 0) {
+                keys[keyVal] = true;
+                pressed |= keyBit;
+                deferredReleases &= ~keyBit;
+            } else if ((pressed & keyBit) != 0) {
+                deferredReleases |= keyBit;
+            } else {
+                keys[keyVal] = false;
+            }
+        }
+    }
+
+    /**
+     * Presses every key whose bit is set in the mask and releases the
+     * rest, bit n being key n.
+     *
+     * @param mask the keys to hold down, one bit per key
+     */
+    public void setKeyMask(int mask) {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = ((mask >>> i) & 1) != 0;
+        }
+    }
+
+    /**
+     * @return the keys currently held down, bit n being key n
+     */
+    public int getKeyMask() {
+        int mask = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            if (keys[i]) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public int getDownedKeyValue() {
+        int minKeyValue = 0x1;
+        int maxKeyValue = 0xF;
+        for (int i = minKeyValue; i <= maxKeyValue; i++) {
+            if (isKeyDown(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isKeyDown(int keyVal) {
+        return keys[keyVal];
+    }
+
+    @Override
+    public void forceKeyUp(int keyVal) {
+        keys[keyVal] = false;
+    }
+
+    public boolean[] getKeys() {
+        return keys;
+    }
+}
@@ -0,0 +1,322 @@
+package com.qelery.chip8.components;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A Memory object where the font sprite and ROM data are loaded.
+ * <p>
+ * CHIP-8 was most commonly implemented on microcomputers that had
+ * 4KB RAM.
+ * <p>
+ * Each byte is held as a byte. Reads and writes wrap around at the end
+ * of memory, so address {@code size()} is address 0 again, as on a
+ * machine with a 12 bit address bus. Loading data that does not fit
+ * is still an error.
+ * <p>
+ * Memory is split into pages of {@link #PAGE_SIZE} bytes so that it
+ * can be {@link #fork() forked} cheaply. A fork shares every page with
+ * the memory it came from, and whichever side writes to a shared page
+ * first copies it. Shared pages are never written, so forks can run on
+ * different threads.
+ * <p>
+ * A Zobrist-style hash of every byte is kept up to date as memory is
+ * written, so {@link #stateHash()} costs the same however much memory
+ * there is.
+ * <p>
+ * <h2>References</h2>
+ * <a href="http://devernay.free.fr/hacks/chip8/C8TECH10.HTM">Cowgod's Chip-8 Technical Reference</a><br>
+ * <a href="https://en.wikipedia.org/wiki/CHIP-8">Wikipedia - CHIP-8</a><br>
+ */
+public class Memory {
+
+    /**
+     * The first 512 bytes of memory held the interpreter in the
+     * original CHIP-8. Loading and reading ROM data starts after
+     * that memory location.
+     */
+    public static final int READ_WRITE_START_LOCATION = 512;
+    public static final int DEFAULT_SIZE = 4096;
+    public static final int PAGE_SIZE = 256;
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int size;
+    private final int addressMask;
+    private final byte[][] pages;
+    /**
+     * Whether each page may also be in use by another fork, in which
+     * case it is copied before being written.
+     */
+    private final boolean[] sharedPages;
+    /**
+     * Where {@link #restoreState(ByteBuffer)} reads each saved page to
+     * compare it, made on the first restore and never shared by forks.
+     */
+    private byte[] restoredPage;
+    private long stateHash;
+    private MemoryWriteListener[] writeListeners = new MemoryWriteListener[0];
+
+    /**
+     * Creates a Memory object that serves as the CHIP-8 RAM.
+     *
+     * @param size the number of bytes, a power of two so that addresses
+     *             can wrap around
+     * @throws IllegalArgumentException if the size is not a power of two
+     */
+    public Memory(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Memory size must be a power of two: " + size);
+        }
+        this.size = size;
+        this.addressMask = size - 1;
+        this.pages = new byte[(size + PAGE_MASK) >>> PAGE_SHIFT][];
+        this.sharedPages = new boolean[pages.length];
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = new byte[Math.min(PAGE_SIZE, size)];
+        }
+
+        int[] fontSprites = {
+                0xF0, 0x90, 0x90, 0x90, 0xF0, // 0
+                0x20, 0x60, 0x20, 0x20, 0x70, // 1
+                0xF0, 0x10, 0xF0, 0x80, 0xF0, // 2
+                0xF0, 0x10, 0xF0, 0x10, 0xF0, // 3
+                0x90, 0x90, 0xF0, 0x10, 0x10, // 4
+                0xF0, 0x80, 0xF0, 0x10, 0xF0, // 5
+                0xF0, 0x80, 0xF0, 0x90, 0xF0, // 6
+                0xF0, 0x10, 0x20, 0x40, 0x40, // 7
+                0xF0, 0x90, 0xF0, 0x90, 0xF0, // 8
+                0xF0, 0x90, 0xF0, 0x10, 0xF0, // 9
+                0xF0, 0x90, 0xF0, 0x90, 0x90, // A
+                0xE0, 0x90, 0xE0, 0x90, 0xE0, // B
+                0xF0, 0x80, 0x80, 0x80, 0xF0, // C
+                0xE0, 0x90, 0x90, 0x90, 0xE0, // D
+                0xF0, 0x80, 0xF0, 0x80, 0xF0, // E
+                0xF0, 0x80, 0xF0, 0x80, 0x80  // F
+        };
+        loadData(fontSprites, 0);
+    }
+
+    private Memory(Memory parent) {
+        this.size = parent.size;
+        this.addressMask = parent.addressMask;
+        this.pages = parent.pages.clone();
+        this.sharedPages = new boolean[pages.length];
+        Arrays.fill(sharedPages, true);
+        this.stateHash = parent.stateHash;
+    }
+
+    public void loadData(int[] data, int offset) {
+        Objects.checkFromIndexSize(offset, data.length, size);
+        for (int i = 0; i < data.length; i++) {
+            store(offset + i, data[i]);
+        }
+        notifyWriteListeners(offset, data.length);
+    }
+
+    /**
+     * Copies data into memory with one bulk copy per page it covers.
+     *
+     * @param data   the bytes to load
+     * @param offset the address of the first byte
+     * @throws IndexOutOfBoundsException if the data does not fit
+     */
+    public void loadData(byte[] data, int offset) {
+        Objects.checkFromIndexSize(offset, data.length, size);
+        int loaded = 0;
+        while (loaded < data.length) {
+            int address = offset + loaded;
+            byte[] page = writablePage(address >>> PAGE_SHIFT);
+            int start = address & PAGE_MASK;
+            int length = Math.min(page.length - start, data.length - loaded);
+            for (int i = 0; i < length; i++) {
+                if (page[start + i] != data[loaded + i]) {
+                    stateHash ^= StateHashing.memoryKey(address + i, page[start + i] & 0xFF)
+                            ^ StateHashing.memoryKey(address + i, data[loaded + i] & 0xFF);
+                }
+            }
+            System.arraycopy(data, loaded, page, start, length);
+            loaded += length;
+        }
+        notifyWriteListeners(offset, data.length);
+    }
+
+    /**
+     * @param address any address, wrapped around to fit in memory
+     * @return the byte at the address, from 0 to 255
+     */
+    public int readByte(int address) {
+        int wrapped = address & addressMask;
+        return pages[wrapped >>> PAGE_SHIFT][wrapped & PAGE_MASK] & 0xFF; // unsigned representation
+    }
+
+    /**
+     * @param value   the byte to write, of which only the low 8 bits are kept
+     * @param address any address, wrapped around to fit in memory
+     */
+    public void writeByte(int value, int address) {
+        int wrapped = address & addressMask;
+        store(wrapped, value);
+        notifyWriteListeners(wrapped, 1);
+    }
+
+    /**
+     * Writes a byte without notifying listeners, keeping the state
+     * hash up to date.
+     */
+    private void store(int address, int value) {
+        byte[] page = writablePage(address >>> PAGE_SHIFT);
+        int offset = address & PAGE_MASK;
+        stateHash ^= StateHashing.memoryKey(address, page[offset] & 0xFF)
+                ^ StateHashing.memoryKey(address, value & 0xFF);
+        page[offset] = (byte) value;
+    }
+
+    /**
+     * Returns a 64 bit hash of every byte of memory, which is kept up
+     * to date by every write rather than computed here. Memories
+     * holding the same bytes have the same hash.
+     * <p>
+     * When assertions are enabled, the hash is checked against
+     * {@link #computeStateHash()} on every call.
+     *
+     * @return the hash
+     */
+    public long stateHash() {
+        assert stateHash == computeStateHash() : "Memory hash is out of date";
+        return stateHash;
+    }
+
+    /**
+     * Computes the hash returned by {@link #stateHash()} from scratch,
+     * reading every byte of memory.
+     *
+     * @return the hash
+     */
+    public long computeStateHash() {
+        long hash = 0;
+        for (int address = 0; address < size; address++) {
+            hash ^= StateHashing.memoryKey(address, readByte(address));
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a copy of this memory that shares all of its pages until
+     * one side writes to them, so forking costs the same no matter how
+     * large the memory is. Write listeners are not carried over.
+     * <p>
+     * Call from the thread that writes to this memory.
+     *
+     * @return the new copy
+     */
+    public Memory fork() {
+        Arrays.fill(sharedPages, true);
+        return new Memory(this);
+    }
+
+    /**
+     * @return the number of pages that are not shared with any fork
+     */
+    public int ownedPages() {
+        int owned = 0;
+        for (boolean shared : sharedPages) {
+            if (!shared) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+
+    private byte[] writablePage(int page) {
+        if (sharedPages[page]) {
+            pages[page] = pages[page].clone();
+            sharedPages[page] = false;
+        }
+        return pages[page];
+    }
+
+    /**
+     * Writes every byte of memory into the buffer, in {@link #size()}
+     * bytes.
+     *
+     * @param target the buffer to write to, from its position
+     */
+    public void saveState(ByteBuffer target) {
+        for (byte[] page : pages) {
+            target.put(page);
+        }
+    }
+
+    /**
+     * Reads back the bytes written by {@link #saveState(ByteBuffer)}.
+     * Listeners are only told about the ranges that actually changed,
+     * so restoring a nearby state keeps most decoded and compiled
+     * instructions. Pages are compared whole first, and ones that did
+     * not change are left alone, still shared with any forks.
+     *
+     * @param source the buffer to read from, from its position
+     */
+    public void restoreState(ByteBuffer source) {
+        if (restoredPage == null) {
+            restoredPage = new byte[Math.min(PAGE_SIZE, size)];
+        }
+        byte[] saved = restoredPage;
+        int changedFrom = -1;
+        for (int page = 0; page < pages.length; page++) {
+            int pageStart = page << PAGE_SHIFT;
+            source.get(saved);
+            if (Arrays.equals(pages[page], saved)) {
+                if (changedFrom >= 0) {
+                    notifyWriteListeners(changedFrom, pageStart - changedFrom);
+                    changedFrom = -1;
+                }
+                continue;
+            }
+            for (int offset = 0; offset < saved.length; offset++) {
+                int address = pageStart + offset;
+                if (pages[page][offset] != saved[offset]) {
+                    store(address, saved[offset]);
+                    if (changedFrom < 0) {
+                        changedFrom = address;
+                    }
+                } else if (changedFrom >= 0) {
+                    notifyWriteListeners(changedFrom, address - changedFrom);
+                    changedFrom = -1;
+                }
+            }
+        }
+        if (changedFrom >= 0) {
+            notifyWriteListeners(changedFrom, size - changedFrom);
+        }
+    }
+
+    /**
+     * @return the number of addressable bytes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Registers a listener that is notified after any byte of memory
+     * is written, such as by a ROM load or by an instruction storing
+     * registers.
+     *
+     * @param listener the listener to notify
+     */
+    public void addWriteListener(MemoryWriteListener listener) {
+        MemoryWriteListener[] listeners = Arrays.copyOf(writeListeners, writeListeners.length + 1);
+        listeners[writeListeners.length] = listener;
+        writeListeners = listeners;
+    }
+
+    private void notifyWriteListeners(int address, int length) {
+        for (MemoryWriteListener listener : writeListeners) {
+            listener.onWrite(address, length);
+        }
+    }
+}
+
+
@@ -0,0 +1,16 @@
+package com.qelery.chip8.components;
+
+/**
+ * Receives notifications when bytes in {@link Memory} are overwritten.
+ */
+@FunctionalInterface
+public interface MemoryWriteListener {
+
+    /**
+     * Called after a range of memory has been written.
+     *
+     * @param address the first address that was written
+     * @param length  the number of consecutive bytes written
+     */
+    void onWrite(int address, int length);
+}
@@ -6,6 +6,12 @@ import java.util.Objects;
 /**
  * A class that represents an unsigned 2-byte opcode.
  * <p>
+ * Opcodes are immutable, so each 2-byte instruction is decoded once,
+ * the first time it is fetched, into a shared table. {@link #of(int)}
+ * returns that instance, which lets the CPU fetch and decode without
+ * allocating. Filling the table as instructions are met rather than
+ * all at once keeps the 65,536 decodes out of start-up.
+ * <p>
  * <h2>CPU opcode notation</h2>
  * Adapted from: <a href="http://devernay.free.fr/hacks/chip8/C8TECH10.HTM">Cowgod's Chip-8 Technical Reference</a>
  * <p>
@@ -19,8 +25,20 @@ import java.util.Objects;
  * nnn &#9; last 3 nibbles &#9; ( ■ n n n )<br>
  */
 public class Opcode {
-    private final int[] nibbles;
+
+    private static final int NIBBLE_COUNT = 4;
+    /**
+     * Decoded opcodes by instruction, null until first fetched. Two
+     * threads may both decode the same instruction, which is harmless
+     * as opcodes are immutable.
+     */
+    private static final Opcode[] DECODED = new Opcode[0x10000];
+
     private final int instruction;
+    private final int o;
+    private final int x;
+    private final int y;
+    private final int n;
 
     public Opcode(int firstByte, int secondByte) {
         this(((firstByte << 8) & 0xFF00) | (secondByte & 0x00FF));
@@ -28,11 +46,38 @@ public class Opcode {
 
     public Opcode(int instruction) {
         this.instruction = instruction;
-        this.nibbles = new int[4];
-        this.nibbles[0] = instruction >> 12 & 0x00F;
-        this.nibbles[1] = instruction >> 8 & 0x00F;
-        this.nibbles[2] = instruction >> 4 & 0x00F;
-        this.nibbles[3] = instruction & 0x00F;
+        this.o = instruction >> 12 & 0x00F;
+        this.x = instruction >> 8 & 0x00F;
+        this.y = instruction >> 4 & 0x00F;
+        this.n = instruction & 0x00F;
+    }
+
+    /**
+     * Returns the shared, decoded opcode for a 2-byte instruction.
+     *
+     * @param instruction the instruction, only the lowest 16 bits are used
+     * @return the decoded opcode
+     */
+    public static Opcode of(int instruction) {
+        int index = instruction & 0xFFFF;
+        Opcode opcode = DECODED[index];
+        if (opcode == null) {
+            opcode = new Opcode(index);
+            DECODED[index] = opcode;
+        }
+        return opcode;
+    }
+
+    /**
+     * Returns the shared, decoded opcode for an instruction stored as
+     * two bytes.
+     *
+     * @param firstByte  the high byte of the instruction
+     * @param secondByte the low byte of the instruction
+     * @return the decoded opcode
+     */
+    public static Opcode of(int firstByte, int secondByte) {
+        return of(((firstByte << 8) & 0xFF00) | (secondByte & 0x00FF));
     }
 
     /**
@@ -42,36 +87,40 @@ public class Opcode {
      * @return the i-th nibble of the opcode
      */
     public int getNibble(int index) {
-        Objects.checkIndex(index, nibbles.length);
-        return nibbles[index];
+        return switch (Objects.checkIndex(index, NIBBLE_COUNT)) {
+            case 0 -> o;
+            case 1 -> x;
+            case 2 -> y;
+            default -> n;
+        };
     }
 
     /**
      * @return the first nibble of the opcode
      */
     public int o() {
-        return getNibble(0);
+        return o;
     }
 
     /**
      * @return the second nibble of the opcode
      */
     public int x() {
-        return getNibble(1);
+        return x;
     }
 
     /**
      * @return the third nibble of the opcode
      */
     public int y() {
-        return getNibble(2);
+        return y;
     }
 
     /**
      * @return the fourth nibble of the opcode
      */
     public int n() {
-        return getNibble(3);
+        return n;
     }
 
     /**
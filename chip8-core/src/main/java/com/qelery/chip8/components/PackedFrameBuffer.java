@@ -0,0 +1,168 @@
+package com.qelery.chip8.components;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link FrameBuffer} that packs each row of pixels into a single
+ * long, with the leftmost pixel in the most significant bit, so a
+ * sprite row can be drawn with one rotate and one XOR.
+ * <p>
+ * Rows changed by drawing, clearing, or setting pixels are marked
+ * dirty until a front end takes them with {@link #takeDirtyRows()}.
+ * <p>
+ * A {@link #fork()} shares the rows with this frame buffer, and
+ * whichever side changes a pixel first copies them.
+ * <p>
+ * The {@link #stateHash()} is kept up to date as rows change. A row's
+ * old key is taken out of the hash the first time it changes, and its
+ * new key put in when the hash is next read, so a row drawn over many
+ * times in between is only hashed twice. When assertions are enabled,
+ * every read is checked against a full recompute.
+ */
+public class PackedFrameBuffer implements FrameBuffer {
+
+    private long[] rows;
+    /**
+     * Whether the rows may also be in use by a fork, in which case
+     * they are copied before being changed.
+     */
+    private boolean sharedRows;
+    /**
+     * One bit per row, set when the row has changed since the dirty
+     * rows were last taken. Bit y is row y.
+     */
+    private int dirtyRows;
+    /**
+     * The hash of the rows, leaving out the ones in {@link #unhashedRows}.
+     */
+    private long stateHash;
+    /**
+     * One bit per row that has changed since the hash was last read,
+     * and whose key is not in {@link #stateHash}.
+     */
+    private int unhashedRows;
+
+    public PackedFrameBuffer() {
+        this.rows = new long[HEIGHT_IN_PIXELS];
+    }
+
+    private PackedFrameBuffer(PackedFrameBuffer parent) {
+        this.rows = parent.rows;
+        this.sharedRows = true;
+        this.dirtyRows = -1;
+        this.stateHash = parent.stateHash;
+        this.unhashedRows = parent.unhashedRows;
+    }
+
+    @Override
+    public void clear() {
+        int cleared = 0;
+        for (int y = 0; y < HEIGHT_IN_PIXELS; y++) {
+            if (rows[y] != 0) {
+                cleared |= 1 << y;
+            }
+        }
+        if (cleared != 0) {
+            Arrays.fill(writableRows(), 0L);
+            dirtyRows |= cleared;
+            stateHash = 0;
+            unhashedRows = 0;
+        }
+    }
+
+    @Override
+    public boolean drawSpriteRow(int x, int y, int spriteByte) {
+        long sprite = Long.rotateRight((spriteByte & 0xFFL) << (Long.SIZE - 8), x);
+        long row = rows[y];
+        if (sprite != 0) {
+            replaceRow(y, row, row ^ sprite);
+        }
+        return (row & sprite) != 0;
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        Objects.checkIndex(x, LENGTH_IN_PIXELS);
+        return (int) (rows[y] >>> (Long.SIZE - 1 - x)) & PIXEL_ON_VALUE;
+    }
+
+    @Override
+    public void setPixel(int x, int y, int val) {
+        if (val != PIXEL_ON_VALUE && val != PIXEL_OFF_VALUE) {
+            throw new IllegalArgumentException("Can only assign pixel the 0 (OFF) or 1 (ON). Value: " + val);
+        }
+        Objects.checkIndex(x, LENGTH_IN_PIXELS);
+        long mask = Long.MIN_VALUE >>> x;
+        long row = val == PIXEL_ON_VALUE ? rows[y] | mask : rows[y] & ~mask;
+        if (row != rows[y]) {
+            replaceRow(y, rows[y], row);
+        }
+    }
+
+    @Override
+    public long getRow(int y) {
+        return rows[y];
+    }
+
+    @Override
+    public void setRow(int y, long row) {
+        if (row != rows[y]) {
+            replaceRow(y, rows[y], row);
+        }
+    }
+
+    @Override
+    public void copyRowsTo(long[] target) {
+        System.arraycopy(rows, 0, target, 0, HEIGHT_IN_PIXELS);
+    }
+
+    @Override
+    public int takeDirtyRows() {
+        int dirty = dirtyRows;
+        dirtyRows = 0;
+        return dirty;
+    }
+
+    @Override
+    public long stateHash() {
+        for (int unhashed = unhashedRows; unhashed != 0; unhashed &= unhashed - 1) {
+            int y = Integer.numberOfTrailingZeros(unhashed);
+            stateHash ^= StateHashing.rowKey(y, rows[y]);
+        }
+        unhashedRows = 0;
+        assert stateHash == computeStateHash() : "Frame buffer hash is out of date";
+        return stateHash;
+    }
+
+    @Override
+    public FrameBuffer fork() {
+        sharedRows = true;
+        return new PackedFrameBuffer(this);
+    }
+
+    private void replaceRow(int y, long oldRow, long newRow) {
+        writableRows()[y] = newRow;
+        dirtyRows |= 1 << y;
+        if ((unhashedRows & 1 << y) == 0) {
+            stateHash ^= StateHashing.rowKey(y, oldRow);
+            unhashedRows |= 1 << y;
+        }
+    }
+
+    private long[] writableRows() {
+        if (sharedRows) {
+            rows = rows.clone();
+            sharedRows = false;
+        }
+        return rows;
+    }
+
+    /**
+     * @return one bit per row that changed since the dirty rows were
+     * last taken, bit y being row y
+     */
+    int getDirtyRows() {
+        return dirtyRows;
+    }
+}
@@ -0,0 +1,458 @@
+package com.qelery.chip8.components;
+
+import com.qelery.chip8.util.LazyLogger;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * A dynamic recompiler that translates basic blocks of CHIP-8 code into
+ * JVM bytecode.
+ * <p>
+ * A block starts at a program counter that has been entered often
+ * enough to be considered hot and runs until the first instruction that
+ * changes control flow (jumps, calls, returns, skips), waits for input,
+ * draws to the display, or writes to memory. That instruction is left
+ * to the interpreter. Each block is defined as a hidden class that is a
+ * nestmate of {@link CPU}, so the generated code reads and writes the
+ * CPU's registers directly with every operand inlined as a constant.
+ * <p>
+ * Blocks are cached by their start address and dropped whenever any
+ * byte they were compiled from is written.
+ */
+class Recompiler {
+
+    private static final LazyLogger logger = LazyLogger.of(Recompiler.class);
+
+    /**
+     * The most instructions compiled into a single block.
+     */
+    static final int MAX_BLOCK_INSTRUCTIONS = 64;
+
+    /**
+     * How many times a program counter is entered before a block is
+     * compiled for it, so code that only runs once stays interpreted.
+     */
+    static final int COMPILE_THRESHOLD = 8;
+
+    private static final String CPU_TYPE = "com/qelery/chip8/components/CPU";
+    private static final String BLOCK_TYPE = "com/qelery/chip8/components/RecompiledBlock";
+    private static final String MEMORY_TYPE = "com/qelery/chip8/components/Memory";
+    private static final String OPCODE_TYPE = "com/qelery/chip8/components/Opcode";
+
+    private static final int CPU_LOCAL = 1;
+    private static final int V_REGISTER_LOCAL = 2;
+    private static final int SUM_LOCAL = 3;
+
+    private final MethodHandles.Lookup cpuLookup;
+    private final Memory memory;
+    private final TimingModel timingModel;
+    private final CompiledBlock[] blocks;
+    /**
+     * Marks each address whose first instruction cannot be compiled, so
+     * it is not compiled again until that instruction is written.
+     */
+    private final boolean[] notCompilable;
+    private final int[] entryCounts;
+
+    /**
+     * @param cpuLookup a lookup with private access to {@link CPU}, used
+     *                  to define the generated blocks as its nestmates
+     * @param memory      the memory that blocks are compiled from
+     * @param timingModel the costs summed into each block's cycles
+     */
+    Recompiler(MethodHandles.Lookup cpuLookup, Memory memory, TimingModel timingModel) {
+        this.cpuLookup = cpuLookup;
+        this.memory = memory;
+        this.timingModel = timingModel;
+        this.blocks = new CompiledBlock[memory.size()];
+        this.notCompilable = new boolean[memory.size()];
+        this.entryCounts = new int[memory.size()];
+        memory.addWriteListener(this::invalidate);
+    }
+
+    /**
+     * Returns the compiled block starting at an address, compiling it
+     * once the address is hot.
+     *
+     * @param pc the address of the next instruction
+     * @return the block, or null if the instruction must be interpreted
+     */
+    CompiledBlock blockAt(int pc) {
+        if (pc >= blocks.length) {
+            return null;
+        }
+        CompiledBlock block = blocks[pc];
+        if (block == null && !notCompilable[pc]) {
+            if (++entryCounts[pc] < COMPILE_THRESHOLD) {
+                return null;
+            }
+            block = compile(pc);
+            blocks[pc] = block;
+            notCompilable[pc] = block == null;
+        }
+        return block;
+    }
+
+    /**
+     * Drops every block compiled from bytes in the written range.
+     */
+    void invalidate(int address, int length) {
+        int end = Math.min(address + length, blocks.length);
+        int firstPossibleStart = Math.max(address - MAX_BLOCK_INSTRUCTIONS * 2 + 1, 0);
+        for (int start = firstPossibleStart; start < end; start++) {
+            CompiledBlock block = blocks[start];
+            int compiledBytes = block != null ? block.length() * 2 : notCompilable[start] ? 2 : 0;
+            if (start + compiledBytes > address) {
+                blocks[start] = null;
+                notCompilable[start] = false;
+                entryCounts[start] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return the block, or null if the instruction at the start cannot
+     * be compiled
+     */
+    private CompiledBlock compile(int start) {
+        int[] instructions = new int[MAX_BLOCK_INSTRUCTIONS];
+        int length = 0;
+        int cycles = 0;
+        int address = start;
+        while (length < MAX_BLOCK_INSTRUCTIONS && address + 1 < memory.size()) {
+            int instruction = memory.readByte(address) << 8 | memory.readByte(address + 1);
+            if (!isCompilable(Opcode.of(instruction))) {
+                break;
+            }
+            instructions[length++] = instruction;
+            cycles += timingModel.cycles(Opcode.of(instruction));
+            address += 2;
+        }
+        if (length == 0) {
+            return null;
+        }
+
+        try {
+            byte[] classBytes = generateClass(Arrays.copyOf(instructions, length), start, cycles);
+            MethodHandles.Lookup blockLookup = cpuLookup.defineHiddenClass(classBytes, true,
+                    MethodHandles.Lookup.ClassOption.NESTMATE);
+            return (CompiledBlock) blockLookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | IllegalArgumentException e) {
+            logger.get().warn("Could not compile block at 0x{}, interpreting instead", Integer.toHexString(start), e);
+            return null;
+        }
+    }
+
+    /**
+     * Only instructions that fall through to the next instruction and
+     * leave memory and the display untouched can be compiled.
+     */
+    static boolean isCompilable(Opcode opcode) {
+        return switch (opcode.o()) {
+            case 0x6, 0x7, 0xA, 0xC -> true;
+            case 0x8 -> opcode.n() <= 0x7 || opcode.n() == 0xE;
+            case 0xF -> switch (opcode.kk()) {
+                case 0x07, 0x15, 0x18, 0x1E, 0x29, 0x65 -> true;
+                default -> false;
+            };
+            default -> false;
+        };
+    }
+
+    private static byte[] generateClass(int[] instructions, int start, int cycles) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        cw.visit(V17, ACC_FINAL | ACC_SUPER, BLOCK_TYPE, null, "java/lang/Object",
+                new String[]{"com/qelery/chip8/components/CompiledBlock"});
+
+        MethodVisitor constructor = cw.visitMethod(0, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor length = cw.visitMethod(ACC_PUBLIC, "length", "()I", null, null);
+        length.visitCode();
+        pushInt(length, instructions.length);
+        length.visitInsn(IRETURN);
+        length.visitMaxs(0, 0);
+        length.visitEnd();
+
+        MethodVisitor cyclesMethod = cw.visitMethod(ACC_PUBLIC, "cycles", "()I", null, null);
+        cyclesMethod.visitCode();
+        pushInt(cyclesMethod, cycles);
+        cyclesMethod.visitInsn(IRETURN);
+        cyclesMethod.visitMaxs(0, 0);
+        cyclesMethod.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "execute", "(L" + CPU_TYPE + ";)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, CPU_LOCAL);
+        mv.visitFieldInsn(GETFIELD, CPU_TYPE, "VRegister", "[I");
+        mv.visitVarInsn(ASTORE, V_REGISTER_LOCAL);
+        for (int instruction : instructions) {
+            emitInstruction(mv, Opcode.of(instruction));
+        }
+        mv.visitVarInsn(ALOAD, CPU_LOCAL);
+        pushInt(mv, start + instructions.length * 2);
+        mv.visitFieldInsn(PUTFIELD, CPU_TYPE, "pc", "I");
+        mv.visitVarInsn(ALOAD, CPU_LOCAL);
+        pushInt(mv, instructions[instructions.length - 1]);
+        mv.visitMethodInsn(INVOKESTATIC, OPCODE_TYPE, "of", "(I)L" + OPCODE_TYPE + ";", false);
+        mv.visitFieldInsn(PUTFIELD, CPU_TYPE, "opcode", "L" + OPCODE_TYPE + ";");
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Emits bytecode with the same effect, including the order registers
+     * are read and written in, as the matching op_ method in {@link CPU}.
+     */
+    private static void emitInstruction(MethodVisitor mv, Opcode opcode) {
+        int x = opcode.x();
+        int y = opcode.y();
+        int kk = opcode.kk();
+        switch (opcode.o()) {
+            case 0x6 -> {
+                // Vx = kk
+                beginStoreV(mv, x);
+                pushInt(mv, kk);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x7 -> {
+                // Vx = Vx + kk, wrapped only when it reaches 256
+                Label noOverflow = new Label();
+                beginStoreV(mv, x);
+                loadV(mv, x);
+                pushInt(mv, kk);
+                mv.visitInsn(IADD);
+                mv.visitInsn(DUP);
+                pushInt(mv, 256);
+                mv.visitJumpInsn(IF_ICMPLT, noOverflow);
+                pushInt(mv, 0xFF);
+                mv.visitInsn(IAND);
+                mv.visitLabel(noOverflow);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x8 -> emitRegisterInstruction(mv, opcode.n(), x, y);
+            case 0xA -> {
+                // I = nnn
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                pushInt(mv, opcode.nnn());
+                mv.visitFieldInsn(PUTFIELD, CPU_TYPE, "IRegister", "I");
+            }
+            case 0xC -> {
+                // Vx = random byte AND kk
+                beginStoreV(mv, x);
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                pushInt(mv, 266);
+                mv.visitMethodInsn(INVOKEVIRTUAL, CPU_TYPE, "nextRandomInt", "(I)I", false);
+                pushInt(mv, kk);
+                mv.visitInsn(IAND);
+                mv.visitInsn(IASTORE);
+            }
+            case 0xF -> emitMiscInstruction(mv, kk, x);
+            default -> throw new IllegalArgumentException("Cannot compile opcode " + opcode.toHexString());
+        }
+    }
+
+    private static void emitRegisterInstruction(MethodVisitor mv, int n, int x, int y) {
+        switch (n) {
+            case 0x0 -> {
+                // Vx = Vy
+                beginStoreV(mv, x);
+                loadV(mv, y);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x1, 0x2, 0x3 -> {
+                // Vx = Vx OR/AND/XOR Vy
+                beginStoreV(mv, x);
+                loadV(mv, x);
+                loadV(mv, y);
+                mv.visitInsn(n == 0x1 ? IOR : n == 0x2 ? IAND : IXOR);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x4 -> {
+                // Vx = (Vx + Vy) & 0xFF, then VF = carry
+                loadV(mv, x);
+                loadV(mv, y);
+                mv.visitInsn(IADD);
+                mv.visitVarInsn(ISTORE, SUM_LOCAL);
+                beginStoreV(mv, x);
+                mv.visitVarInsn(ILOAD, SUM_LOCAL);
+                pushInt(mv, 0xFF);
+                mv.visitInsn(IAND);
+                mv.visitInsn(IASTORE);
+                beginStoreV(mv, 0xF);
+                mv.visitVarInsn(ILOAD, SUM_LOCAL);
+                pushInt(mv, 0xFF);
+                emitCompareToFlag(mv, IF_ICMPGT);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x5 -> {
+                // VF = Vx > Vy, then Vx = (Vx - Vy) & 0xFF
+                beginStoreV(mv, 0xF);
+                loadV(mv, x);
+                loadV(mv, y);
+                emitCompareToFlag(mv, IF_ICMPGT);
+                mv.visitInsn(IASTORE);
+                beginStoreV(mv, x);
+                loadV(mv, x);
+                loadV(mv, y);
+                mv.visitInsn(ISUB);
+                pushInt(mv, 0xFF);
+                mv.visitInsn(IAND);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x6 -> {
+                // VF = Vx & 1, then Vx = Vx >>> 1
+                beginStoreV(mv, 0xF);
+                loadV(mv, x);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(IAND);
+                mv.visitInsn(IASTORE);
+                beginStoreV(mv, x);
+                loadV(mv, x);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(IUSHR);
+                mv.visitInsn(IASTORE);
+            }
+            case 0x7 -> {
+                // VF = Vy > Vx, then Vx = Vy - Vx
+                beginStoreV(mv, 0xF);
+                loadV(mv, y);
+                loadV(mv, x);
+                emitCompareToFlag(mv, IF_ICMPGT);
+                mv.visitInsn(IASTORE);
+                beginStoreV(mv, x);
+                loadV(mv, y);
+                loadV(mv, x);
+                mv.visitInsn(ISUB);
+                mv.visitInsn(IASTORE);
+            }
+            case 0xE -> {
+                // VF = Vx >> 7, then Vx = (Vx << 1) & 0xFF
+                beginStoreV(mv, 0xF);
+                loadV(mv, x);
+                pushInt(mv, 7);
+                mv.visitInsn(ISHR);
+                mv.visitInsn(IASTORE);
+                beginStoreV(mv, x);
+                loadV(mv, x);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(ISHL);
+                pushInt(mv, 0xFF);
+                mv.visitInsn(IAND);
+                mv.visitInsn(IASTORE);
+            }
+            default -> throw new IllegalArgumentException("Cannot compile opcode 8XY" + Integer.toHexString(n));
+        }
+    }
+
+    private static void emitMiscInstruction(MethodVisitor mv, int kk, int x) {
+        switch (kk) {
+            case 0x07 -> {
+                // Vx = delay timer
+                beginStoreV(mv, x);
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                mv.visitFieldInsn(GETFIELD, CPU_TYPE, "delayTimer", "I");
+                mv.visitInsn(IASTORE);
+            }
+            case 0x15, 0x18 -> {
+                // delay or sound timer = Vx
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                loadV(mv, x);
+                mv.visitFieldInsn(PUTFIELD, CPU_TYPE, kk == 0x15 ? "delayTimer" : "soundTimer", "I");
+            }
+            case 0x1E -> {
+                // I = (I + Vx) & 0xFFF
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                mv.visitFieldInsn(GETFIELD, CPU_TYPE, "IRegister", "I");
+                loadV(mv, x);
+                mv.visitInsn(IADD);
+                pushInt(mv, 0xFFF);
+                mv.visitInsn(IAND);
+                mv.visitFieldInsn(PUTFIELD, CPU_TYPE, "IRegister", "I");
+            }
+            case 0x29 -> {
+                // I = Vx * 5, then set the draw flag
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                loadV(mv, x);
+                mv.visitInsn(ICONST_5);
+                mv.visitInsn(IMUL);
+                mv.visitFieldInsn(PUTFIELD, CPU_TYPE, "IRegister", "I");
+                mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                mv.visitInsn(ICONST_1);
+                mv.visitFieldInsn(PUTFIELD, CPU_TYPE, "drawFlag", "Z");
+            }
+            case 0x65 -> {
+                // V0 through Vx = memory[I] through memory[I + x]
+                for (int i = 0; i <= x; i++) {
+                    beginStoreV(mv, i);
+                    mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                    mv.visitFieldInsn(GETFIELD, CPU_TYPE, "memory", "L" + MEMORY_TYPE + ";");
+                    mv.visitVarInsn(ALOAD, CPU_LOCAL);
+                    mv.visitFieldInsn(GETFIELD, CPU_TYPE, "IRegister", "I");
+                    pushInt(mv, i);
+                    mv.visitInsn(IADD);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, MEMORY_TYPE, "readByte", "(I)I", false);
+                    mv.visitInsn(IASTORE);
+                }
+            }
+            default -> throw new IllegalArgumentException("Cannot compile opcode FX" + Integer.toHexString(kk));
+        }
+    }
+
+    /**
+     * Pushes the V register array and index, ready for a value and IASTORE.
+     */
+    private static void beginStoreV(MethodVisitor mv, int register) {
+        mv.visitVarInsn(ALOAD, V_REGISTER_LOCAL);
+        pushInt(mv, register);
+    }
+
+    private static void loadV(MethodVisitor mv, int register) {
+        mv.visitVarInsn(ALOAD, V_REGISTER_LOCAL);
+        pushInt(mv, register);
+        mv.visitInsn(IALOAD);
+    }
+
+    /**
+     * Replaces the two ints on top of the stack with 1 if the comparison
+     * holds, otherwise 0.
+     */
+    private static void emitCompareToFlag(MethodVisitor mv, int comparison) {
+        Label isTrue = new Label();
+        Label end = new Label();
+        mv.visitJumpInsn(comparison, isTrue);
+        mv.visitInsn(ICONST_0);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(isTrue);
+        mv.visitInsn(ICONST_1);
+        mv.visitLabel(end);
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.qelery.chip8.components;
+
+/**
+ * The keys of the Zobrist-style state hash kept by {@link Memory},
+ * {@link FrameBuffer} and {@link CPU}.
+ * <p>
+ * Every part of the state, such as one byte of memory or one row of
+ * pixels, contributes a key for its position and value, and the hash
+ * of the whole is the XOR of those keys. Changing one part only needs
+ * its old key XORed out and its new key XORed in. Keys are made by
+ * mixing the position and value rather than looked up in a table, so
+ * any value of a 64 bit row has one. Zero bytes and empty rows have
+ * the key 0, so they cost nothing to hash.
+ */
+final class StateHashing {
+
+    private static final long MEMORY_SEED = 0x3C6EF372FE94F82BL;
+    private static final long REGISTER_SEED = 0xA54FF53A5F1D36F1L;
+    private static final long[] ROW_SEEDS = new long[FrameBuffer.HEIGHT_IN_PIXELS];
+
+    static {
+        for (int y = 0; y < ROW_SEEDS.length; y++) {
+            ROW_SEEDS[y] = mix(0x510E527FADE682D1L + y);
+        }
+    }
+
+    private StateHashing() {
+    }
+
+    /**
+     * @param address the address of the byte
+     * @param value   the unsigned value of the byte
+     * @return the key of a byte of memory
+     */
+    static long memoryKey(int address, int value) {
+        return value == 0 ? 0 : mix(MEMORY_SEED + ((long) address << 8 | value));
+    }
+
+    /**
+     * @param y   the y coordinate of the row
+     * @param row the pixels of the row
+     * @return the key of a row of pixels
+     */
+    static long rowKey(int y, long row) {
+        return row == 0 ? 0 : mix(ROW_SEEDS[y] ^ row);
+    }
+
+    /**
+     * @param register a number that identifies the register, stack
+     *                 entry, or timer
+     * @param value    its value, which may be outside 0 to 255
+     * @return the key of a CPU register
+     */
+    static long registerKey(int register, int value) {
+        return mix(REGISTER_SEED + ((long) register << 32 | (value & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * The finalizer of SplitMix64, which spreads every bit of its
+     * input over the whole result.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
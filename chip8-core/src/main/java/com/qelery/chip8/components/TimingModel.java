@@ -0,0 +1,39 @@
+package com.qelery.chip8.components;
+
+/**
+ * Decides how many cycles of the CPU's clock each instruction costs.
+ * <p>
+ * {@link CPU#emulateCycles(int)} spends its budget of cycles at these
+ * costs, so the same clock setting can run instructions at different
+ * speeds. {@link #FLAT} charges every instruction a single cycle and is
+ * the default, because it lets the CPU skip the lookup entirely.
+ */
+public interface TimingModel {
+
+    /**
+     * One cycle per instruction at 500 instructions per second.
+     */
+    TimingModel FLAT = new TimingModel() {
+        @Override
+        public int cycles(Opcode opcode) {
+            return 1;
+        }
+
+        @Override
+        public int clockSpeed() {
+            return 500;
+        }
+    };
+
+    /**
+     * @param opcode an instruction that was just executed
+     * @return the number of cycles the instruction took
+     */
+    int cycles(Opcode opcode);
+
+    /**
+     * @return the clock speed, in cycles per second, that the costs
+     * are calibrated for
+     */
+    int clockSpeed();
+}
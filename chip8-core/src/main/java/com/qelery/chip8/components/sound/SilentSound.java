@@ -0,0 +1,25 @@
+package com.qelery.chip8.components.sound;
+
+/**
+ * A sound that never makes any noise.
+ * <p>
+ * Used when the machine runs headless, where there is no one to
+ * listen and opening an audio line would only slow things down.
+ */
+public class SilentSound implements Sound {
+
+    @Override
+    public void play() {
+        // Nothing to play
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to stop
+    }
+
+    @Override
+    public void closeLine() {
+        // No line was ever opened
+    }
+}
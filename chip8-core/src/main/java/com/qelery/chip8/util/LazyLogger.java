@@ -0,0 +1,41 @@
+package com.qelery.chip8.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A logger that is only looked up the first time it is used.
+ * <p>
+ * Starting the logging framework takes far longer than building and
+ * running a headless machine, so the emulator core holds its loggers
+ * in these. A run that never logs never starts the framework.
+ */
+public final class LazyLogger {
+
+    private final Class<?> owner;
+    private volatile Logger logger;
+
+    private LazyLogger(Class<?> owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @param owner the class the logger is named after
+     * @return a logger for the class that has not been looked up yet
+     */
+    public static LazyLogger of(Class<?> owner) {
+        return new LazyLogger(owner);
+    }
+
+    /**
+     * @return the logger, which is looked up on the first call
+     */
+    public Logger get() {
+        Logger result = logger;
+        if (result == null) {
+            result = LogManager.getLogger(owner);
+            logger = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.qelery.chip8.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands values from one producer thread to one consumer thread without
+ * locking or allocating.
+ * <p>
+ * The producer fills the back buffer and publishes it. The consumer
+ * takes the most recently published buffer, skipping any it was too
+ * slow to see. Neither side ever waits for the other, and neither ever
+ * touches a buffer the other is using.
+ *
+ * @param <T> the type of buffer being handed over
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100;
+
+    private final T[] buffers;
+
+    /**
+     * The index of the buffer between the producer and consumer, with
+     * {@link #FRESH} set if it was published since the consumer last
+     * took one.
+     */
+    private final AtomicInteger middle;
+    private int back;
+    private int front;
+
+    /**
+     * @param factory creates each of the three buffers
+     */
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(Supplier<T> factory) {
+        this.buffers = (T[]) new Object[]{factory.get(), factory.get(), factory.get()};
+        this.front = 0;
+        this.middle = new AtomicInteger(1);
+        this.back = 2;
+    }
+
+    /**
+     * Only called from the producer thread.
+     *
+     * @return the buffer to fill before calling {@link #publish()}
+     */
+    public T getBackBuffer() {
+        return buffers[back];
+    }
+
+    /**
+     * Makes the back buffer available to the consumer. Only called from
+     * the producer thread.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Only called from the consumer thread.
+     *
+     * @return the most recently published buffer, or null if nothing
+     * was published since the last call
+     */
+    public T takeLatest() {
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return buffers[front];
+    }
+}
@@ -0,0 +1,432 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.CPU;
+import com.qelery.chip8.components.CosmacVipTimingModel;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.Keypad;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import com.qelery.chip8.components.TimingModel;
+import com.qelery.chip8.components.sound.SilentSound;
+import com.qelery.chip8.components.sound.Sound;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mockito;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Chip8VMTest {
+
+    @Test
+    @DisplayName("Should print game instructions")
+    void printInstructions() throws NoSuchFieldException, IllegalAccessException {
+        FrameBuffer frameBuffer = Mockito.mock(FrameBuffer.class);
+        Sound sound = Mockito.mock(Sound.class);
+        Keypad keypad = Mockito.mock(Keypad.class);
+        Memory memory = Mockito.mock(Memory.class);
+        CPU cpu = Mockito.mock(CPU.class);
+        Chip8VM chip8 = new Chip8VM(frameBuffer, sound, keypad, memory, cpu, "", "");
+        ROMLoader romLoader = setMockRomLoader(chip8);
+
+        chip8.printInstructions();
+
+        Mockito.verify(romLoader).printLoadedRomInstructions();
+    }
+
+    @Test
+    @DisplayName("Should call ROMLoader to load rom")
+    void loadROM() throws NoSuchFieldException, IllegalAccessException {
+        FrameBuffer frameBuffer = Mockito.mock(FrameBuffer.class);
+        Sound sound = Mockito.mock(Sound.class);
+        Keypad keypad = Mockito.mock(Keypad.class);
+        Memory memory = Mockito.mock(Memory.class);
+        CPU cpu = Mockito.mock(CPU.class);
+        Chip8VM chip8 = new Chip8VM(frameBuffer, sound, keypad, memory, cpu, "", "");
+        ROMLoader romLoader = setMockRomLoader(chip8);
+
+        chip8.loadROM();
+
+        Mockito.verify(romLoader).loadUserSelectedRom();
+    }
+
+    @Test
+    @DisplayName("Should close the sound line when stopping")
+    void stop() {
+        FrameBuffer frameBuffer = Mockito.mock(FrameBuffer.class);
+        Sound sound = Mockito.mock(Sound.class);
+        Keypad keypad = Mockito.mock(Keypad.class);
+        Memory memory = Mockito.mock(Memory.class);
+        CPU cpu = Mockito.mock(CPU.class);
+        Chip8VM chip8 = new Chip8VM(frameBuffer, sound, keypad, memory, cpu, "", "");
+
+        chip8.stop();
+
+        Mockito.verify(sound).closeLine();
+    }
+
+    @Test
+    @DisplayName("Should build a machine around the given sound, clocked for the timing model")
+    void build() {
+        Sound sound = Mockito.mock(Sound.class);
+        TimingModel timingModel = new CosmacVipTimingModel();
+
+        Chip8VM chip8 = Chip8VM.build(sound, ExecutionEngine.SWITCH, timingModel);
+
+        assertSame(sound, chip8.getSound());
+        assertSame(timingModel, chip8.getCpu().getTimingModel());
+        assertEquals(timingModel.clockSpeed(), chip8.getCpu().getClockSpeed());
+    }
+
+    private ROMLoader setMockRomLoader(Chip8VM chip8) throws NoSuchFieldException, IllegalAccessException {
+        Field field = chip8.getClass().getDeclaredField("romLoader");
+        field.setAccessible(true);
+        ROMLoader mockRomLoader = Mockito.mock(ROMLoader.class);
+        field.set(chip8, mockRomLoader);
+        return mockRomLoader;
+    }
+
+    @Nested
+    @DisplayName("Headless runs")
+    class HeadlessRuns {
+
+        // 6A3C   V[A] = 0x3C
+        // FA15   delay timer = V[A]
+        // 1204   jump to self
+        private final byte[] program = {0x6A, 0x3C, (byte) 0xFA, 0x15, 0x12, 0x04};
+        private Chip8VM chip8;
+
+        @BeforeEach
+        void setUp() {
+            chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            chip8.getMemory().loadData(program, Memory.READ_WRITE_START_LOCATION);
+        }
+
+        @Test
+        @DisplayName("Should build a headless machine with silent sound")
+        void shouldHaveSilentSound() {
+            assertInstanceOf(SilentSound.class, chip8.getSound());
+            assertEquals(8, chip8.getCyclesPerFrame());
+        }
+
+        @Test
+        @DisplayName("Should tick the timers once per frame of emulated cycles")
+        void runFrames() {
+            chip8.runFrames(10);
+
+            assertEquals(0x3C - 10, chip8.getCpu().getDelayTimer());
+        }
+
+        @Test
+        @DisplayName("Should carry partial frames over between calls")
+        void runCycles() {
+            chip8.runCycles(5);
+            assertEquals(0x3C, chip8.getCpu().getDelayTimer());
+
+            chip8.runCycles(3);
+            assertEquals(0x3C - 1, chip8.getCpu().getDelayTimer());
+        }
+
+        @Test
+        @DisplayName("Should emulate exactly the requested number of cycles")
+        void runCyclesDelegatesToCpu() {
+            CPU cpu = Mockito.mock(CPU.class);
+            Mockito.when(cpu.getClockSpeed()).thenReturn(500);
+            Chip8VM mockedChip8 = new Chip8VM(new PackedFrameBuffer(), new SilentSound(), new Keypad(),
+                    new Memory(Memory.DEFAULT_SIZE), cpu, "", "");
+
+            mockedChip8.runCycles(20);
+
+            Mockito.verify(cpu, Mockito.times(2)).emulateCycles(8);
+            Mockito.verify(cpu).emulateCycles(4);
+            Mockito.verify(cpu, Mockito.times(2)).tickClocks();
+        }
+
+        @Test
+        @DisplayName("Should run a ROM without loading any JavaFX or logging classes")
+        void runsWithoutJavaFx() throws IOException, InterruptedException {
+            Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+            Process process = new ProcessBuilder(java.toString(), "-verbose:class",
+                    "-cp", System.getProperty("java.class.path"),
+                    HeadlessMain.class.getName(), "src/main/resources/ROMS/PONG", "--frames", "60")
+                    .redirectErrorStream(true)
+                    .start();
+            List<String> output;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                output = reader.lines().collect(Collectors.toList());
+            }
+
+            assertEquals(0, process.waitFor(), String.join("\n", output));
+            assertTrue(output.stream().anyMatch(line -> line.contains(Chip8VM.class.getName())));
+            assertEquals(List.of(), output.stream().filter(line -> line.contains(" javafx.")).toList());
+            assertEquals(List.of(), output.stream().filter(line -> line.contains(" org.apache.logging.")).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshots")
+    class Snapshots {
+
+        private final Path pong = Path.of("src/main/resources/ROMS/PONG");
+        private Chip8VM chip8;
+
+        @BeforeEach
+        void setUp() {
+            chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH, new CosmacVipTimingModel());
+            chip8.getCpu().setRandomSeed(3);
+            chip8.loadROM(pong);
+            chip8.runCycles(12_345);
+        }
+
+        @Test
+        @DisplayName("Should fit a whole machine into under 5KB")
+        void snapshotSize() {
+            ByteBuffer snapshot = chip8.snapshot();
+
+            assertEquals(chip8.snapshotSize(), snapshot.remaining());
+            assertTrue(snapshot.remaining() < 5 * 1024);
+        }
+
+        @Test
+        @DisplayName("Should continue from a restored snapshot exactly as the original machine did")
+        void restoreIntoAnotherMachine() {
+            ByteBuffer snapshot = chip8.snapshot();
+            chip8.getKeypad().keyDown(0x1);
+            chip8.runCycles(5_000);
+
+            Chip8VM restored = Chip8VM.headlessBuild(ExecutionEngine.SWITCH, new CosmacVipTimingModel());
+            restored.restore(snapshot);
+            restored.getKeypad().keyDown(0x1);
+            restored.runCycles(5_000);
+
+            assertEquals(chip8.snapshot(), restored.snapshot());
+        }
+
+        @Test
+        @DisplayName("Should rewind a machine to an earlier snapshot")
+        void restoreIntoSameMachine() {
+            ByteBuffer snapshot = chip8.snapshot();
+            chip8.runFrames(30);
+            ByteBuffer later = chip8.snapshot();
+
+            chip8.restore(snapshot.duplicate());
+            assertEquals(snapshot, chip8.snapshot());
+
+            chip8.runFrames(30);
+            assertEquals(later, chip8.snapshot());
+        }
+
+        @Test
+        @DisplayName("Should drop compiled code for memory that a restore changes")
+        void restoreIntoJitMachine() {
+            Chip8VM jit = Chip8VM.headlessBuild(ExecutionEngine.JIT, new CosmacVipTimingModel());
+            jit.loadROM(Path.of("src/main/resources/ROMS/BRIX"));
+            jit.runFrames(600);
+
+            jit.restore(chip8.snapshot());
+            jit.runCycles(5_000);
+            chip8.runCycles(5_000);
+
+            assertEquals(chip8.getCpu().getPc(), jit.getCpu().getPc());
+            assertArrayEquals(chip8.getCpu().getVRegister(), jit.getCpu().getVRegister());
+            for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+                assertEquals(chip8.getFrameBuffer().getRow(y), jit.getFrameBuffer().getRow(y));
+            }
+        }
+
+        @Test
+        @DisplayName("Should refuse a buffer that is not a snapshot")
+        void restoreRejectsOtherData() {
+            ByteBuffer snapshot = chip8.snapshot();
+            snapshot.putInt(0, 0xCAFEBABE);
+
+            assertThrows(IllegalArgumentException.class, () -> chip8.restore(snapshot));
+            assertThrows(IllegalArgumentException.class, () -> chip8.restore(ByteBuffer.allocate(16)));
+        }
+
+        @Test
+        @DisplayName("Should refuse a snapshot of a newer version")
+        void restoreRejectsOtherVersions() {
+            ByteBuffer snapshot = chip8.snapshot();
+            snapshot.putShort(4, (short) (Chip8VM.SNAPSHOT_VERSION + 1));
+
+            assertThrows(IllegalArgumentException.class, () -> chip8.restore(snapshot));
+        }
+
+        @Test
+        @DisplayName("Should save a snapshot to disk and load it back")
+        void saveAndLoadSnapshot(@TempDir Path directory) throws IOException {
+            Path file = directory.resolve("pong.c8s");
+            ByteBuffer expected = chip8.snapshot();
+
+            chip8.saveSnapshot(file);
+            Chip8VM loaded = Chip8VM.headlessBuild(ExecutionEngine.SWITCH, new CosmacVipTimingModel());
+            loaded.loadSnapshot(file);
+
+            assertEquals(chip8.snapshotSize(), Files.size(file));
+            assertEquals(expected, loaded.snapshot());
+        }
+    }
+
+    @Nested
+    @DisplayName("Forks")
+    class Forks {
+
+        private final Path brix = Path.of("src/main/resources/ROMS/BRIX");
+
+        @ParameterizedTest
+        @EnumSource(ExecutionEngine.class)
+        @DisplayName("Should fork into a machine that runs on exactly as the original does")
+        void forkRunsLikeOriginal(ExecutionEngine engine) {
+            Chip8VM chip8 = Chip8VM.headlessBuild(engine);
+            chip8.getCpu().setRandomSeed(5);
+            chip8.loadROM(brix);
+            chip8.runCycles(1234);
+
+            Chip8VM child = chip8.fork();
+
+            assertEquals(chip8.snapshot(), child.snapshot());
+            for (int frame = 0; frame < 300; frame++) {
+                chip8.getKeypad().setKeyMask(frame % 50 < 10 ? 1 << 4 : 0);
+                child.getKeypad().setKeyMask(frame % 50 < 10 ? 1 << 4 : 0);
+                chip8.runFrames(1);
+                child.runFrames(1);
+            }
+            assertEquals(chip8.snapshot(), child.snapshot());
+        }
+
+        @Test
+        @DisplayName("Should keep the original unchanged however the fork is played")
+        void forkIsIndependent() {
+            Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            chip8.loadROM(brix);
+            chip8.runFrames(60);
+            ByteBuffer before = chip8.snapshot();
+
+            Chip8VM child = chip8.fork();
+            child.getKeypad().setKeyMask(1 << 6);
+            child.runFrames(600);
+            ByteBuffer childBefore = child.snapshot();
+            Chip8VM grandchild = child.fork();
+            grandchild.getKeypad().setKeyMask(1 << 4);
+            grandchild.runFrames(600);
+
+            assertEquals(before, chip8.snapshot());
+            assertNotEquals(before, childBefore);
+            assertEquals(childBefore, child.snapshot());
+        }
+
+        @Test
+        @DisplayName("Should only copy the memory pages a fork writes to")
+        void forkCopiesPagesOnWrite() {
+            Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            chip8.loadROM(brix);
+
+            Chip8VM child = chip8.fork();
+            child.runFrames(60);
+
+            int pages = chip8.getMemory().size() / Memory.PAGE_SIZE;
+            assertTrue(child.getMemory().ownedPages() < pages / 2,
+                    child.getMemory().ownedPages() + " of " + pages + " pages copied");
+        }
+    }
+
+    @Nested
+    @DisplayName("State hashes")
+    class StateHashes {
+
+        private final Path brix = Path.of("src/main/resources/ROMS/BRIX");
+
+        @ParameterizedTest
+        @EnumSource(ExecutionEngine.class)
+        @DisplayName("Should keep the state hash equal to a full recompute while running")
+        void stateHashMatchesRecompute(ExecutionEngine engine) {
+            Chip8VM chip8 = Chip8VM.headlessBuild(engine);
+            chip8.getCpu().setRandomSeed(2);
+            chip8.loadROM(brix);
+
+            for (int frame = 0; frame < 300; frame++) {
+                chip8.getKeypad().setKeyMask(frame % 40 < 8 ? 1 << 6 : 0);
+                chip8.runFrames(1);
+                assertEquals(chip8.computeStateHash(), chip8.stateHash(), "frame " + frame);
+            }
+        }
+
+        @Test
+        @DisplayName("Should give states the same hash exactly when their registers, memory, and screen are the same")
+        void stateHashIdentifiesStates() {
+            Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            chip8.getCpu().setRandomSeed(4);
+            chip8.loadROM(brix);
+            Map<Long, ByteBuffer> states = new HashMap<>();
+
+            for (int frame = 0; frame < 600; frame++) {
+                chip8.runFrames(1);
+                ByteBuffer state = hashedState(chip8);
+                ByteBuffer seen = states.putIfAbsent(chip8.stateHash(), state);
+                assertTrue(seen == null || seen.equals(state), "hash collision at frame " + frame);
+            }
+            assertTrue(states.size() > 100, states.size() + " distinct states");
+        }
+
+        @Test
+        @DisplayName("Should give a restored or forked machine the hash of the original")
+        void stateHashFollowsRestoreAndFork() {
+            Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            chip8.loadROM(brix);
+            chip8.runFrames(120);
+            long hash = chip8.stateHash();
+            ByteBuffer snapshot = chip8.snapshot();
+
+            Chip8VM child = chip8.fork();
+            chip8.runFrames(60);
+            Chip8VM restored = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            restored.restore(snapshot);
+
+            assertNotEquals(hash, chip8.stateHash());
+            assertEquals(hash, child.stateHash());
+            assertEquals(hash, restored.stateHash());
+        }
+
+        /**
+         * @return the parts of a snapshot that the state hash covers
+         */
+        private ByteBuffer hashedState(Chip8VM chip8) {
+            CPU cpu = chip8.getCpu();
+            ByteBuffer state = ByteBuffer.allocate(chip8.snapshotSize());
+            for (int v : cpu.getVRegister()) {
+                state.putInt(v);
+            }
+            for (int address : cpu.getStack()) {
+                state.putInt(address);
+            }
+            state.putInt(cpu.getIRegister())
+                    .putInt(cpu.getPc())
+                    .putInt(cpu.getSp())
+                    .putInt(cpu.getDelayTimer())
+                    .putInt(cpu.getSoundTimer());
+            for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+                state.putLong(chip8.getFrameBuffer().getRow(y));
+            }
+            chip8.getMemory().saveState(state);
+            return state.flip();
+        }
+    }
+}
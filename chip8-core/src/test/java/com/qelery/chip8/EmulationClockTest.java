@@ -0,0 +1,98 @@
+package com.qelery.chip8;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmulationClockTest {
+
+    private static final long ONE_SECOND_NANO_SEC = 1_000_000_000L;
+
+    EmulationClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new EmulationClock(500, 60, ONE_SECOND_NANO_SEC);
+    }
+
+    @Test
+    @DisplayName("Should owe a second's worth of cycles and timer ticks for each second elapsed")
+    void advance_oneSecond() {
+        clock.advance(ONE_SECOND_NANO_SEC);
+
+        assertEquals(500, clock.takeCycles());
+        assertEquals(60, clock.takeTimerTicks());
+    }
+
+    @Test
+    @DisplayName("Should carry fractions of cycles and ticks over to later calls")
+    void advance_accumulatesFractions() {
+        int cycles = 0;
+        int ticks = 0;
+        // A 144Hz display: 6944444ns per refresh
+        for (int refresh = 0; refresh < 144; refresh++) {
+            clock.advance(ONE_SECOND_NANO_SEC / 144);
+            cycles += clock.takeCycles();
+            ticks += clock.takeTimerTicks();
+        }
+
+        assertEquals(500, cycles, 1);
+        assertEquals(60, ticks, 1);
+    }
+
+    @Test
+    @DisplayName("Should not owe anything twice")
+    void take_clearsOwedTime() {
+        clock.advance(ONE_SECOND_NANO_SEC);
+        clock.takeCycles();
+        clock.takeTimerTicks();
+
+        assertEquals(0, clock.takeCycles());
+        assertEquals(0, clock.takeTimerTicks());
+    }
+
+    @Test
+    @DisplayName("Should only credit up to the catch-up cap after a stall")
+    void advance_capsCatchUp() {
+        clock.advance(10 * ONE_SECOND_NANO_SEC);
+
+        assertEquals(500, clock.takeCycles());
+        assertEquals(60, clock.takeTimerTicks());
+    }
+
+    @Test
+    @DisplayName("Should scale owed time by the speed multiplier")
+    void advance_scalesBySpeed() {
+        clock.setSpeed(0.25);
+        clock.advance(ONE_SECOND_NANO_SEC);
+        assertEquals(125, clock.takeCycles());
+        assertEquals(15, clock.takeTimerTicks());
+
+        clock.setSpeed(4);
+        clock.advance(ONE_SECOND_NANO_SEC / 4);
+        assertEquals(500, clock.takeCycles());
+        assertEquals(60, clock.takeTimerTicks());
+    }
+
+    @Test
+    @DisplayName("Should owe one timer tick's worth per call at unlimited speed")
+    void advance_unlimited() {
+        clock.setSpeed(EmulationClock.UNLIMITED_SPEED);
+
+        clock.advance(0);
+
+        assertTrue(clock.isUnlimited());
+        assertEquals(8, clock.takeCycles());
+        assertEquals(1, clock.takeTimerTicks());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException for speeds below the minimum")
+    void setSpeed_tooSlow() {
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(0.1));
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(Double.NaN));
+        assertEquals(1.0, clock.getSpeed());
+    }
+}
@@ -0,0 +1,205 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmulationLoopTest {
+
+    private static final long TIMEOUT_NANO_SEC = 5_000_000_000L;
+
+    Chip8VM chip8;
+    EmulationLoop emulationLoop;
+
+    @BeforeEach
+    void setUp() {
+        chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        emulationLoop = new EmulationLoop(chip8);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        emulationLoop.stop();
+    }
+
+    @Test
+    @DisplayName("Should publish a frame once the program draws")
+    void publishesDrawnFrame() {
+        int[] program = {
+                0xF0, 0x29, // I = font sprite for V0 (0)
+                0xD0, 0x05, // draw 5 byte sprite at (V0, V0)
+                0x12, 0x04  // jump to self
+        };
+        chip8.getMemory().loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+        emulationLoop.start();
+        long[] frame = awaitFrame();
+
+        assertEquals(0xF0L << 56, frame[0]);
+        assertEquals(0x90L << 56, frame[1]);
+    }
+
+    @Test
+    @DisplayName("Should deliver posted key events to the program")
+    void deliversPostedKeys() {
+        int[] program = {
+                0xF1, 0x0A, // wait for key, store in V1
+                0xF1, 0x29, // I = font sprite for V1
+                0xD0, 0x05, // draw 5 byte sprite at (V0, V0)
+                0x12, 0x06  // jump to self
+        };
+        chip8.getMemory().loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+        emulationLoop.start();
+        chip8.getKeypad().postKeyDown(0x7);
+        long[] frame = awaitFrame();
+
+        // Second row of the font sprite for 7
+        assertEquals(0x10L << 56, frame[1]);
+    }
+
+    @Test
+    @DisplayName("Should pause and step back when asked, and carry on after resuming")
+    void stepBackAndResume() {
+        int[] program = {
+                0x6A, 0xFF, // V[A] = 0xFF
+                0xFA, 0x15, // delay timer = V[A]
+                0xF1, 0x07, // V1 = delay timer
+                0x51, 0x20, // skip next instruction if V1 == V2, the delay last drawn
+                0x12, 0x0C, // jump to redraw
+                0x12, 0x04, // jump back to read the delay timer
+                0x80, 0x10, // V0 = V1
+                0x80, 0x23, // V0 ^= V2
+                0x82, 0x10, // V2 = V1
+                0xA3, 0x00, // I = 0x300
+                0xF0, 0x55, // memory[I] = V0
+                0xD3, 0x31, // draw 1 byte sprite at (V3, V3), turning the old delay into the new one
+                0x12, 0x04  // jump back to read the delay timer
+        };
+        chip8.getMemory().loadData(program, Memory.READ_WRITE_START_LOCATION);
+        emulationLoop.setRewindBuffer(new RewindBuffer(chip8, 10, 1));
+
+        emulationLoop.start();
+        // Two timer ticks have been captured to step back through
+        int drawn = awaitDrawnDelay(delay -> delay <= 0xFD);
+
+        // The delay counts down until the step back, which puts it up again
+        emulationLoop.stepBack();
+        int previous;
+        do {
+            previous = drawn;
+            drawn = drawnDelay(awaitFrame());
+        } while (drawn <= previous);
+
+        // Nothing runs while paused, so the machine is safe to read
+        assertTrue(emulationLoop.isPaused());
+        int pausedDelay = chip8.getCpu().getDelayTimer();
+
+        emulationLoop.resume();
+        awaitDrawnDelay(delay -> delay < pausedDelay);
+    }
+
+    @Test
+    @DisplayName("Should not capture rewind history at unlimited speed")
+    void noRewindAtUnlimitedSpeed() throws InterruptedException {
+        int[] program = {
+                0xF0, 0x29, // I = font sprite for V0 (0)
+                0xD0, 0x05, // draw 5 byte sprite at (V0, V0)
+                0x12, 0x04  // jump to self
+        };
+        chip8.getMemory().loadData(program, Memory.READ_WRITE_START_LOCATION);
+        RewindBuffer rewindBuffer = new RewindBuffer(chip8, 10, 1);
+        emulationLoop.setRewindBuffer(rewindBuffer);
+        emulationLoop.setSpeed(EmulationClock.UNLIMITED_SPEED);
+
+        emulationLoop.start();
+        awaitFrame();
+        emulationLoop.stop();
+
+        assertEquals(0, rewindBuffer.frames());
+    }
+
+    @Test
+    @DisplayName("Should record a movie that replays to the same screen")
+    void recordsMovie(@TempDir Path directory) throws IOException, InterruptedException {
+        int[] program = {
+                0x00, 0xE0, // clear the screen
+                0xC2, 0x3F, // V2 = random & 0x3F
+                0xF1, 0x0A, // wait for key, store in V1
+                0xF1, 0x29, // I = font sprite for V1
+                0xD2, 0x25, // draw 5 byte sprite at (V2, V2)
+                0xA3, 0x00, // I = 0x300, an empty byte
+                0x63, 0x01, // V3 = 1
+                0xF3, 0x15, // delay timer = V3
+                0xF3, 0x07, // V3 = delay timer
+                0x33, 0x00, // skip next instruction if V3 == 0
+                0x12, 0x10, // jump back to read the delay timer
+                0xD0, 0x01, // draw the empty byte, publishing an unchanged frame after each timer tick
+                0x12, 0x0C  // jump back to set the delay timer
+        };
+        chip8.getMemory().loadData(program, Memory.READ_WRITE_START_LOCATION);
+        Path moviePath = directory.resolve("loop.c8m");
+        MovieRecorder recorder = new MovieRecorder(chip8, moviePath);
+        emulationLoop.setMovieRecorder(recorder);
+
+        emulationLoop.start();
+        // Cleared, and waiting for a key
+        awaitFrame();
+        chip8.getKeypad().postKeyDown(0x7);
+        // The sprite is drawn, and then a frame after a timer tick that recorded it
+        awaitFrame();
+        awaitFrame();
+        emulationLoop.stop();
+        recorder.close();
+
+        Chip8VM replay = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        MoviePlayer player = new MoviePlayer(moviePath, replay);
+        assertEquals(recorder.frames(), player.playToEnd());
+        long[] recorded = new long[32];
+        long[] replayed = new long[32];
+        chip8.getFrameBuffer().copyRowsTo(recorded);
+        replay.getFrameBuffer().copyRowsTo(replayed);
+        assertArrayEquals(recorded, replayed);
+    }
+
+    private long[] awaitFrame() {
+        long deadline = System.nanoTime() + TIMEOUT_NANO_SEC;
+        long[] frame;
+        while ((frame = emulationLoop.takeLatestFrame()) == null) {
+            assertTrue(System.nanoTime() < deadline, "No frame was published");
+            Thread.onSpinWait();
+        }
+        return frame;
+    }
+
+    /**
+     * Waits for a frame showing a delay that matches the condition.
+     *
+     * @return the delay drawn in that frame
+     */
+    private int awaitDrawnDelay(IntPredicate condition) {
+        int delay;
+        do {
+            delay = drawnDelay(awaitFrame());
+        } while (!condition.test(delay));
+        return delay;
+    }
+
+    /**
+     * @return the delay timer drawn by the step back program, in the
+     * top left byte of the screen
+     */
+    private static int drawnDelay(long[] frame) {
+        return (int) (frame[0] >>> 56);
+    }
+}
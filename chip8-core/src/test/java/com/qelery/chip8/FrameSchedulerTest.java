@@ -0,0 +1,69 @@
+package com.qelery.chip8;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameSchedulerTest {
+
+    private static final long FRAME_DURATION_NANO_SEC = 2_000_000;
+
+    @Test
+    @DisplayName("Should not start a frame before it is due")
+    void awaitNextFrame_waitsForFrameDuration() {
+        FrameScheduler scheduler = new FrameScheduler(FRAME_DURATION_NANO_SEC);
+        int frames = 20;
+
+        long start = System.nanoTime();
+        scheduler.reset();
+        for (int i = 0; i < frames; i++) {
+            scheduler.awaitNextFrame();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed >= frames * FRAME_DURATION_NANO_SEC);
+    }
+
+    @Test
+    @DisplayName("Should report frame start error percentiles")
+    void getJitter() {
+        FrameScheduler scheduler = new FrameScheduler(FRAME_DURATION_NANO_SEC);
+        int frames = 20;
+
+        for (int i = 0; i < frames; i++) {
+            scheduler.awaitNextFrame();
+        }
+        FrameScheduler.Jitter jitter = scheduler.getJitter();
+
+        assertEquals(frames, jitter.samples());
+        assertTrue(jitter.p50NanoSec() >= 0);
+        assertTrue(jitter.p50NanoSec() <= jitter.p99NanoSec());
+        assertTrue(jitter.p99NanoSec() <= jitter.maxNanoSec());
+    }
+
+    @Test
+    @DisplayName("Should report no jitter before any frame has been scheduled")
+    void getJitter_noFrames() {
+        FrameScheduler scheduler = new FrameScheduler(FRAME_DURATION_NANO_SEC);
+
+        assertEquals(new FrameScheduler.Jitter(0, 0, 0, 0), scheduler.getJitter());
+    }
+
+    @Test
+    @DisplayName("Should restart the schedule rather than burst frames after falling behind")
+    void awaitNextFrame_resynchronizesAfterFallingBehind() {
+        FrameScheduler scheduler = new FrameScheduler(FRAME_DURATION_NANO_SEC);
+        scheduler.reset();
+        LockSupport.parkNanos(10 * FRAME_DURATION_NANO_SEC);
+        scheduler.awaitNextFrame();
+
+        long start = System.nanoTime();
+        scheduler.awaitNextFrame();
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed >= FRAME_DURATION_NANO_SEC / 2);
+    }
+}
@@ -0,0 +1,149 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.CosmacVipTimingModel;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.TimingModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoviePlayerTest {
+
+    private static final Path BRIX = Path.of("src/main/resources/ROMS/BRIX");
+    private static final int FRAMES = 600;
+    private static final int KEYFRAME_INTERVAL = 50;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(ExecutionEngine.class)
+    @DisplayName("Should end every frame of a replay in the same state as the recording")
+    void replaysExactly(ExecutionEngine engine) throws IOException {
+        Path moviePath = directory.resolve("brix.c8m");
+        List<byte[]> recordedStates = record(moviePath, 7);
+
+        Chip8VM replay = Chip8VM.headlessBuild(engine);
+        MoviePlayer player = new MoviePlayer(moviePath, replay);
+        assertEquals(FRAMES, player.frames());
+        assertEquals(7, player.getSeed());
+        for (int i = 1; i <= FRAMES; i++) {
+            assertTrue(player.playFrame());
+            assertArrayEquals(recordedStates.get(i), replay.snapshot().array(), "frame " + i);
+        }
+        assertFalse(player.playFrame());
+    }
+
+    @Test
+    @DisplayName("Should play every frame to the end of the movie")
+    void playsToEnd() throws IOException {
+        Path moviePath = directory.resolve("brix.c8m");
+        List<byte[]> recordedStates = record(moviePath, 3);
+
+        Chip8VM replay = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        MoviePlayer player = new MoviePlayer(moviePath, replay);
+        assertEquals(FRAMES, player.playToEnd());
+        assertEquals(FRAMES, player.frame());
+        assertArrayEquals(recordedStates.get(FRAMES), replay.snapshot().array());
+    }
+
+    @Test
+    @DisplayName("Should seek forwards and backwards to the state after any frame")
+    void seeks() throws IOException {
+        Path moviePath = directory.resolve("brix.c8m");
+        List<byte[]> recordedStates = record(moviePath, 11);
+
+        Chip8VM replay = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        MoviePlayer player = new MoviePlayer(moviePath, replay);
+        assertEquals(FRAMES / KEYFRAME_INTERVAL + 1, player.keyframes());
+        assertArrayEquals(recordedStates.get(0), replay.snapshot().array());
+        Random random = new Random(11);
+        for (int i = 0; i < 100; i++) {
+            int target = random.nextInt(FRAMES + 1);
+            player.seek(target);
+            assertEquals(target, player.frame());
+            assertArrayEquals(recordedStates.get(target), replay.snapshot().array(), "frame " + target);
+        }
+        player.seek(FRAMES - 3);
+        assertEquals(3, player.playToEnd());
+        assertArrayEquals(recordedStates.get(FRAMES), replay.snapshot().array());
+        assertThrows(IllegalArgumentException.class, () -> player.seek(FRAMES + 1));
+    }
+
+    @Test
+    @DisplayName("Should play a movie whose recording was cut short, up to its last whole frame")
+    void playsUnfinishedMovie() throws IOException {
+        Path moviePath = directory.resolve("brix.c8m");
+        List<byte[]> recordedStates = record(moviePath, 5);
+        int frames = 3 * KEYFRAME_INTERVAL + 10;
+        int snapshotSize = Chip8VM.headlessBuild(ExecutionEngine.SWITCH).snapshotSize();
+        int romLength = ByteBuffer.wrap(Files.readAllBytes(moviePath)).getShort(26);
+        long cutAt = MovieRecorder.headerSize(romLength) + 4L * snapshotSize + (long) frames * MovieRecorder.FRAME_SIZE + 1;
+        try (FileChannel channel = FileChannel.open(moviePath, StandardOpenOption.WRITE)) {
+            channel.truncate(cutAt);
+        }
+
+        Chip8VM replay = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        MoviePlayer player = new MoviePlayer(moviePath, replay);
+        assertEquals(frames, player.frames());
+        player.seek(frames);
+        assertArrayEquals(recordedStates.get(frames), replay.snapshot().array());
+    }
+
+    @Test
+    @DisplayName("Should refuse a movie recorded at a different clock speed")
+    void rejectsDifferentClockSpeed() throws IOException {
+        Path moviePath = directory.resolve("brix.c8m");
+        record(moviePath, 0);
+
+        Chip8VM vip = Chip8VM.headlessBuild(ExecutionEngine.SWITCH, new CosmacVipTimingModel());
+        assertThrows(IllegalArgumentException.class, () -> new MoviePlayer(moviePath, vip));
+    }
+
+    @Test
+    @DisplayName("Should refuse a file that is not a movie")
+    void rejectsOtherFiles() {
+        Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        assertThrows(IllegalArgumentException.class, () -> new MoviePlayer(BRIX, chip8));
+    }
+
+    /**
+     * Records random key presses on BRIX, running a varying number of
+     * cycles each frame like a real-time loop does.
+     *
+     * @return the snapshot at the start and at the end of every frame
+     */
+    private List<byte[]> record(Path moviePath, long seed) throws IOException {
+        Chip8VM chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH, TimingModel.FLAT);
+        chip8.loadROM(Files.readAllBytes(BRIX));
+        Random random = new Random(seed);
+        List<byte[]> states = new ArrayList<>();
+        try (MovieRecorder recorder = new MovieRecorder(chip8, moviePath, seed, KEYFRAME_INTERVAL)) {
+            states.add(chip8.snapshot().array());
+            for (int i = 0; i < FRAMES; i++) {
+                int keyMask = random.nextInt(8) == 0 ? 1 << random.nextInt(16) : 0;
+                int cycles = 7 + random.nextInt(3);
+                chip8.getKeypad().setKeyMask(keyMask);
+                chip8.getCpu().emulateCycles(cycles);
+                chip8.getCpu().tickClocks();
+                recorder.recordFrame(keyMask, cycles);
+                states.add(chip8.snapshot().array());
+            }
+        }
+        return states;
+    }
+}
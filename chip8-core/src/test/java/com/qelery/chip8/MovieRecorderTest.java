@@ -0,0 +1,154 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.Memory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieRecorderTest {
+
+    private static final int[] PROGRAM = {0x60, 0x05, 0x12, 0x02};
+    private static final int HEADER_SIZE = MovieRecorder.headerSize(PROGRAM.length);
+
+    @TempDir
+    Path directory;
+
+    Chip8VM chip8;
+    Path moviePath;
+    int snapshotSize;
+
+    @BeforeEach
+    void setUp() {
+        chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        chip8.getMemory().loadData(PROGRAM, Memory.READ_WRITE_START_LOCATION);
+        moviePath = directory.resolve("test.c8m");
+        snapshotSize = chip8.snapshotSize();
+    }
+
+    @Test
+    @DisplayName("Should write the header, a keyframe, the frames, and the keyframe index")
+    void writesHeaderFramesAndIndex() throws IOException {
+        byte[] initialState = snapshotAfterSeeding(1234);
+        try (MovieRecorder recorder = new MovieRecorder(chip8, moviePath, 1234, 100)) {
+            recorder.recordFrame(0x8001, 8);
+            recorder.recordFrame(0x0000, 9);
+        }
+
+        ByteBuffer movie = ByteBuffer.wrap(Files.readAllBytes(moviePath));
+        assertEquals(HEADER_SIZE + snapshotSize + 2 * MovieRecorder.FRAME_SIZE
+                + MovieRecorder.INDEX_ENTRY_SIZE + MovieRecorder.TRAILER_SIZE, movie.remaining());
+        assertEquals(MovieRecorder.MOVIE_MAGIC, movie.getInt());
+        assertEquals(MovieRecorder.MOVIE_VERSION, movie.getShort());
+        assertEquals(chip8.getCpu().getClockSpeed(), movie.getInt());
+        assertEquals(1234, movie.getLong());
+        assertEquals(100, movie.getInt());
+        assertEquals(snapshotSize, movie.getInt());
+        assertEquals(PROGRAM.length, movie.getShort());
+        for (int b : PROGRAM) {
+            assertEquals(b, movie.get() & 0xFF);
+        }
+        byte[] keyframe = new byte[snapshotSize];
+        movie.get(keyframe);
+        assertArrayEquals(initialState, keyframe);
+        assertEquals(0x8001, movie.getShort() & 0xFFFF);
+        assertEquals(8, movie.getShort());
+        assertEquals(0x0000, movie.getShort());
+        assertEquals(9, movie.getShort());
+        int indexOffset = movie.position();
+        assertEquals(0, movie.getLong());
+        assertEquals(HEADER_SIZE, movie.getLong());
+        assertEquals(2, movie.getLong());
+        assertEquals(1, movie.getInt());
+        assertEquals(indexOffset, movie.getLong());
+        assertEquals(MovieRecorder.INDEX_MAGIC, movie.getInt());
+    }
+
+    @Test
+    @DisplayName("Should write a keyframe after every interval of frames, including ones beyond the buffer")
+    void writesKeyframesAtInterval() throws IOException {
+        int frames = 50_000;
+        int interval = 1000;
+        try (MovieRecorder recorder = new MovieRecorder(chip8, moviePath, 0, interval)) {
+            for (int i = 0; i < frames; i++) {
+                recorder.recordFrame(i & 0xFFFF, i % 10);
+            }
+        }
+
+        ByteBuffer movie = ByteBuffer.wrap(Files.readAllBytes(moviePath));
+        movie.position(HEADER_SIZE);
+        for (int i = 0; i < frames; i++) {
+            if (i % interval == 0) {
+                assertEquals(Chip8VM.SNAPSHOT_MAGIC, movie.getInt(movie.position()), "keyframe before frame " + i);
+                movie.position(movie.position() + snapshotSize);
+            }
+            assertEquals(i, movie.getShort() & 0xFFFF);
+            assertEquals(i % 10, movie.getShort());
+        }
+        int keyframes = frames / interval + 1;
+        assertEquals(Chip8VM.SNAPSHOT_MAGIC, movie.getInt(movie.position()));
+        movie.position(movie.position() + snapshotSize);
+        assertEquals(keyframes * MovieRecorder.INDEX_ENTRY_SIZE + MovieRecorder.TRAILER_SIZE, movie.remaining());
+        for (int i = 0; i < keyframes; i++) {
+            assertEquals((long) i * interval, movie.getLong());
+            assertEquals(HEADER_SIZE + (long) i * (snapshotSize + interval * MovieRecorder.FRAME_SIZE),
+                    movie.getLong());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop frames from the end, whether or not they were written out yet")
+    void dropsFrames() throws IOException {
+        try (MovieRecorder recorder = new MovieRecorder(chip8, moviePath, 0, 1000)) {
+            for (int i = 0; i < 30_000; i++) {
+                recorder.recordFrame(1, 1);
+            }
+            recorder.dropFrames(10);
+            assertEquals(29_990, recorder.frames());
+            recorder.dropFrames(20_000);
+            recorder.recordFrame(2, 2);
+            assertEquals(9991, recorder.frames());
+        }
+
+        ByteBuffer movie = ByteBuffer.wrap(Files.readAllBytes(moviePath));
+        int keyframes = 10;
+        int indexOffset = HEADER_SIZE + keyframes * snapshotSize + 9991 * MovieRecorder.FRAME_SIZE;
+        assertEquals(indexOffset + keyframes * MovieRecorder.INDEX_ENTRY_SIZE + MovieRecorder.TRAILER_SIZE,
+                movie.remaining());
+        assertEquals(2, movie.getShort(indexOffset - MovieRecorder.FRAME_SIZE));
+        assertEquals(9991, movie.getLong(movie.limit() - MovieRecorder.TRAILER_SIZE));
+    }
+
+    @Test
+    @DisplayName("Should seed the machine's random number generator with the movie's seed")
+    void seedsMachine() throws IOException {
+        byte[] expected = snapshotAfterSeeding(99);
+        new MovieRecorder(chip8, moviePath, 99).close();
+
+        assertArrayEquals(expected, chip8.snapshot().array());
+    }
+
+    @Test
+    @DisplayName("Should refuse a frame with more cycles than a record holds")
+    void rejectsTooManyCycles() throws IOException {
+        try (MovieRecorder recorder = new MovieRecorder(chip8, moviePath, 0)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> recorder.recordFrame(0, MovieRecorder.MAX_FRAME_CYCLES + 1));
+        }
+    }
+
+    private byte[] snapshotAfterSeeding(long seed) {
+        Chip8VM other = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        other.getMemory().loadData(PROGRAM, Memory.READ_WRITE_START_LOCATION);
+        other.getCpu().setRandomSeed(seed);
+        return other.snapshot().array();
+    }
+}
@@ -102,6 +102,17 @@ class ROMLoaderTest {
         assertBytesWrittenToMemoryAsString(bytesToRead, rom1BytesAsString);
     }
 
+    @Test
+    @DisplayName("Should load the rom at a path without prompting")
+    void loadRom() {
+        romLoader.loadRom(Paths.get("src/test/resources/ROMS/TESTROM2"));
+
+        String rom2BytesAsString = "THIS IS TEST DATA INSIDE TESTROM2";
+        int bytesToRead = 50;
+        assertBytesWrittenToMemoryAsString(bytesToRead, rom2BytesAsString);
+        assertEquals(rom2, romLoader.getLoadedRom());
+    }
+
     @Test
     @DisplayName("Should print loaded rom instructions to system out")
     void printLoadedRomInstructions() {
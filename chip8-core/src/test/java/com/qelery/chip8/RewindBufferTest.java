@@ -0,0 +1,150 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewindBufferTest {
+
+    private Chip8VM chip8;
+
+    @BeforeEach
+    void setUp() {
+        chip8 = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+        chip8.getCpu().setRandomSeed(1);
+        chip8.loadROM(Path.of("src/main/resources/ROMS/BRIX"));
+    }
+
+    @Test
+    @DisplayName("Should step back through every captured frame, across states and keyframes")
+    void stepBackRestoresEachFrame() {
+        RewindBuffer rewind = new RewindBuffer(chip8, 100, 1024 * 1024, 3, 4 * chip8.getCyclesPerFrame());
+        List<ByteBuffer> snapshots = runAndCapture(rewind, 35);
+
+        for (int frame = snapshots.size() - 2; frame >= 0; frame--) {
+            assertTrue(rewind.stepBack());
+            assertEquals(snapshots.get(frame), chip8.snapshot(), "frame " + frame);
+        }
+        assertFalse(rewind.stepBack());
+        assertEquals(1, rewind.frames());
+    }
+
+    @Test
+    @DisplayName("Should record a new branch of history after stepping back")
+    void captureAfterStepBack() {
+        RewindBuffer rewind = new RewindBuffer(chip8, 100, 1024 * 1024, 3, 4 * chip8.getCyclesPerFrame());
+        runAndCapture(rewind, 25);
+        for (int i = 0; i < 8; i++) {
+            rewind.stepBack();
+        }
+
+        chip8.getKeypad().keyDown(0x6);
+        List<ByteBuffer> branch = runAndCapture(rewind, 12);
+
+        for (int frame = branch.size() - 2; frame >= 0; frame--) {
+            assertTrue(rewind.stepBack());
+            assertEquals(branch.get(frame), chip8.snapshot(), "frame " + frame);
+        }
+        assertEquals(25 - 8 + 1, rewind.frames());
+    }
+
+    @Test
+    @DisplayName("Should store states between keyframes in much less than a snapshot")
+    void deltasAreSmall() {
+        RewindBuffer rewind = new RewindBuffer(chip8, 1000, 1024 * 1024, 60, chip8.getCyclesPerFrame());
+
+        runAndCapture(rewind, 60);
+
+        assertEquals(60, rewind.states());
+        assertTrue(rewind.usedBytes() < chip8.snapshotSize() * 3,
+                "60 frames took " + rewind.usedBytes() + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should only store a state once the given number of cycles have run")
+    void capturesStatesEveryStateCycles() {
+        RewindBuffer rewind = new RewindBuffer(chip8, 1000, 1024 * 1024, 16, 10 * chip8.getCyclesPerFrame());
+
+        runAndCapture(rewind, 100);
+
+        assertEquals(100, rewind.frames());
+        assertEquals(10, rewind.states());
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest frames to stay within its byte limit")
+    void staysWithinByteLimit() {
+        int capacity = chip8.snapshotSize() * 3 + 18_000;
+        RewindBuffer rewind = new RewindBuffer(chip8, 1000, capacity, 20, chip8.getCyclesPerFrame());
+
+        List<ByteBuffer> snapshots = runAndCapture(rewind, 300);
+
+        assertEquals(capacity, rewind.capacityBytes());
+        assertTrue(rewind.usedBytes() <= capacity);
+        assertTrue(rewind.frames() < 300);
+        int held = rewind.frames();
+        for (int i = 2; i <= held; i++) {
+            assertTrue(rewind.stepBack());
+            assertEquals(snapshots.get(snapshots.size() - i), chip8.snapshot());
+        }
+        assertFalse(rewind.stepBack());
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest frames once it holds more than its frame limit")
+    void staysWithinFrameLimit() {
+        RewindBuffer rewind = new RewindBuffer(chip8, 50, 1024 * 1024, 4, 3 * chip8.getCyclesPerFrame());
+
+        runAndCapture(rewind, 200);
+
+        assertTrue(rewind.frames() >= 50);
+        assertTrue(rewind.frames() < 150);
+    }
+
+    @Test
+    @DisplayName("Should refuse a byte limit too small for two snapshots")
+    void rejectsTinyLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(chip8, 100, 1000, 10, 1));
+    }
+
+    @Test
+    @DisplayName("Should turn a delta back into the previous bytes when applied twice")
+    void deltaRoundTrip() {
+        Random random = new Random(5);
+        byte[] previous = new byte[4096];
+        random.nextBytes(previous);
+        byte[] current = previous.clone();
+        for (int i = 0; i < 40; i++) {
+            current[random.nextInt(current.length)] ^= (byte) (1 + random.nextInt(255));
+        }
+        byte[] delta = new byte[current.length];
+
+        int length = RewindBuffer.encodeDelta(current, previous, delta);
+        byte[] applied = previous.clone();
+        RewindBuffer.applyDelta(delta, 0, length, applied);
+
+        assertTrue(length > 0 && length < 40 * 5);
+        assertArrayEquals(current, applied);
+        RewindBuffer.applyDelta(delta, 0, length, applied);
+        assertArrayEquals(previous, applied);
+    }
+
+    private List<ByteBuffer> runAndCapture(RewindBuffer rewind, int frames) {
+        List<ByteBuffer> snapshots = new ArrayList<>();
+        for (int frame = 0; frame < frames; frame++) {
+            chip8.runFrames(1);
+            rewind.capture(chip8.getKeypad().getKeyMask(), chip8.getCyclesPerFrame());
+            snapshots.add(chip8.snapshot());
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,99 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.TimingModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VMFarmTest {
+
+    private static final Path PONG = Path.of("src/main/resources/ROMS/PONG");
+    private static final Path BRIX = Path.of("src/main/resources/ROMS/BRIX");
+
+    private VMFarm farm;
+
+    @BeforeEach
+    void setUp() {
+        farm = new VMFarm(3, ExecutionEngine.SWITCH, TimingModel.FLAT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        farm.close();
+    }
+
+    @Test
+    @DisplayName("Should return one result per ROM in the order the ROMs were given")
+    void resultsInRomOrder() {
+        List<Path> roms = List.of(PONG, BRIX, BRIX, PONG, BRIX);
+
+        VMFarm.Report report = farm.run(roms, 30);
+
+        assertEquals(roms, report.results().stream().map(VMFarm.Result::rom).toList());
+        assertEquals(5 * 30, report.frames());
+        for (VMFarm.Result result : report.results()) {
+            assertEquals(30L * result.chip8().getCyclesPerFrame(), result.cycles());
+        }
+        assertEquals(5 * 30 * 8, report.cycles());
+        assertTrue(report.framesPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Should leave each machine as a seeded run on its own would")
+    void matchesSequentialRuns() throws Exception {
+        List<Path> roms = List.of(PONG, BRIX, PONG, BRIX);
+
+        VMFarm.Report report = farm.run(roms, 120);
+
+        for (int i = 0; i < roms.size(); i++) {
+            Chip8VM expected = Chip8VM.headlessBuild(ExecutionEngine.SWITCH);
+            expected.getCpu().setRandomSeed(i);
+            expected.loadROM(Files.readAllBytes(roms.get(i)));
+            expected.runFrames(120);
+
+            Chip8VM actual = report.results().get(i).chip8();
+            assertEquals(expected.getCpu().getPc(), actual.getCpu().getPc());
+            assertArrayEquals(expected.getCpu().getVRegister(), actual.getCpu().getVRegister());
+            for (int address = 0; address < Memory.DEFAULT_SIZE; address++) {
+                assertEquals(expected.getMemory().readByte(address), actual.getMemory().readByte(address));
+            }
+            for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+                assertEquals(expected.getFrameBuffer().getRow(y), actual.getFrameBuffer().getRow(y));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should run nothing when given no ROMs")
+    void noRoms() {
+        VMFarm.Report report = farm.run(List.of(), 60);
+
+        assertEquals(List.of(), report.results());
+        assertEquals(0, report.frames());
+    }
+
+    @Test
+    @DisplayName("Should throw if a ROM cannot be read")
+    void missingRom() {
+        List<Path> roms = List.of(PONG, Path.of("src/main/resources/ROMS/MISSING"));
+
+        assertThrows(UncheckedIOException.class, () -> farm.run(roms, 60));
+    }
+
+    @Test
+    @DisplayName("Should use the requested number of threads")
+    void parallelism() {
+        assertEquals(3, farm.getParallelism());
+    }
+}
@@ -0,0 +1,119 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.Memory;
+import com.qelery.chip8.components.TimingModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorEnvTest {
+
+    private static final Path PONG = Path.of("src/main/resources/ROMS/PONG");
+
+    @Test
+    @DisplayName("Should write each machine's screen and reward after a step")
+    void stepFillsObservationsAndRewards() {
+        try (VectorEnv env = new VectorEnv(PONG, 4, 1, ExecutionEngine.SWITCH, TimingModel.FLAT,
+                chip8 -> chip8.getCpu().getPc())) {
+            for (int frame = 0; frame < 30; frame++) {
+                env.step(new int[]{0, 0x2, 0x10, 0x12});
+            }
+
+            for (int i = 0; i < env.size(); i++) {
+                Chip8VM chip8 = env.getMachine(i);
+                long[] expected = new long[FrameBuffer.HEIGHT_IN_PIXELS];
+                chip8.getFrameBuffer().copyRowsTo(expected);
+                assertArrayEquals(expected, env.getObservations()[i]);
+                assertEquals(chip8.getCpu().getPc(), env.getRewards()[i]);
+            }
+            assertNotEquals(0, env.getObservations()[0][0] | env.getObservations()[0][15]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold down the keys in each machine's action")
+    void stepAppliesActions() {
+        try (VectorEnv env = new VectorEnv(PONG, 2)) {
+            env.step(new int[]{0x2, 0x8010});
+
+            assertEquals(0x2, env.getMachine(0).getKeypad().getKeyMask());
+            assertEquals(0x8010, env.getMachine(1).getKeypad().getKeyMask());
+        }
+    }
+
+    @Test
+    @DisplayName("Should give the same observations no matter how many threads step it")
+    void threadsDoNotChangeResults() {
+        int[] actions = {0x2, 0x10, 0, 0x12, 0x2, 0x10, 0};
+        try (VectorEnv single = new VectorEnv(PONG, 7);
+             VectorEnv threaded = new VectorEnv(PONG, 7, 3, ExecutionEngine.SWITCH, TimingModel.FLAT,
+                     VectorEnv.RewardFunction.NONE)) {
+            assertEquals(3, threaded.getThreads());
+            for (int frame = 0; frame < 120; frame++) {
+                single.step(actions);
+                threaded.step(actions);
+            }
+
+            for (int i = 0; i < 7; i++) {
+                assertArrayEquals(single.getObservations()[i], threaded.getObservations()[i]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should put a machine back to its state just after the ROM was loaded")
+    void reset() {
+        try (VectorEnv env = new VectorEnv(PONG, 2)) {
+            for (int frame = 0; frame < 30; frame++) {
+                env.step(new int[]{0, 0});
+            }
+
+            env.reset(1);
+
+            assertEquals(Memory.READ_WRITE_START_LOCATION, env.getMachine(1).getCpu().getPc());
+            assertArrayEquals(new long[FrameBuffer.HEIGHT_IN_PIXELS], env.getObservations()[1]);
+            assertNotEquals(Memory.READ_WRITE_START_LOCATION, env.getMachine(0).getCpu().getPc());
+        }
+    }
+
+    @Test
+    @DisplayName("Should put a machine into the state of a snapshot")
+    void resetFromSnapshot() {
+        try (VectorEnv env = new VectorEnv(PONG, 2)) {
+            for (int frame = 0; frame < 30; frame++) {
+                env.step(new int[]{0x2, 0});
+            }
+            ByteBuffer snapshot = env.getMachine(0).snapshot();
+            long[] observation = env.getObservations()[0].clone();
+
+            env.reset(1, snapshot);
+
+            assertEquals(env.getMachine(0).getCpu().getPc(), env.getMachine(1).getCpu().getPc());
+            assertArrayEquals(observation, env.getObservations()[1]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should pass on an exception thrown while stepping on a worker thread")
+    void workerFailure() {
+        try (VectorEnv env = new VectorEnv(PONG, 2, 2, ExecutionEngine.SWITCH, TimingModel.FLAT, chip8 -> {
+            throw new IllegalStateException("reward failed");
+        })) {
+            assertThrows(IllegalStateException.class, () -> env.step(new int[]{0, 0}));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a step without one action per machine")
+    void stepWrongActionCount() {
+        try (VectorEnv env = new VectorEnv(PONG, 2)) {
+            assertThrows(IllegalArgumentException.class, () -> env.step(new int[]{0}));
+        }
+    }
+}
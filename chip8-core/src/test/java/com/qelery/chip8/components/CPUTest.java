@@ -10,7 +10,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ByteBuffer;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -23,11 +27,11 @@ class CPUTest {
     @Mock
     Memory memory;
     @Mock
-    Display display;
+    FrameBuffer display;
     @Mock
     Sound sound;
     @Mock
-    Keyboard keyboard;
+    InputSource keyboard;
 
     @BeforeEach
     void setUp() {
@@ -125,6 +129,471 @@ class CPUTest {
         assertEquals(value + 2, cpu.getPc());
     }
 
+    @Test
+    @DisplayName("Should fetch, decode, and execute instructions without allocating")
+    void emulateCycle_doesNotAllocate() {
+        Memory realMemory = new Memory(Memory.DEFAULT_SIZE);
+        int[] program = {
+                0x60, 0x05, // V0 = 5
+                0x71, 0x01, // V1 += 1
+                0x80, 0x14, // V0 += V1
+                0x82, 0x06, // V2 >>= 1
+                0xA3, 0x00, // I = 0x300
+                0xF0, 0x1E, // I += V0
+                0x3F, 0xFF, // skip if VF == 0xFF (never true)
+                0x12, 0x00  // jump to 0x200
+        };
+        realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+        CPU allocationCpu = new CPU(500, realMemory, display, sound, keyboard);
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        int warmUpCycles = 1_000_000;
+        for (int i = 0; i < warmUpCycles; i++) {
+            allocationCpu.emulateCycle();
+        }
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        int measuredCycles = 10_000_000;
+        for (int i = 0; i < measuredCycles; i++) {
+            allocationCpu.emulateCycle();
+        }
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long maxAllocatedBytes = 16 * 1024; // allows for measurement noise, a new Opcode per cycle would be ~320 MB
+        assertTrue(allocatedBytes < maxAllocatedBytes,
+                "Expected no allocations per cycle, but " + allocatedBytes + " bytes were allocated");
+    }
+
+    @Nested
+    @DisplayName("Idle loops")
+    class IdleLoops {
+
+        Memory realMemory;
+        CPU idleCpu;
+
+        @BeforeEach
+        void setUp() {
+            realMemory = new Memory(Memory.DEFAULT_SIZE);
+            idleCpu = new CPU(500, realMemory, display, sound, keyboard);
+        }
+
+        @Test
+        @DisplayName("Should skip the remaining cycles of a jump to itself")
+        void emulateCycles_skipsJumpToSelf() {
+            int[] program = {
+                    0x70, 0x01, // V0 += 1
+                    0x12, 0x02  // jump to 0x202
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+            idleCpu.emulateCycles(100);
+
+            assertEquals(1, idleCpu.getVRegister()[0]);
+            assertEquals(0x202, idleCpu.getPc());
+            assertEquals(98, idleCpu.getSkippedCycles());
+        }
+
+        @Test
+        @DisplayName("Should skip the remaining cycles while waiting for a key that is not pressed")
+        void emulateCycles_skipsKeyWait() {
+            int[] program = {
+                    0xF3, 0x0A  // wait for key, store in V3
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+            idleCpu.emulateCycles(50);
+
+            assertEquals(Memory.READ_WRITE_START_LOCATION, idleCpu.getPc());
+            assertEquals(49, idleCpu.getSkippedCycles());
+        }
+
+        @Test
+        @DisplayName("Should not skip once the waited for key is pressed")
+        void emulateCycles_doesNotSkipPressedKey() {
+            int[] program = {
+                    0xF3, 0x0A, // wait for key, store in V3
+                    0x12, 0x02  // jump to 0x202
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            Mockito.when(keyboard.isKeyDown(anyInt())).thenAnswer(invocation -> invocation.getArgument(0, Integer.class) == 0x7);
+
+            idleCpu.emulateCycles(10);
+
+            assertEquals(0x7, idleCpu.getVRegister()[3]);
+            assertEquals(0x202, idleCpu.getPc());
+            assertEquals(8, idleCpu.getSkippedCycles());
+        }
+
+        @Test
+        @DisplayName("Should skip whole iterations of a loop polling the delay timer")
+        void emulateCycles_skipsDelayTimerPolling() {
+            int[] program = {
+                    0xF4, 0x07, // 0x200: V4 = delay timer
+                    0x34, 0x00, // 0x202: skip next if V4 = 0
+                    0x12, 0x00, // 0x204: jump to 0x200
+                    0x65, 0x01  // 0x206: V5 = 1
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            idleCpu.setDelayTimer(5);
+
+            idleCpu.emulateCycles(20);
+
+            assertEquals(5, idleCpu.getVRegister()[4]);
+            assertEquals(0x204, idleCpu.getPc());
+            assertEquals(15, idleCpu.getSkippedCycles());
+            assertEquals(0, idleCpu.getVRegister()[5]);
+        }
+
+        @Test
+        @DisplayName("Should leave the delay timer polling loop once the timer runs out")
+        void emulateCycles_leavesDelayTimerPollingAfterTick() {
+            int[] program = {
+                    0xF4, 0x07, // 0x200: V4 = delay timer
+                    0x34, 0x00, // 0x202: skip next if V4 = 0
+                    0x12, 0x00, // 0x204: jump to 0x200
+                    0x65, 0x01  // 0x206: V5 = 1
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            idleCpu.setDelayTimer(1);
+
+            idleCpu.emulateCycles(20);
+            idleCpu.tickClocks();
+            idleCpu.emulateCycles(20);
+
+            assertEquals(0, idleCpu.getVRegister()[4]);
+            assertEquals(1, idleCpu.getVRegister()[5]);
+        }
+
+        @Test
+        @DisplayName("Should end in the same state as emulating each cycle")
+        void emulateCycles_matchesEmulateCycle() {
+            int[] program = {
+                    0x74, 0x01, // 0x200: V4 += 1
+                    0xF4, 0x07, // 0x202: V4 = delay timer
+                    0x34, 0x00, // 0x204: skip next if V4 = 0
+                    0x12, 0x02  // 0x206: jump to 0x202
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            Memory otherMemory = new Memory(Memory.DEFAULT_SIZE);
+            otherMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            CPU steppedCpu = new CPU(500, otherMemory, display, sound, keyboard);
+
+            for (int cycles = 1; cycles < 12; cycles++) {
+                idleCpu.setDelayTimer(3);
+                steppedCpu.setDelayTimer(3);
+                idleCpu.emulateCycles(cycles);
+                for (int i = 0; i < cycles; i++) {
+                    steppedCpu.emulateCycle();
+                }
+
+                assertEquals(steppedCpu.getPc(), idleCpu.getPc());
+                assertEquals(steppedCpu.getOpcode(), idleCpu.getOpcode());
+                assertArrayEquals(steppedCpu.getVRegister(), idleCpu.getVRegister());
+            }
+            assertTrue(idleCpu.getSkippedCycles() > 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Timing models")
+    class TimingModels {
+
+        Memory realMemory;
+        TimingModel timingModel;
+        CPU timedCpu;
+
+        @BeforeEach
+        void setUp() {
+            realMemory = new Memory(Memory.DEFAULT_SIZE);
+            timingModel = new CosmacVipTimingModel();
+            timedCpu = new CPU(timingModel.clockSpeed(), realMemory, display, sound, keyboard,
+                    ExecutionEngine.SWITCH, timingModel);
+        }
+
+        @Test
+        @DisplayName("Should spend the cycle budget by each instruction's cost")
+        void emulateCycles_spendsModelCosts() {
+            int[] program = {
+                    0x60, 0x01, // V0 = 1
+                    0x61, 0x02, // V1 = 2
+                    0x62, 0x03  // V2 = 3
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            int setCost = timingModel.cycles(Opcode.of(0x6001));
+
+            timedCpu.emulateCycles(2 * setCost);
+
+            assertEquals(Memory.READ_WRITE_START_LOCATION + 4, timedCpu.getPc());
+            assertEquals(0, timedCpu.getVRegister()[2]);
+        }
+
+        @Test
+        @DisplayName("Should take cycles overrun by an instruction out of the next call")
+        void emulateCycles_carriesOverrunDebt() {
+            int[] program = {
+                    0x60, 0x01, // V0 = 1
+                    0x61, 0x02, // V1 = 2
+                    0x62, 0x03  // V2 = 3
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            int setCost = timingModel.cycles(Opcode.of(0x6001));
+
+            timedCpu.emulateCycles(1);
+            timedCpu.emulateCycles(setCost - 1);
+
+            assertEquals(Memory.READ_WRITE_START_LOCATION + 2, timedCpu.getPc());
+
+            timedCpu.emulateCycles(1);
+
+            assertEquals(Memory.READ_WRITE_START_LOCATION + 4, timedCpu.getPc());
+        }
+
+        @Test
+        @DisplayName("Should end in the same state as emulating each cycle when skipping idle loops")
+        void emulateCycles_idleSkipMatchesStepping() {
+            int[] program = {
+                    0x74, 0x01, // 0x200: V4 += 1
+                    0xF4, 0x07, // 0x202: V4 = delay timer
+                    0x34, 0x00, // 0x204: skip next if V4 = 0
+                    0x12, 0x02  // 0x206: jump to 0x202
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            Memory otherMemory = new Memory(Memory.DEFAULT_SIZE);
+            otherMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            CPU steppedCpu = new CPU(timingModel.clockSpeed(), otherMemory, display, sound, keyboard,
+                    ExecutionEngine.SWITCH, timingModel);
+            int budget = 0;
+
+            for (int cycles = 1; cycles < 400; cycles += 7) {
+                timedCpu.setDelayTimer(3);
+                steppedCpu.setDelayTimer(3);
+                timedCpu.emulateCycles(cycles);
+                budget += cycles;
+                while (budget > 0) {
+                    steppedCpu.emulateCycle();
+                    budget -= timingModel.cycles(steppedCpu.getOpcode());
+                }
+
+                assertEquals(steppedCpu.getPc(), timedCpu.getPc());
+                assertEquals(steppedCpu.getOpcode(), timedCpu.getOpcode());
+                assertArrayEquals(steppedCpu.getVRegister(), timedCpu.getVRegister());
+            }
+            assertTrue(timedCpu.getSkippedCycles() > 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Saved state")
+    class SavedState {
+
+        @Test
+        @DisplayName("Should give the same random values for a seed as java.util.Random")
+        void setRandomSeed_matchesJavaUtilRandom() {
+            int kk = 0xFF;
+            cpu.setOpcode(0xC000 | kk);
+            cpu.setRandomSeed(42);
+            Random expected = new Random(42);
+
+            for (int i = 0; i < 1000; i++) {
+                cpu.executeInstruction();
+
+                assertEquals(expected.nextInt(266) & kk, cpu.getVRegister()[0]);
+            }
+        }
+
+        @Test
+        @DisplayName("Should restore every register, timer, and the stack")
+        void restoreState_restoresRegisters() {
+            cpu.setPc(0x2F4);
+            cpu.setIRegister(0x3A0);
+            cpu.setSp(2);
+            cpu.getStack()[0] = 0x210;
+            cpu.getStack()[1] = 0x2E0;
+            cpu.setDelayTimer(40);
+            cpu.setSoundTimer(7);
+            cpu.setDrawFlag(true);
+            cpu.setOpcode(0xD125);
+            for (int i = 0; i < 16; i++) {
+                cpu.getVRegister()[i] = i * 15;
+            }
+            cpu.getVRegister()[3] = -20; // 8XY7 can leave a register negative
+            ByteBuffer state = ByteBuffer.allocate(CPU.STATE_SIZE);
+
+            cpu.saveState(state);
+            CPU restored = new CPU(500, memory, display, sound, keyboard);
+            restored.restoreState(state.flip());
+
+            assertFalse(state.hasRemaining());
+            assertEquals(0x2F4, restored.getPc());
+            assertEquals(0x3A0, restored.getIRegister());
+            assertEquals(2, restored.getSp());
+            assertArrayEquals(cpu.getStack(), restored.getStack());
+            assertEquals(40, restored.getDelayTimer());
+            assertEquals(7, restored.getSoundTimer());
+            assertTrue(restored.isDrawFlagSet());
+            assertEquals(cpu.getOpcode(), restored.getOpcode());
+            assertArrayEquals(cpu.getVRegister(), restored.getVRegister());
+        }
+
+        @Test
+        @DisplayName("Should restore the random number generator mid sequence")
+        void restoreState_restoresRandomState() {
+            cpu.setRandomSeed(7);
+            cpu.setOpcode(0xC0FF);
+            cpu.executeInstruction();
+            ByteBuffer state = ByteBuffer.allocate(CPU.STATE_SIZE);
+            cpu.saveState(state);
+            CPU restored = new CPU(500, memory, display, sound, keyboard);
+            restored.restoreState(state.flip());
+
+            for (int i = 0; i < 100; i++) {
+                cpu.executeInstruction();
+                restored.executeInstruction();
+
+                assertEquals(cpu.getVRegister()[0], restored.getVRegister()[0]);
+            }
+        }
+
+        @Test
+        @DisplayName("Should fork into a CPU with the same state that changes independently")
+        void fork() {
+            cpu.setPc(0x2F4);
+            cpu.setIRegister(0x3A0);
+            cpu.setSp(1);
+            cpu.getStack()[0] = 0x210;
+            cpu.setDelayTimer(40);
+            cpu.getVRegister()[5] = 0x55;
+            cpu.setRandomSeed(9);
+            ByteBuffer parentState = ByteBuffer.allocate(CPU.STATE_SIZE);
+            ByteBuffer childState = ByteBuffer.allocate(CPU.STATE_SIZE);
+
+            CPU child = cpu.fork(memory, display, sound, keyboard);
+            cpu.saveState(parentState);
+            child.saveState(childState);
+            child.getVRegister()[5] = 0x66;
+            child.getStack()[0] = 0x300;
+
+            assertEquals(parentState.flip(), childState.flip());
+            assertEquals(0x55, cpu.getVRegister()[5]);
+            assertEquals(0x210, cpu.getStack()[0]);
+        }
+
+        @Test
+        @DisplayName("Should hash every register, the stack, and the timers")
+        void stateHash() {
+            CPU other = new CPU(500, memory, display, sound, keyboard);
+            assertEquals(cpu.stateHash(), other.stateHash());
+
+            List<Runnable> changes = List.of(
+                    () -> cpu.getVRegister()[0xF] = 1,
+                    () -> cpu.getVRegister()[3] = -20,
+                    () -> cpu.getStack()[15] = 0x200,
+                    () -> cpu.setIRegister(0x300),
+                    () -> cpu.setPc(0x202),
+                    () -> cpu.setSp(1),
+                    () -> cpu.setDelayTimer(1),
+                    () -> cpu.setSoundTimer(1));
+            Set<Long> hashes = new HashSet<>();
+            hashes.add(cpu.stateHash());
+            for (Runnable change : changes) {
+                change.run();
+                assertTrue(hashes.add(cpu.stateHash()));
+            }
+            cpu.setRandomSeed(3);
+            cpu.setDrawFlag(true);
+            assertTrue(hashes.contains(cpu.stateHash()));
+        }
+    }
+
+    @Nested
+    @DisplayName("CACHED engine")
+    class DecodedInstructionCache {
+
+        Memory realMemory;
+        CPU cachingCpu;
+
+        @BeforeEach
+        void setUp() {
+            realMemory = new Memory(Memory.DEFAULT_SIZE);
+            cachingCpu = new CPU(500, realMemory, display, sound, keyboard, ExecutionEngine.CACHED);
+        }
+
+        @Test
+        @DisplayName("Should reuse the decoded instruction when the same address is executed again")
+        void fetchInstruction_reusesDecodedInstruction() {
+            int[] program = {
+                    0x70, 0x01, // V0 += 1
+                    0x12, 0x00  // jump to 0x200
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+            int loops = 5;
+            for (int i = 0; i < loops * 2; i++) {
+                cachingCpu.emulateCycle();
+            }
+
+            assertEquals(loops, cachingCpu.getVRegister()[0]);
+            assertEquals(Memory.READ_WRITE_START_LOCATION, cachingCpu.getPc());
+        }
+
+        @Test
+        @DisplayName("Should execute the new instruction after a ROM overwrites code it already executed")
+        void fetchInstruction_seesSelfModifiedCode() {
+            int[] program = {
+                    0x65, 0x11, // 0x200: V5 = 0x11, later overwritten with V5 = 0x42
+                    0x60, 0x65, // 0x202: V0 = 0x65
+                    0x61, 0x42, // 0x204: V1 = 0x42
+                    0xA2, 0x00, // 0x206: I = 0x200
+                    0xF1, 0x55, // 0x208: store V0 and V1 at 0x200
+                    0x12, 0x00  // 0x20A: jump to 0x200
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+            for (int i = 0; i < program.length / 2; i++) {
+                cachingCpu.emulateCycle();
+            }
+            assertEquals(0x11, cachingCpu.getVRegister()[5]);
+
+            cachingCpu.emulateCycle();
+
+            assertEquals(0x42, cachingCpu.getVRegister()[5]);
+        }
+
+        @Test
+        @DisplayName("Should drop an instruction when only its second byte is overwritten")
+        void fetchInstruction_seesOverwrittenSecondByte() {
+            int[] program = {
+                    0x65, 0x11, // V5 = 0x11
+                    0x12, 0x00  // jump to 0x200
+            };
+            realMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+            cachingCpu.emulateCycle();
+            cachingCpu.emulateCycle();
+
+            realMemory.writeByte(0x42, Memory.READ_WRITE_START_LOCATION + 1);
+            cachingCpu.emulateCycle();
+
+            assertEquals(0x42, cachingCpu.getVRegister()[5]);
+        }
+
+        @Test
+        @DisplayName("Should decode an instruction at the last address using the first byte of memory, and drop it when that byte changes")
+        void fetchInstruction_wrapsAroundEndOfMemory() {
+            int lastAddress = Memory.DEFAULT_SIZE - 1;
+            realMemory.writeByte(0x65, lastAddress); // V5 = the byte at address 0, the top of the 0 font sprite
+            cachingCpu.setPc(lastAddress);
+            cachingCpu.emulateCycle();
+            assertEquals(0xF0, cachingCpu.getVRegister()[5]);
+
+            realMemory.writeByte(0x11, Memory.DEFAULT_SIZE);
+            cachingCpu.setPc(lastAddress + Memory.DEFAULT_SIZE);
+            cachingCpu.emulateCycle();
+
+            assertEquals(0x11, cachingCpu.getVRegister()[5]);
+        }
+    }
+
     // Read the docstring of the executeInstruction method to see the
     // instruction nibble notations (e.g. nnn) used in these tests
     @Nested
@@ -828,25 +1297,39 @@ class CPUTest {
             cpu.getVRegister()[x] = vRegisterXValue;
             cpu.setOpcode(instruction);
             cpu.setDrawFlag(false);
-            int[] existingPixelValues = new int[]{0, 1, 1, 0, 1, 1, 0, 0};
             Mockito.when(memory.readByte(anyInt()))
                     .thenReturn(spriteBytes);
-            for (int existingPixelValue : existingPixelValues) {
-                Mockito.when(display.getPixel(anyInt(), anyInt()))
-                        .thenReturn(existingPixelValue);
-            }
+            Mockito.when(display.drawSpriteRow(anyInt(), anyInt(), anyInt()))
+                    .thenReturn(false);
 
             cpu.executeInstruction();
 
-            int[] expectedNewPixelValues = new int[]{1, 0, 0, 1, 1, 0, 1, 1};
-            int expectedYCoord = vRegisterYValue % Display.HEIGHT_IN_PIXELS;
-            int lengthOfSprite = 8;
-            for (int i = 0; i < lengthOfSprite; i++) {
-                Mockito.verify(display).setPixel(vRegisterXValue + i, expectedYCoord, expectedNewPixelValues[i]);
-            }
+            int expectedYCoord = vRegisterYValue % FrameBuffer.HEIGHT_IN_PIXELS;
+            Mockito.verify(display).drawSpriteRow(vRegisterXValue, expectedYCoord, spriteBytes);
+            assertEquals(0, cpu.getVRegister()[0xF]);
             assertTrue(cpu.isDrawFlagSet());
         }
 
+        @Test
+        @DisplayName("Opcode D - should set VRegister[F] when any sprite row collides")
+        void executeInstruction_opcodeD_setsCollisionFlag() {
+            int instruction = 0xD123;
+            cpu.getVRegister()[1] = 70;
+            cpu.getVRegister()[2] = 31;
+            cpu.setOpcode(instruction);
+            Mockito.when(memory.readByte(anyInt()))
+                    .thenReturn(0xFF);
+            Mockito.when(display.drawSpriteRow(anyInt(), anyInt(), anyInt()))
+                    .thenReturn(false, true, false);
+
+            cpu.executeInstruction();
+
+            Mockito.verify(display).drawSpriteRow(70 % FrameBuffer.LENGTH_IN_PIXELS, 31, 0xFF);
+            Mockito.verify(display).drawSpriteRow(70 % FrameBuffer.LENGTH_IN_PIXELS, 0, 0xFF);
+            Mockito.verify(display).drawSpriteRow(70 % FrameBuffer.LENGTH_IN_PIXELS, 1, 0xFF);
+            assertEquals(1, cpu.getVRegister()[0xF]);
+        }
+
         @Nested
         @DisplayName("Opcode - E")
         class OpcodeE {
@@ -0,0 +1,57 @@
+package com.qelery.chip8.components;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CosmacVipTimingModelTest {
+
+    TimingModel timingModel;
+
+    @BeforeEach
+    void setUp() {
+        this.timingModel = new CosmacVipTimingModel();
+    }
+
+    @Test
+    @DisplayName("Should clock the CPU at the VIP's machine cycle rate")
+    void clockSpeed() {
+        assertEquals(CosmacVipTimingModel.MACHINE_CYCLES_PER_SECOND, timingModel.clockSpeed());
+    }
+
+    @Test
+    @DisplayName("Should cost every instruction at least one cycle")
+    void cycles_alwaysPositive() {
+        for (int instruction = 0; instruction <= 0xFFFF; instruction++) {
+            assertTrue(timingModel.cycles(Opcode.of(instruction)) > 0, Opcode.of(instruction).toHexString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should cost clearing the screen far more than setting a register")
+    void cycles_clearScreenIsSlow() {
+        assertTrue(timingModel.cycles(Opcode.of(0x00E0)) > 10 * timingModel.cycles(Opcode.of(0x6A12)));
+    }
+
+    @Test
+    @DisplayName("Should cost a sprite draw more the taller the sprite is")
+    void cycles_drawGrowsWithHeight() {
+        int previous = timingModel.cycles(Opcode.of(0xD120));
+        for (int n = 1; n <= 0xF; n++) {
+            int cycles = timingModel.cycles(Opcode.of(0xD120 | n));
+            assertTrue(cycles > previous, "DXYN with n = " + n);
+            previous = cycles;
+        }
+    }
+
+    @Test
+    @DisplayName("Should cost a register store or load more the more registers it copies")
+    void cycles_registerCopiesGrowWithX() {
+        for (int x = 1; x <= 0xF; x++) {
+            assertTrue(timingModel.cycles(Opcode.of(0xF055 | x << 8)) > timingModel.cycles(Opcode.of(0xF055 | (x - 1) << 8)));
+            assertTrue(timingModel.cycles(Opcode.of(0xF065 | x << 8)) > timingModel.cycles(Opcode.of(0xF065 | (x - 1) << 8)));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.qelery.chip8.components;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeypadTest {
+
+    Keypad keypad;
+
+    @BeforeEach
+    void setUp() {
+        this.keypad = new Keypad();
+    }
+
+    @Test
+    @DisplayName("Should set array index of the key value to true on key down")
+    void keyDown() {
+        keypad.keyDown(0xA);
+
+        assertTrue(keypad.getKeys()[0xA]);
+    }
+
+    @Test
+    @DisplayName("Should set array index of the key value to false on key up")
+    void keyUp() {
+        keypad.getKeys()[0xA] = true;
+
+        keypad.keyUp(0xA);
+
+        assertFalse(keypad.getKeys()[0xA]);
+    }
+
+    @Test
+    @DisplayName("Should return true if a key is pressed down")
+    void isKeyDown() {
+        int indexOfAKey = 7;
+        keypad.getKeys()[indexOfAKey] = true;
+
+        assertTrue(keypad.isKeyDown(indexOfAKey));
+    }
+
+    @Test
+    @DisplayName("Should force a key up")
+    void forceKeyUp() {
+        int indexOfAKey = 7;
+        keypad.getKeys()[indexOfAKey] = true;
+
+        keypad.forceKeyUp(indexOfAKey);
+
+        assertFalse(keypad.getKeys()[indexOfAKey]);
+    }
+
+    @Test
+    @DisplayName("Should return the value of the downed key")
+    void getDownedKeyValue() {
+        keypad.getKeys()[0xF] = true;
+        assertEquals(0xF, keypad.getDownedKeyValue());
+    }
+
+    @Test
+    @DisplayName("Should return -1 if no keys are down")
+    void getDownedKeyValue_noneDown() {
+        assertEquals(-1, keypad.getDownedKeyValue());
+    }
+
+    @Test
+    @DisplayName("Should apply posted key events in the order they were posted")
+    void applyPostedKeys() {
+        keypad.postKeyDown(0xF);
+        keypad.postKeyDown(0x0);
+        keypad.postKeyUp(0x0);
+        keypad.postKeyDown(0x0);
+
+        assertFalse(keypad.isKeyDown(0x0));
+
+        keypad.applyPostedKeys();
+
+        assertTrue(keypad.isKeyDown(0xF));
+        assertTrue(keypad.isKeyDown(0x0));
+
+        keypad.postKeyUp(0xF);
+        keypad.applyPostedKeys();
+
+        assertFalse(keypad.isKeyDown(0xF));
+        assertTrue(keypad.isKeyDown(0x0));
+    }
+
+    @Test
+    @DisplayName("Should hold a key tapped between two applies down until the next apply")
+    void applyPostedKeys_tap() {
+        keypad.postKeyDown(0x5);
+        keypad.postKeyUp(0x5);
+
+        keypad.applyPostedKeys();
+
+        assertTrue(keypad.isKeyDown(0x5));
+
+        keypad.applyPostedKeys();
+
+        assertFalse(keypad.isKeyDown(0x5));
+    }
+
+    @Test
+    @DisplayName("Should keep a tapped key down when it is pressed again before the next apply")
+    void applyPostedKeys_tapThenHold() {
+        keypad.postKeyDown(0x5);
+        keypad.postKeyUp(0x5);
+        keypad.applyPostedKeys();
+
+        keypad.postKeyDown(0x5);
+        keypad.applyPostedKeys();
+
+        assertTrue(keypad.isKeyDown(0x5));
+    }
+
+    @Test
+    @DisplayName("Should reject posting a key value outside the keypad")
+    void postKeyDown_invalidKey() {
+        assertThrows(IndexOutOfBoundsException.class, () -> keypad.postKeyDown(0x10));
+        assertThrows(IndexOutOfBoundsException.class, () -> keypad.postKeyUp(-1));
+    }
+
+    @Test
+    @DisplayName("Should hold down exactly the keys set in a key mask")
+    void setKeyMask() {
+        keypad.keyDown(0x3);
+
+        keypad.setKeyMask(0b1000_0000_0010_0001);
+
+        assertTrue(keypad.isKeyDown(0x0));
+        assertTrue(keypad.isKeyDown(0x5));
+        assertTrue(keypad.isKeyDown(0xF));
+        assertFalse(keypad.isKeyDown(0x3));
+        assertEquals(0b1000_0000_0010_0001, keypad.getKeyMask());
+    }
+}
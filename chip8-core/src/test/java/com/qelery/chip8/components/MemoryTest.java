@@ -0,0 +1,307 @@
+package com.qelery.chip8.components;
+
+import com.qelery.chip8.components.Memory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryTest {
+
+    Memory memory;
+
+    @BeforeEach
+    void setUp() {
+        int typicalMemoryLocationsInChip8 = 4096;
+        this.memory = new Memory(typicalMemoryLocationsInChip8);
+    }
+
+    @Test
+    @DisplayName("Should load data, represented as ints, into a specific memory location")
+    void loadData_asInts() {
+        int[] data = new int[] {50, 51, 52};
+        int offset = 600;
+
+        memory.loadData(data, offset);
+
+        assertEquals(50, memory.readByte(offset));
+        assertEquals(51, memory.readByte(offset + 1));
+        assertEquals(52, memory.readByte(offset + 2));
+    }
+
+    @Test
+    @DisplayName("Should load data, represented as unsigned bytes, into a specific memory location")
+    void loadData_asUnsignedBytes() {
+        byte signedByte = -52;
+        int unsignedByteEquivalent = 204;
+        byte[] data = new byte[] {50, 51, signedByte};
+        int offset = 600;
+
+        memory.loadData(data, offset);
+
+        assertEquals(50, memory.readByte(offset));
+        assertEquals(51, memory.readByte(offset + 1));
+        assertEquals(unsignedByteEquivalent, memory.readByte(offset + 2));
+    }
+
+    @Test
+    @DisplayName("Should read an byte, represented as an int, from a specific memory location")
+    void readByte() {
+        byte expectedValue = 50;
+        int address = 600;
+        memory.writeByte(expectedValue, address);
+
+        int actualValue = memory.readByte(address);
+
+        assertEquals(expectedValue, actualValue);
+    }
+
+    @Test
+    @DisplayName("Should read a byte, represented as an int, from a specific memory location and ensure it is unsigned")
+    void readByte_unsigned() {
+        int signedValue = -52;
+        int expectedUnsignedValue = 204;
+        int address = 600;
+        memory.writeByte(signedValue, address);
+
+        int actualValue = memory.readByte(address);
+
+        assertEquals(expectedUnsignedValue, actualValue);
+    }
+
+    @Test
+    @DisplayName("Should write a byte, represented as an int, to a specific memory location")
+    void writeByte() {
+        int expectedValue = 50;
+        int address = 600;
+
+        memory.writeByte(expectedValue, address);
+
+        assertEquals(expectedValue, memory.readByte(address));
+    }
+
+    @Test
+    @DisplayName("Should write a byte, represented as an int, to a specific memory location and ensure it is unsigned")
+    void writeByte_unsigned() {
+        int signedValue = -52;
+        int expectedUnsignedValue = 204;
+        int address = 600;
+
+        memory.writeByte(signedValue, address);
+
+        assertEquals(expectedUnsignedValue, memory.readByte(address));
+    }
+
+    @Test
+    @DisplayName("Should notify write listeners of the address and length of each write")
+    void addWriteListener() {
+        List<int[]> writes = new ArrayList<>();
+        memory.addWriteListener((address, length) -> writes.add(new int[]{address, length}));
+
+        memory.writeByte(50, 600);
+        memory.loadData(new byte[]{1, 2, 3}, 700);
+        memory.loadData(new int[]{1, 2}, 800);
+
+        assertEquals(3, writes.size());
+        assertArrayEquals(new int[]{600, 1}, writes.get(0));
+        assertArrayEquals(new int[]{700, 3}, writes.get(1));
+        assertArrayEquals(new int[]{800, 2}, writes.get(2));
+    }
+
+    @Test
+    @DisplayName("Should return the number of addressable bytes")
+    void size() {
+        assertEquals(4096, memory.size());
+    }
+
+    @Test
+    @DisplayName("Should load sprites into first 80 bytes of memory when a Memory object is constructed")
+    void loadsSpritesOnConstruction() {
+        int memoryLocations = 4096;
+
+        Memory memoryObj = new Memory(memoryLocations);
+
+        int expectedEndOfSpritesLocation = 80;
+        for (int i = 0; i < expectedEndOfSpritesLocation; i++) {
+            assertNotEquals(0x0, memoryObj.readByte(i));
+        }
+        assertEquals(0x0, memoryObj.readByte(expectedEndOfSpritesLocation));
+    }
+
+    @Test
+    @DisplayName("Should restore saved bytes and only notify listeners of the ranges that changed")
+    void restoreState() {
+        memory.loadData(new byte[]{1, 2, 3, 4}, 600);
+        ByteBuffer state = ByteBuffer.allocate(memory.size());
+        memory.saveState(state);
+        memory.writeByte(9, 601);
+        memory.writeByte(9, 602);
+        memory.writeByte(9, 4095);
+        List<int[]> writes = new ArrayList<>();
+        memory.addWriteListener((address, length) -> writes.add(new int[]{address, length}));
+
+        memory.restoreState(state.flip());
+
+        assertEquals(2, memory.readByte(601));
+        assertEquals(3, memory.readByte(602));
+        assertEquals(0, memory.readByte(4095));
+        assertEquals(2, writes.size());
+        assertArrayEquals(new int[]{601, 2}, writes.get(0));
+        assertArrayEquals(new int[]{4095, 1}, writes.get(1));
+    }
+
+    @Test
+    @DisplayName("Should fork into memory with the same bytes, sharing pages until either side writes")
+    void fork() {
+        memory.loadData(new byte[]{1, 2, 3}, 600);
+
+        Memory child = memory.fork();
+
+        assertEquals(0, memory.ownedPages());
+        assertEquals(0, child.ownedPages());
+        assertEquals(2, child.readByte(601));
+
+        child.writeByte(9, 601);
+        memory.writeByte(8, 602);
+        memory.writeByte(7, 3000);
+
+        assertEquals(1, child.ownedPages());
+        assertEquals(2, memory.ownedPages());
+        assertEquals(9, child.readByte(601));
+        assertEquals(3, child.readByte(602));
+        assertEquals(0, child.readByte(3000));
+        assertEquals(2, memory.readByte(601));
+        assertEquals(8, memory.readByte(602));
+        assertEquals(7, memory.readByte(3000));
+    }
+
+    @Test
+    @DisplayName("Should not notify the parent's write listeners of writes to a fork")
+    void forkDoesNotShareListeners() {
+        List<int[]> writes = new ArrayList<>();
+        memory.addWriteListener((address, length) -> writes.add(new int[]{address, length}));
+
+        memory.fork().writeByte(1, 600);
+
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should wrap reads and writes past the end of memory around to the start")
+    void wrapsAddresses() {
+        List<int[]> writes = new ArrayList<>();
+        memory.addWriteListener((address, length) -> writes.add(new int[]{address, length}));
+
+        memory.writeByte(0xAB, 4096 + 600);
+        memory.writeByte(0xCD, -1);
+
+        assertEquals(0xAB, memory.readByte(600));
+        assertEquals(0xCD, memory.readByte(4095));
+        assertEquals(0xCD, memory.readByte(-1));
+        assertEquals(memory.readByte(0), memory.readByte(4096));
+        assertArrayEquals(new int[]{600, 1}, writes.get(0));
+        assertArrayEquals(new int[]{4095, 1}, writes.get(1));
+    }
+
+    @Test
+    @DisplayName("Should refuse to load data that runs past the end of memory")
+    void loadDataPastEnd() {
+        assertThrows(IndexOutOfBoundsException.class, () -> memory.loadData(new byte[2], 4095));
+        assertThrows(IndexOutOfBoundsException.class, () -> memory.loadData(new int[2], 4095));
+    }
+
+    @Test
+    @DisplayName("Should load data spanning several pages")
+    void loadDataAcrossPages() {
+        byte[] data = new byte[3 * Memory.PAGE_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 7);
+        }
+        int offset = Memory.PAGE_SIZE - 3;
+
+        memory.loadData(data, offset);
+
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i] & 0xFF, memory.readByte(offset + i));
+        }
+        assertEquals(0, memory.readByte(offset + data.length));
+        assertEquals(memory.computeStateHash(), memory.stateHash());
+    }
+
+    @Test
+    @DisplayName("Should refuse sizes that are not a power of two")
+    void rejectsSizeNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new Memory(4000));
+        assertThrows(IllegalArgumentException.class, () -> new Memory(0));
+    }
+
+    @Test
+    @DisplayName("Should support sizes smaller than a page")
+    void smallerThanPage() {
+        Memory small = new Memory(128);
+
+        small.writeByte(0xAB, 127);
+
+        assertEquals(128, small.size());
+        assertEquals(0xAB, small.readByte(127));
+        assertEquals(0xF0, small.readByte(128));
+    }
+
+    @Test
+    @DisplayName("Should leave pages that a restore does not change shared with forks")
+    void restoreStateKeepsUnchangedPagesShared() {
+        memory.loadData(new byte[]{1, 2, 3}, 600);
+        ByteBuffer state = ByteBuffer.allocate(memory.size());
+        memory.saveState(state);
+        memory.fork();
+        memory.writeByte(9, 3000);
+
+        memory.restoreState(state.flip());
+
+        assertEquals(1, memory.ownedPages());
+        assertEquals(0, memory.readByte(3000));
+        assertEquals(2, memory.readByte(601));
+    }
+
+    @Test
+    @DisplayName("Should keep its state hash up to date as bytes are written")
+    void stateHash() {
+        long initial = memory.stateHash();
+
+        memory.writeByte(0x12, 700);
+        long written = memory.stateHash();
+        memory.loadData(new int[]{0x34, 0x56}, 3000);
+        memory.writeByte(0x12 + 0x100, 700); // stored as the same unsigned byte
+
+        assertNotEquals(initial, written);
+        assertEquals(memory.computeStateHash(), memory.stateHash());
+        memory.loadData(new byte[]{0, 0}, 3000);
+        assertEquals(written, memory.stateHash());
+        memory.writeByte(0, 700);
+        assertEquals(initial, memory.stateHash());
+    }
+
+    @Test
+    @DisplayName("Should hash memories holding the same bytes the same, however they got there")
+    void stateHashDependsOnlyOnBytes() {
+        memory.loadData(new byte[]{1, 2, 3}, 600);
+        ByteBuffer state = ByteBuffer.allocate(memory.size());
+        memory.saveState(state);
+        Memory restored = new Memory(memory.size());
+        restored.writeByte(9, 1000);
+
+        restored.restoreState(state.flip());
+        Memory child = memory.fork();
+
+        assertEquals(memory.stateHash(), restored.stateHash());
+        assertEquals(memory.stateHash(), child.stateHash());
+        child.writeByte(4, 603);
+        assertNotEquals(memory.stateHash(), child.stateHash());
+        assertEquals(child.computeStateHash(), child.stateHash());
+    }
+}
@@ -0,0 +1,231 @@
+package com.qelery.chip8.components;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedFrameBufferTest {
+
+    @Test
+    @DisplayName("Should clear the frame buffer")
+    void clear() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        for (int x = 0; x < FrameBuffer.LENGTH_IN_PIXELS; x++) {
+            for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+                frameBuffer.setPixel(x, y, FrameBuffer.PIXEL_ON_VALUE);
+            }
+        }
+
+        frameBuffer.clear();
+
+        for (int x = 0; x < FrameBuffer.LENGTH_IN_PIXELS; x++) {
+            for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+                assertEquals(FrameBuffer.PIXEL_OFF_VALUE, frameBuffer.getPixel(x, y));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should get a pixel at the x and y coordinates in the frame buffer")
+    void getPixel() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        int x = 5;
+        int y = 5;
+        frameBuffer.setPixel(x, y, FrameBuffer.PIXEL_ON_VALUE);
+
+        int pixelValue = frameBuffer.getPixel(x, y);
+
+        assertEquals(FrameBuffer.PIXEL_ON_VALUE, pixelValue);
+    }
+
+    @Test
+    @DisplayName("Should set a pixel at the x and y coordinates in the frame buffer")
+    void setPixel() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+
+        int x = 5;
+        int y = 5;
+        frameBuffer.setPixel(x, y, FrameBuffer.PIXEL_ON_VALUE);
+
+        assertEquals(FrameBuffer.PIXEL_ON_VALUE, frameBuffer.getPixel(x, y));
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when trying to set pixel to value other than 0 (OFF) or 1 (ON)")
+    void setPixelThrowsIllegalArgumentException() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+
+        int x = 5;
+        int y = 5;
+        int val = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> frameBuffer.setPixel(x, y, val));
+    }
+
+    @Test
+    @DisplayName("Should XOR a sprite row onto the frame buffer")
+    void drawSpriteRow() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        int spriteByte = 0b10011011;
+        int[] expectedPixels = {1, 0, 0, 1, 1, 0, 1, 1};
+
+        boolean collision = frameBuffer.drawSpriteRow(6, 5, spriteByte);
+
+        assertFalse(collision);
+        for (int i = 0; i < expectedPixels.length; i++) {
+            assertEquals(expectedPixels[i], frameBuffer.getPixel(6 + i, 5));
+        }
+        assertEquals(FrameBuffer.PIXEL_OFF_VALUE, frameBuffer.getPixel(5, 5));
+        assertEquals(FrameBuffer.PIXEL_OFF_VALUE, frameBuffer.getPixel(14, 5));
+    }
+
+    @Test
+    @DisplayName("Should report a collision and turn off pixels that were already on")
+    void drawSpriteRowCollision() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.setPixel(7, 3, FrameBuffer.PIXEL_ON_VALUE);
+
+        boolean collision = frameBuffer.drawSpriteRow(4, 3, 0b00011000);
+
+        assertTrue(collision);
+        assertEquals(FrameBuffer.PIXEL_OFF_VALUE, frameBuffer.getPixel(7, 3));
+        assertEquals(FrameBuffer.PIXEL_ON_VALUE, frameBuffer.getPixel(8, 3));
+    }
+
+    @Test
+    @DisplayName("Should wrap sprite pixels past the right edge around to the left")
+    void drawSpriteRowWrapsHorizontally() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+
+        frameBuffer.drawSpriteRow(60, 0, 0xFF);
+
+        for (int x = 60; x < FrameBuffer.LENGTH_IN_PIXELS; x++) {
+            assertEquals(FrameBuffer.PIXEL_ON_VALUE, frameBuffer.getPixel(x, 0));
+        }
+        for (int x = 0; x < 4; x++) {
+            assertEquals(FrameBuffer.PIXEL_ON_VALUE, frameBuffer.getPixel(x, 0));
+        }
+        assertEquals(FrameBuffer.PIXEL_OFF_VALUE, frameBuffer.getPixel(4, 0));
+        assertEquals(0xF000_0000_0000_000FL, frameBuffer.getRow(0));
+    }
+
+    @Test
+    @DisplayName("Should only mark rows that a sprite changes as dirty")
+    void drawSpriteRowMarksRowDirty() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+
+        frameBuffer.drawSpriteRow(0, 3, 0xFF);
+        frameBuffer.drawSpriteRow(0, 7, 0x00);
+
+        assertEquals(1 << 3, frameBuffer.getDirtyRows());
+    }
+
+    @Test
+    @DisplayName("Should have no dirty rows after taking them")
+    void takeDirtyRows() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.drawSpriteRow(62, 0, 0b11000011);
+        frameBuffer.setPixel(5, 31, FrameBuffer.PIXEL_ON_VALUE);
+
+        int dirty = frameBuffer.takeDirtyRows();
+
+        assertEquals((1 << 0) | (1 << 31), dirty);
+        assertEquals(0, frameBuffer.getDirtyRows());
+    }
+
+    @Test
+    @DisplayName("Should only mark rows with pixels ON as dirty when clearing")
+    void clearMarksLitRowsDirty() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.setPixel(1, 2, FrameBuffer.PIXEL_ON_VALUE);
+        frameBuffer.setPixel(1, 20, FrameBuffer.PIXEL_ON_VALUE);
+        frameBuffer.takeDirtyRows();
+
+        frameBuffer.clear();
+
+        assertEquals((1 << 2) | (1 << 20), frameBuffer.getDirtyRows());
+    }
+
+    @Test
+    @DisplayName("Should not mark a row dirty when setting a pixel to the value it already has")
+    void setPixelToSameValueIsNotDirty() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+
+        frameBuffer.setPixel(9, 9, FrameBuffer.PIXEL_OFF_VALUE);
+
+        assertEquals(0, frameBuffer.getDirtyRows());
+    }
+
+    @Test
+    @DisplayName("Should replace a whole row and mark it dirty only if it changed")
+    void setRow() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+
+        frameBuffer.setRow(3, 0x8000_0000_0000_0001L);
+        frameBuffer.setRow(4, 0L);
+
+        assertEquals(0x8000_0000_0000_0001L, frameBuffer.getRow(3));
+        assertEquals(FrameBuffer.PIXEL_ON_VALUE, frameBuffer.getPixel(63, 3));
+        assertEquals(1 << 3, frameBuffer.getDirtyRows());
+    }
+
+    @Test
+    @DisplayName("Should fork into a frame buffer with the same pixels that is drawn on independently")
+    void fork() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.setRow(3, 0xFFL);
+        frameBuffer.takeDirtyRows();
+
+        FrameBuffer child = frameBuffer.fork();
+        child.drawSpriteRow(0, 3, 0x80);
+        frameBuffer.setPixel(0, 5, FrameBuffer.PIXEL_ON_VALUE);
+
+        assertEquals(-1, child.takeDirtyRows());
+        assertEquals(0x8000_0000_0000_00FFL, child.getRow(3));
+        assertEquals(0L, child.getRow(5));
+        assertEquals(0xFFL, frameBuffer.getRow(3));
+        assertEquals(Long.MIN_VALUE, frameBuffer.getRow(5));
+    }
+
+    @Test
+    @DisplayName("Should keep its state hash up to date as pixels change")
+    void stateHash() {
+        PackedFrameBuffer frameBuffer = new PackedFrameBuffer();
+        long blank = frameBuffer.stateHash();
+
+        frameBuffer.drawSpriteRow(60, 4, 0xA5);
+        long drawn = frameBuffer.stateHash();
+        frameBuffer.setPixel(3, 31, FrameBuffer.PIXEL_ON_VALUE);
+        frameBuffer.setRow(10, 0x1234L);
+
+        assertNotEquals(blank, drawn);
+        assertEquals(frameBuffer.computeStateHash(), frameBuffer.stateHash());
+        frameBuffer.setPixel(3, 31, FrameBuffer.PIXEL_OFF_VALUE);
+        frameBuffer.setRow(10, 0L);
+        assertEquals(drawn, frameBuffer.stateHash());
+        frameBuffer.drawSpriteRow(60, 4, 0xA5);
+        assertEquals(blank, frameBuffer.stateHash());
+        frameBuffer.setRow(0, -1L);
+        frameBuffer.clear();
+        assertEquals(blank, frameBuffer.stateHash());
+    }
+
+    @Test
+    @DisplayName("Should hash the same pixels in different rows differently")
+    void stateHashDependsOnRow() {
+        PackedFrameBuffer first = new PackedFrameBuffer();
+        PackedFrameBuffer second = new PackedFrameBuffer();
+
+        first.setRow(1, 0xFFL);
+        second.setRow(2, 0xFFL);
+        FrameBuffer child = first.fork();
+
+        assertNotEquals(first.stateHash(), second.stateHash());
+        assertEquals(first.stateHash(), child.stateHash());
+    }
+}
@@ -0,0 +1,278 @@
+package com.qelery.chip8.components;
+
+import com.qelery.chip8.components.sound.Sound;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecompilerTest {
+
+    private static final String ROMS_DIRECTORY_PATH = "src/main/resources/ROMS/";
+
+    Memory memory;
+    Recompiler recompiler;
+
+    @BeforeEach
+    void setUp() throws IllegalAccessException {
+        this.memory = new Memory(Memory.DEFAULT_SIZE);
+        this.recompiler = new Recompiler(MethodHandles.privateLookupIn(CPU.class, MethodHandles.lookup()), memory,
+                TimingModel.FLAT);
+    }
+
+    @Test
+    @DisplayName("Should only compile instructions that fall through without touching memory or the display")
+    void isCompilable() {
+        List<Integer> compilable = List.of(0x6A12, 0x7A12, 0x8AB0, 0x8AB4, 0x8AB7, 0x8ABE, 0xA123, 0xCA0F,
+                0xFA07, 0xFA15, 0xFA18, 0xFA1E, 0xFA29, 0xFA65);
+        List<Integer> notCompilable = List.of(0x00E0, 0x00EE, 0x1234, 0x2234, 0x3A12, 0x4A12, 0x5AB0, 0x8AB8,
+                0x9AB0, 0xB123, 0xDAB5, 0xEA9E, 0xEAA1, 0xFA0A, 0xFA33, 0xFA55, 0x0000);
+
+        for (int instruction : compilable) {
+            assertTrue(Recompiler.isCompilable(Opcode.of(instruction)), Opcode.of(instruction).toHexString());
+        }
+        for (int instruction : notCompilable) {
+            assertFalse(Recompiler.isCompilable(Opcode.of(instruction)), Opcode.of(instruction).toHexString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should only compile a block once its address has been entered enough times")
+    void blockAt_compilesOnceHot() {
+        memory.loadData(new int[]{0x60, 0x01, 0x12, 0x00}, Memory.READ_WRITE_START_LOCATION);
+
+        for (int i = 1; i < Recompiler.COMPILE_THRESHOLD; i++) {
+            assertNull(recompiler.blockAt(Memory.READ_WRITE_START_LOCATION));
+        }
+
+        assertNotNull(recompiler.blockAt(Memory.READ_WRITE_START_LOCATION));
+    }
+
+    @Test
+    @DisplayName("Should end a block before the first instruction it cannot compile")
+    void blockAt_endsBeforeControlFlow() {
+        int[] program = {
+                0x60, 0x01, // V0 = 1
+                0x71, 0x02, // V1 += 2
+                0x80, 0x14, // V0 += V1
+                0x12, 0x00  // jump to 0x200
+        };
+        memory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+
+        CompiledBlock block = hotBlockAt(Memory.READ_WRITE_START_LOCATION);
+        CompiledBlock jump = hotBlockAt(Memory.READ_WRITE_START_LOCATION + 6);
+
+        assertEquals(3, block.length());
+        assertNull(jump);
+    }
+
+    @Test
+    @DisplayName("Should cost a block the sum of its instructions' cycles under the timing model")
+    void blockAt_sumsInstructionCycles() throws IllegalAccessException {
+        int[] program = {
+                0x60, 0x01, // V0 = 1
+                0x80, 0x14, // V0 += V1
+                0xF1, 0x65, // V0, V1 = memory[I], memory[I + 1]
+                0x12, 0x00  // jump to 0x200
+        };
+        memory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+        TimingModel timingModel = new CosmacVipTimingModel();
+        recompiler = new Recompiler(MethodHandles.privateLookupIn(CPU.class, MethodHandles.lookup()), memory,
+                timingModel);
+
+        CompiledBlock block = hotBlockAt(Memory.READ_WRITE_START_LOCATION);
+
+        int expected = timingModel.cycles(Opcode.of(0x6001)) + timingModel.cycles(Opcode.of(0x8014))
+                + timingModel.cycles(Opcode.of(0xF165));
+        assertEquals(expected, block.cycles());
+    }
+
+    @Test
+    @DisplayName("Should execute a block with the same effect as interpreting its instructions")
+    void execute_matchesInterpreter() {
+        int[] program = {
+                0x60, 0xF0, // V0 = 0xF0
+                0x61, 0x20, // V1 = 0x20
+                0x80, 0x14, // V0 += V1, VF = carry
+                0x82, 0x17, // V2 = V1 - V2, VF = NOT borrow
+                0x83, 0x0E, // V3 = V0 << 1, VF = MSB
+                0x74, 0xFF, // V4 += 0xFF
+                0xA3, 0x00, // I = 0x300
+                0xF4, 0x1E, // I += V4
+                0xF1, 0x65, // V0, V1 = memory[I], memory[I + 1]
+                0x12, 0x00  // jump to 0x200
+        };
+        memory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+        memory.loadData(new int[]{0xAB, 0xCD}, 0x3FF);
+        Memory interpretedMemory = new Memory(Memory.DEFAULT_SIZE);
+        interpretedMemory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+        interpretedMemory.loadData(new int[]{0xAB, 0xCD}, 0x3FF);
+        CPU compiled = newCpu(memory);
+        CPU interpreted = newCpu(interpretedMemory);
+        CompiledBlock block = hotBlockAt(Memory.READ_WRITE_START_LOCATION);
+
+        block.execute(compiled);
+        for (int i = 0; i < block.length(); i++) {
+            interpreted.emulateCycle();
+        }
+
+        assertArrayEquals(interpreted.getVRegister(), compiled.getVRegister());
+        assertEquals(interpreted.getIRegister(), compiled.getIRegister());
+        assertEquals(interpreted.getPc(), compiled.getPc());
+        assertEquals(interpreted.getOpcode(), compiled.getOpcode());
+    }
+
+    @Test
+    @DisplayName("Should drop a compiled block when memory it was compiled from is written")
+    void invalidate_dropsOverlappingBlocks() {
+        int[] program = {
+                0x60, 0x01, // V0 = 1
+                0x61, 0x02, // V1 = 2
+                0x12, 0x00  // jump to 0x200
+        };
+        memory.loadData(program, Memory.READ_WRITE_START_LOCATION);
+        assertEquals(2, hotBlockAt(Memory.READ_WRITE_START_LOCATION).length());
+
+        memory.writeByte(0x12, Memory.READ_WRITE_START_LOCATION + 2);
+
+        assertNull(recompiler.blockAt(Memory.READ_WRITE_START_LOCATION));
+        assertEquals(1, hotBlockAt(Memory.READ_WRITE_START_LOCATION).length());
+    }
+
+    @Test
+    @DisplayName("Should keep compiled blocks when memory outside of them is written")
+    void invalidate_keepsOtherBlocks() {
+        memory.loadData(new int[]{0x60, 0x01, 0x12, 0x00}, Memory.READ_WRITE_START_LOCATION);
+        CompiledBlock block = hotBlockAt(Memory.READ_WRITE_START_LOCATION);
+
+        memory.writeByte(0x12, Memory.READ_WRITE_START_LOCATION + 2);
+
+        assertSame(block, recompiler.blockAt(Memory.READ_WRITE_START_LOCATION));
+    }
+
+    @Test
+    @DisplayName("Should compile an address that could not be compiled once its instruction is rewritten")
+    void invalidate_retriesUncompilableAddress() {
+        memory.loadData(new int[]{0x12, 0x00}, Memory.READ_WRITE_START_LOCATION);
+        assertNull(hotBlockAt(Memory.READ_WRITE_START_LOCATION));
+
+        memory.writeByte(0x60, Memory.READ_WRITE_START_LOCATION);
+
+        assertNotNull(hotBlockAt(Memory.READ_WRITE_START_LOCATION));
+    }
+
+    private CompiledBlock hotBlockAt(int pc) {
+        CompiledBlock block = null;
+        for (int i = 0; i < Recompiler.COMPILE_THRESHOLD; i++) {
+            block = recompiler.blockAt(pc);
+        }
+        return block;
+    }
+
+    private static CPU newCpu(Memory memory) {
+        return new CPU(500, memory, Mockito.mock(FrameBuffer.class), Mockito.mock(Sound.class), new Keypad());
+    }
+
+    @Nested
+    @DisplayName("JIT engine compared with the interpreter on every bundled ROM")
+    class Differential {
+
+        static final int FRAMES = 1500;
+        static final int CYCLES_PER_FRAME = 25;
+        static final int FRAMES_PER_KEY_PRESS = 20;
+
+        static Stream<Path> bundledRoms() throws IOException {
+            try (Stream<Path> paths = Files.list(Paths.get(ROMS_DIRECTORY_PATH))) {
+                return paths.sorted().toList().stream();
+            }
+        }
+
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("bundledRoms")
+        @DisplayName("Should have identical registers, memory, and display after every frame")
+        void matchesInterpreterEveryFrame(Path rom) throws IOException {
+            byte[] romData = Files.readAllBytes(rom);
+            Machine interpreted = new Machine(romData, ExecutionEngine.SWITCH);
+            Machine compiled = new Machine(romData, ExecutionEngine.JIT);
+
+            for (int frame = 0; frame < FRAMES; frame++) {
+                interpreted.runFrame(frame);
+                compiled.runFrame(frame);
+
+                interpreted.assertSameStateAs(compiled, rom.getFileName() + " frame " + frame);
+            }
+        }
+    }
+
+    private static class Machine {
+        final Memory memory = new Memory(Memory.DEFAULT_SIZE);
+        final FrameBuffer display = new PackedFrameBuffer();
+        final Keypad keyboard = new Keypad();
+        final CPU cpu;
+
+        Machine(byte[] romData, ExecutionEngine engine) {
+            memory.loadData(romData, Memory.READ_WRITE_START_LOCATION);
+            cpu = new CPU(500, memory, display, Mockito.mock(Sound.class), keyboard, engine);
+            cpu.setRandomSeed(0xC8);
+        }
+
+        /**
+         * Holds down a different key for half of every few frames so
+         * ROMs waiting on input keep making progress.
+         */
+        void runFrame(int frame) {
+            Arrays.fill(keyboard.getKeys(), false);
+            int pressPeriod = Differential.FRAMES_PER_KEY_PRESS;
+            if (frame % pressPeriod < pressPeriod / 2) {
+                keyboard.getKeys()[(frame / pressPeriod) % 16] = true;
+            }
+            cpu.emulateCycles(Differential.CYCLES_PER_FRAME);
+            cpu.tickClocks();
+        }
+
+        void assertSameStateAs(Machine other, String message) {
+            assertArrayEquals(cpu.getVRegister(), other.cpu.getVRegister(), message);
+            assertArrayEquals(cpu.getStack(), other.cpu.getStack(), message);
+            assertEquals(cpu.getIRegister(), other.cpu.getIRegister(), message);
+            assertEquals(cpu.getPc(), other.cpu.getPc(), message);
+            assertEquals(cpu.getSp(), other.cpu.getSp(), message);
+            assertEquals(cpu.getDelayTimer(), other.cpu.getDelayTimer(), message);
+            assertEquals(cpu.getSoundTimer(), other.cpu.getSoundTimer(), message);
+            assertEquals(cpu.isDrawFlagSet(), other.cpu.isDrawFlagSet(), message);
+            assertArrayEquals(memoryContents(), other.memoryContents(), message);
+            assertArrayEquals(pixels(), other.pixels(), message);
+        }
+
+        int[] memoryContents() {
+            int[] contents = new int[memory.size()];
+            for (int address = 0; address < contents.length; address++) {
+                contents[address] = memory.readByte(address);
+            }
+            return contents;
+        }
+
+        int[] pixels() {
+            int[] pixels = new int[FrameBuffer.LENGTH_IN_PIXELS * FrameBuffer.HEIGHT_IN_PIXELS];
+            for (int x = 0; x < FrameBuffer.LENGTH_IN_PIXELS; x++) {
+                for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+                    pixels[y * FrameBuffer.LENGTH_IN_PIXELS + x] = display.getPixel(x, y);
+                }
+            }
+            return pixels;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.qelery.chip8.components;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Runs every {@link CPUTest} against the table-driven execution engine.
+ */
+class TableDispatchCPUTest extends CPUTest {
+
+    @BeforeEach
+    @Override
+    void setUp() {
+        int clockSpeed = 500;
+        this.cpu = new CPU(clockSpeed, memory, display, sound, keyboard, ExecutionEngine.TABLE);
+    }
+}
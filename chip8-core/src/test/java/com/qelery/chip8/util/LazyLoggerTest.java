@@ -0,0 +1,26 @@
+package com.qelery.chip8.util;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyLoggerTest {
+
+    @Test
+    @DisplayName("Should look up a logger named after the owning class")
+    void get_namedAfterOwner() {
+        Logger logger = LazyLogger.of(LazyLoggerTest.class).get();
+
+        assertEquals(LazyLoggerTest.class.getName(), logger.getName());
+    }
+
+    @Test
+    @DisplayName("Should return the same logger on every call")
+    void get_sameLogger() {
+        LazyLogger lazyLogger = LazyLogger.of(LazyLoggerTest.class);
+
+        assertSame(lazyLogger.get(), lazyLogger.get());
+    }
+}
@@ -0,0 +1,89 @@
+package com.qelery.chip8.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripleBufferTest {
+
+    TripleBuffer<int[]> tripleBuffer;
+
+    @BeforeEach
+    void setUp() {
+        this.tripleBuffer = new TripleBuffer<>(() -> new int[1]);
+    }
+
+    @Test
+    @DisplayName("Should have nothing to take before anything is published")
+    void takeLatest_nothingPublished() {
+        assertNull(tripleBuffer.takeLatest());
+    }
+
+    @Test
+    @DisplayName("Should take a published buffer only once")
+    void takeLatest_takesOnce() {
+        tripleBuffer.getBackBuffer()[0] = 7;
+        tripleBuffer.publish();
+
+        assertEquals(7, tripleBuffer.takeLatest()[0]);
+        assertNull(tripleBuffer.takeLatest());
+    }
+
+    @Test
+    @DisplayName("Should skip to the most recently published buffer")
+    void takeLatest_skipsStaleBuffers() {
+        for (int i = 1; i <= 5; i++) {
+            tripleBuffer.getBackBuffer()[0] = i;
+            tripleBuffer.publish();
+        }
+
+        assertEquals(5, tripleBuffer.takeLatest()[0]);
+    }
+
+    @Test
+    @DisplayName("Should never hand the producer the buffer the consumer is holding")
+    void getBackBuffer_neverTheTakenBuffer() {
+        tripleBuffer.publish();
+        int[] taken = tripleBuffer.takeLatest();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(taken, tripleBuffer.getBackBuffer());
+            tripleBuffer.publish();
+        }
+    }
+
+    @Test
+    @DisplayName("Should only ever take complete buffers published by another thread")
+    void takeLatest_acrossThreads() throws InterruptedException {
+        TripleBuffer<int[]> pairs = new TripleBuffer<>(() -> new int[2]);
+        int publishes = 200_000;
+        AtomicInteger torn = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= publishes; i++) {
+                int[] buffer = pairs.getBackBuffer();
+                buffer[0] = i;
+                buffer[1] = -i;
+                pairs.publish();
+            }
+        });
+
+        producer.start();
+        int last = 0;
+        while (last < publishes) {
+            int[] buffer = pairs.takeLatest();
+            if (buffer != null) {
+                if (buffer[0] != -buffer[1] || buffer[0] < last) {
+                    torn.incrementAndGet();
+                }
+                last = buffer[0];
+            }
+        }
+        producer.join();
+
+        assertEquals(0, torn.get());
+    }
+}
@@ -0,0 +1,179 @@
+package com.qelery.chip8;
+
+import com.qelery.chip8.fx.Chip8Desktop;
+import com.qelery.chip8.fx.Display;
+import com.qelery.chip8.fx.Keyboard;
+import com.qelery.chip8.util.IOUtils;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.stage.Stage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The desktop front end.
+ * <p>
+ * Run with {@code --record=<movie>} to record the session to a movie
+ * that {@code HeadlessMain --replay} can play back.
+ */
+public class Main extends Application {
+
+    private static final Logger logger = LogManager.getLogger(Main.class);
+    private static final double[] SPEEDS = {0.25, 0.5, 1, 2, 4, EmulationClock.UNLIMITED_SPEED};
+    private static final int NORMAL_SPEED_INDEX = 2;
+    private static final int DISPLAY_SCALE = 12;
+    private static final int REWIND_SECONDS = 30;
+    private static final int REWIND_MEGABYTES = 16;
+
+    private int speedIndex = NORMAL_SPEED_INDEX;
+    private Chip8VM chip8;
+    private Display display;
+    private Keyboard keyboard;
+    private EmulationLoop emulationLoop;
+    private MovieRecorder movieRecorder;
+    private Stage stage;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        this.stage = stage;
+        this.chip8 = Chip8Desktop.defaultBuild();
+        this.display = new Display(DISPLAY_SCALE, Display.DEFAULT_PRIMARY_COLOR, Display.DEFAULT_SECONDARY_COLOR);
+        this.keyboard = new Keyboard(chip8.getKeypad());
+        this.emulationLoop = new EmulationLoop(chip8);
+        emulationLoop.setRewindBuffer(new RewindBuffer(chip8, REWIND_SECONDS, REWIND_MEGABYTES));
+        initializeStage();
+        chip8.loadROM();
+        startRecording(getParameters().getNamed().get("record"));
+        IOUtils.clearConsole();
+        keyboard.printKeyControls();
+        chip8.printInstructions();
+        emulationLoop.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        emulationLoop.stop();
+        stopRecording();
+        FrameScheduler.Jitter jitter = emulationLoop.getJitter();
+        logger.info("Frame start error over {} frames: p50 {} us, p99 {} us, max {} us", jitter.samples(),
+                jitter.p50NanoSec() / 1000, jitter.p99NanoSec() / 1000, jitter.maxNanoSec() / 1000);
+        chip8.stop();
+        stage.close();
+        System.exit(0);
+    }
+
+    /**
+     * Starts recording a movie, if a path was given for one. Must be
+     * called after the ROM is loaded and before the machine starts.
+     */
+    private void startRecording(String moviePath) {
+        if (moviePath == null) {
+            return;
+        }
+        try {
+            movieRecorder = new MovieRecorder(chip8, Paths.get(moviePath));
+            emulationLoop.setMovieRecorder(movieRecorder);
+            logger.info("Recording movie to {}", moviePath);
+        } catch (IOException e) {
+            logger.error("Could not record movie to {}", moviePath, e);
+        }
+    }
+
+    private void stopRecording() {
+        if (movieRecorder == null) {
+            return;
+        }
+        try {
+            movieRecorder.close();
+            logger.info("Recorded {} frames", movieRecorder.frames());
+        } catch (IOException e) {
+            logger.error("Could not finish writing the movie", e);
+        }
+    }
+
+    private void initializeStage() {
+        stage.setTitle("CHIP8 by qelery");
+        Group root = new Group();
+        root.getChildren().add(display);
+        Scene scene = new Scene(root);
+        stage.setScene(scene);
+        stage.setResizable(false);
+
+        scene.setOnKeyPressed(e -> {
+            if (isSpeedKey(e.getCode())) {
+                changeSpeed(e.getCode());
+            } else if (isRewindKey(e.getCode())) {
+                rewind(e.getCode());
+            } else {
+                keyboard.postKeyDown(e.getCode());
+            }
+        });
+        scene.setOnKeyReleased(e -> {
+            if (!isSpeedKey(e.getCode()) && !isRewindKey(e.getCode())) {
+                keyboard.postKeyUp(e.getCode());
+            }
+        });
+
+        AnimationTimer animationTimer = configureAnimationTimer();
+        animationTimer.start();
+
+        stage.show();
+    }
+
+    private boolean isSpeedKey(KeyCode key) {
+        return key == KeyCode.EQUALS || key == KeyCode.MINUS;
+    }
+
+    private boolean isRewindKey(KeyCode key) {
+        return key == KeyCode.BACK_SPACE || key == KeyCode.ENTER;
+    }
+
+    /**
+     * Pauses and steps back one frame with backspace, which repeats
+     * while held, and carries on from that frame with enter.
+     */
+    private void rewind(KeyCode key) {
+        if (key == KeyCode.BACK_SPACE) {
+            emulationLoop.stepBack();
+        } else if (emulationLoop.isPaused()) {
+            emulationLoop.resume();
+            logger.info("Resumed");
+        }
+    }
+
+    /**
+     * Steps the emulation speed up with '=' or down with '-', through
+     * 0.25x, 0.5x, 1x, 2x, 4x and unlimited.
+     */
+    private void changeSpeed(KeyCode key) {
+        if (key == KeyCode.EQUALS) {
+            speedIndex = Math.min(speedIndex + 1, SPEEDS.length - 1);
+        } else {
+            speedIndex = Math.max(speedIndex - 1, 0);
+        }
+        emulationLoop.setSpeed(SPEEDS[speedIndex]);
+        logger.info("Emulation speed: {}", () -> emulationLoop.getSpeed() == EmulationClock.UNLIMITED_SPEED
+                ? "unlimited" : emulationLoop.getSpeed() + "x");
+    }
+
+    private AnimationTimer configureAnimationTimer() {
+        return new AnimationTimer() {
+            public void handle(long now) {
+                long[] frame = emulationLoop.takeLatestFrame();
+                if (frame != null) {
+                    display.render(frame);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.qelery.chip8.fx;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.components.ExecutionEngine;
+import com.qelery.chip8.components.TimingModel;
+import com.qelery.chip8.components.sound.wave.SineWave;
+
+/**
+ * Builds CHIP-8 machines for the desktop front end, with a sine wave
+ * beep played through the default audio line.
+ */
+public final class Chip8Desktop {
+
+    private static final int SOUND_FREQUENCY = 300;
+
+    private Chip8Desktop() {
+    }
+
+    public static Chip8VM defaultBuild() {
+        return defaultBuild(ExecutionEngine.SWITCH);
+    }
+
+    /**
+     * Builds a CHIP-8 machine with the default components and the
+     * given instruction execution engine.
+     *
+     * @param engine the strategy the CPU uses to execute instructions
+     */
+    public static Chip8VM defaultBuild(ExecutionEngine engine) {
+        return defaultBuild(engine, TimingModel.FLAT);
+    }
+
+    /**
+     * Builds a CHIP-8 machine with the default components, the given
+     * instruction execution engine, and a CPU clocked at the speed the
+     * timing model is calibrated for.
+     *
+     * @param engine      the strategy the CPU uses to execute instructions
+     * @param timingModel how many cycles each instruction costs
+     */
+    public static Chip8VM defaultBuild(ExecutionEngine engine, TimingModel timingModel) {
+        return Chip8VM.build(new SineWave(SOUND_FREQUENCY), engine, timingModel);
+    }
+}
@@ -0,0 +1,232 @@
+package com.qelery.chip8.fx;
+
+import com.qelery.chip8.components.FrameBuffer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import static com.qelery.chip8.components.FrameBuffer.HEIGHT_IN_PIXELS;
+import static com.qelery.chip8.components.FrameBuffer.LENGTH_IN_PIXELS;
+
+/**
+ * Displays the graphics of the CHIP-8 program.
+ * <p>
+ * The display draws the pixels of a {@link FrameBuffer} onto a JavaFX
+ * canvas. A pixel that is ON shows the primary color and a pixel that
+ * is OFF shows the secondary color.
+ * <p>
+ * {@link #render(FrameBuffer)} copies only the rows the frame buffer
+ * reports as dirty into a 64x32 ARGB backbuffer and draws it to the
+ * canvas as a single scaled image.
+ * <p>
+ * When the CPU runs on its own thread, it hands finished frames to
+ * the JavaFX thread with {@link FrameBuffer#copyRowsTo(long[])}, and
+ * they are drawn with {@link #render(long[])}.
+ */
+public class Display extends Canvas {
+
+    public static final Color DEFAULT_PRIMARY_COLOR = Color.WHITE;
+    public static final Color DEFAULT_SECONDARY_COLOR = Color.BLACK;
+    private static final int ALL_ROWS_DIRTY = -1;
+
+    private final int scale;
+    private Color primaryColor;
+    private Color secondaryColor;
+    private int primaryArgb;
+    private int secondaryArgb;
+    private final GraphicsContext gc;
+    private final int[] backbuffer = new int[LENGTH_IN_PIXELS * HEIGHT_IN_PIXELS];
+    private final long[] renderedRows = new long[HEIGHT_IN_PIXELS];
+    private final long[] frameRows = new long[HEIGHT_IN_PIXELS];
+    private WritableImage image;
+    private boolean repaintAll = true;
+
+    /**
+     * Creates a Display object for CHIP-8.
+     * <p>
+     * The original CHIP-8 display resolution was 64x32 pixels and
+     * monochrome. The constructor takes in a scale which will be
+     * applied to each CHIP-8 pixel to make them larger and therefore
+     * easier to see on a modern screen.
+     *
+     * @param scale how large to upscale the display
+     *              (e.g. if scale is 5, then each CHIP-8 'pixel'
+     *              will take up a 5x5 block of pixels on your
+     *              device's screen)
+     */
+    public Display(int scale) {
+        super(LENGTH_IN_PIXELS * scale, HEIGHT_IN_PIXELS * scale);
+        this.scale = scale;
+        this.primaryColor = DEFAULT_PRIMARY_COLOR;
+        this.secondaryColor = DEFAULT_SECONDARY_COLOR;
+        this.gc = this.getGraphicsContext2D();
+        initDisplay();
+    }
+
+    /**
+     * Creates a Display object for CHIP-8.
+     * <p>
+     * The original CHIP-8 display resolution was 64x32 pixels and
+     * monochrome. The constructor takes in a scale which will be
+     * applied to each CHIP-8 pixel to make them larger and therefore
+     * easier to see on a modern screen.
+     *
+     * @param scale how large to upscale the display
+     *              (e.g. if scale is 5, then each CHIP-8 'pixel'
+     *              will take up a 5x5 block of pixels on your
+     *              device's screen)
+     * @param color the color of ON pixels
+     */
+    public Display(int scale, Color color) {
+        super(LENGTH_IN_PIXELS * scale, HEIGHT_IN_PIXELS * scale);
+        this.scale = scale;
+        this.primaryColor = color;
+        this.secondaryColor = DEFAULT_SECONDARY_COLOR;
+        if (primaryColor.equals(secondaryColor)) {
+            this.secondaryColor = Color.WHITE;
+        }
+        this.gc = this.getGraphicsContext2D();
+        initDisplay();
+    }
+
+    /**
+     * Creates a Display object for CHIP-8.
+     * <p>
+     * The original CHIP-8 display resolution was 64x32 pixels and
+     * monochrome. The constructor takes in a scale which will be
+     * applied to each CHIP-8 pixel to make them larger and therefore
+     * easier to see on a modern screen.
+     *
+     * @param scale          how large to upscale the display
+     *                       (e.g. if scale is 5, then each CHIP-8 'pixel'
+     *                       will take up a 5x5 block of pixels on your
+     *                       device's screen)
+     * @param primaryColor   the color of ON pixels
+     * @param secondaryColor the color of OFF pixels
+     */
+    public Display(int scale, Color primaryColor, Color secondaryColor) {
+        super(LENGTH_IN_PIXELS * scale, HEIGHT_IN_PIXELS * scale);
+        this.scale = scale;
+        this.primaryColor = primaryColor;
+        this.secondaryColor = secondaryColor;
+        this.gc = this.getGraphicsContext2D();
+        initDisplay();
+    }
+
+    private void initDisplay() {
+        gc.setImageSmoothing(false);
+        gc.setFill(this.secondaryColor);
+        gc.fillRect(0, 0, LENGTH_IN_PIXELS * scale, HEIGHT_IN_PIXELS * scale);
+        this.primaryArgb = toArgb(primaryColor);
+        this.secondaryArgb = toArgb(secondaryColor);
+    }
+
+    private static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * Re-renders the rows of the frame buffer that changed since the
+     * last render, and marks them clean.
+     * <p>
+     * The dirty rows are written into the backbuffer, pushed to the
+     * image with one {@code setPixels} call, and the image is drawn
+     * scaled up to the canvas with smoothing off. The cost barely
+     * depends on the scale.
+     *
+     * @param frameBuffer the frame buffer to render, read on the
+     *                    JavaFX thread
+     */
+    public void render(FrameBuffer frameBuffer) {
+        int dirty = frameBuffer.takeDirtyRows();
+        frameBuffer.copyRowsTo(frameRows);
+        draw(frameRows, dirty);
+    }
+
+    /**
+     * Renders a frame copied out with {@link FrameBuffer#copyRowsTo(long[])},
+     * repainting only the rows that differ from the last frame drawn.
+     *
+     * @param frame the rows of the frame to render
+     */
+    public void render(long[] frame) {
+        int dirty = 0;
+        for (int y = 0; y < HEIGHT_IN_PIXELS; y++) {
+            if (frame[y] != renderedRows[y]) {
+                dirty |= 1 << y;
+            }
+        }
+        draw(frame, dirty);
+    }
+
+    private void draw(long[] source, int dirty) {
+        if (repaintAll) {
+            if (image == null) {
+                image = new WritableImage(LENGTH_IN_PIXELS, HEIGHT_IN_PIXELS);
+            }
+            dirty = ALL_ROWS_DIRTY;
+            repaintAll = false;
+        } else if (dirty == 0) {
+            return;
+        }
+        for (int rowsLeft = dirty; rowsLeft != 0; rowsLeft &= rowsLeft - 1) {
+            int y = Integer.numberOfTrailingZeros(rowsLeft);
+            long row = source[y];
+            int offset = y * LENGTH_IN_PIXELS;
+            for (int x = 0; x < LENGTH_IN_PIXELS; x++) {
+                backbuffer[offset + x] = (row << x) < 0 ? primaryArgb : secondaryArgb;
+            }
+            renderedRows[y] = row;
+        }
+        int top = Integer.numberOfTrailingZeros(dirty);
+        int bottom = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(dirty);
+        image.getPixelWriter().setPixels(0, top, LENGTH_IN_PIXELS, bottom - top + 1,
+                PixelFormat.getIntArgbInstance(), backbuffer, top * LENGTH_IN_PIXELS, LENGTH_IN_PIXELS);
+        gc.drawImage(image, 0, 0, LENGTH_IN_PIXELS * (double) scale, HEIGHT_IN_PIXELS * (double) scale);
+    }
+
+    /**
+     * @return the ON color of a pixel
+     */
+    public Color getPrimaryColor() {
+        return primaryColor;
+    }
+
+    /**
+     * @return the OFF color of a pixel
+     */
+    public Color getSecondaryColor() {
+        return secondaryColor;
+    }
+
+    /**
+     * @param primaryColor the ON color of a pixel
+     */
+    public void setPrimaryColor(Color primaryColor) {
+        this.primaryColor = primaryColor;
+        this.primaryArgb = toArgb(primaryColor);
+        this.repaintAll = true;
+    }
+
+    /**
+     * @param secondaryColor the OFF color of a pixel
+     */
+    public void setSecondaryColor(Color secondaryColor) {
+        this.secondaryColor = secondaryColor;
+        this.secondaryArgb = toArgb(secondaryColor);
+        this.repaintAll = true;
+    }
+
+    /**
+     * @return the image the display was last rendered into, or null
+     * if it has never been rendered
+     */
+    WritableImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,130 @@
+package com.qelery.chip8.fx;
+
+import com.qelery.chip8.components.Keypad;
+import javafx.scene.input.KeyCode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Maps JavaFX key events onto a CHIP-8 {@link Keypad}.
+ * <p>
+ * The keys of the original hexadecimal keypad:
+ * <p>
+ * -----------------<br>
+ * | 1 | 2 | 3 | C |<br>
+ * -----------------<br>
+ * | 4 | 5 | 6 | D |<br>
+ * ------------------<br>
+ * | 7 | 8 | 9 | E |<br>
+ * ------------------<br>
+ * | A | 0 | B | F |<br>
+ * ------------------<br>
+ * <p>
+ * have been mapped to the following layout on a standard keyboard:
+ * <p>
+ * -----------------<br>
+ * | 1 | 2 | 3 | 4 |<br>
+ * -----------------<br>
+ * | Q | W | E | R |<br>
+ * ------------------<br>
+ * | A | S | D | F |<br>
+ * ------------------<br>
+ * | Z | X | C | V |<br>
+ * ------------------<br>
+ * <p>
+ * Key events for unmapped keys are logged and otherwise ignored.
+ */
+public class Keyboard {
+
+    private static final Logger logger = LogManager.getLogger(Keyboard.class);
+
+    private final Keypad keypad;
+
+    /**
+     * Constructs a keyboard that drives the given keypad.
+     */
+    public Keyboard(Keypad keypad) {
+        this.keypad = keypad;
+    }
+
+    public void keyDown(KeyCode key) {
+        int keyVal = toKeyValue(key);
+        if (keyVal == -1) {
+            logger.warn("Key down event for unmapped key: {}", key);
+        } else {
+            keypad.keyDown(keyVal);
+        }
+    }
+
+    public void keyUp(KeyCode key) {
+        int keyVal = toKeyValue(key);
+        if (keyVal == -1) {
+            logger.warn("Key up event for unmapped key: {}", key);
+        } else {
+            keypad.keyUp(keyVal);
+        }
+    }
+
+    /**
+     * Queues a key press on the keypad, to be applied by
+     * {@link Keypad#applyPostedKeys()}. Safe to call from any thread.
+     */
+    public void postKeyDown(KeyCode key) {
+        int keyVal = toKeyValue(key);
+        if (keyVal == -1) {
+            logger.warn("Key down event for unmapped key: {}", key);
+        } else {
+            keypad.postKeyDown(keyVal);
+        }
+    }
+
+    /**
+     * Queues a key release on the keypad, to be applied by
+     * {@link Keypad#applyPostedKeys()}. Safe to call from any thread.
+     */
+    public void postKeyUp(KeyCode key) {
+        int keyVal = toKeyValue(key);
+        if (keyVal == -1) {
+            logger.warn("Key up event for unmapped key: {}", key);
+        } else {
+            keypad.postKeyUp(keyVal);
+        }
+    }
+
+    private static int toKeyValue(KeyCode key) {
+        return switch (key) {
+            case DIGIT1 -> 0x1;
+            case DIGIT2 -> 0x2;
+            case DIGIT3 -> 0x3;
+            case DIGIT4 -> 0xC;
+            case Q -> 0x4;
+            case W -> 0x5;
+            case E -> 0x6;
+            case R -> 0xD;
+            case A -> 0x7;
+            case S -> 0x8;
+            case D -> 0x9;
+            case F -> 0xE;
+            case Z -> 0xA;
+            case X -> 0x0;
+            case C -> 0xB;
+            case V -> 0xF;
+            default -> -1;
+        };
+    }
+
+    public void printKeyControls() {
+        String keyMappingsLayout = """
+                YOUR KEYBOARD CONTROLS:        ORIGINAL CHIP-8 LAYOUT:
+                      1  2  3  4                    1  2  3  C
+                      Q  W  E  R                    4  5  6  D
+                      A  S  D  F                    7  8  9  E
+                      Z  X  C  V                    A  0  B  F
+                """;
+        System.out.println(keyMappingsLayout);
+    }
+
+    public Keypad getKeypad() {
+        return keypad;
+    }
+}
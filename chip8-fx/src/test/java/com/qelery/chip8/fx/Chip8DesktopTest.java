@@ -0,0 +1,63 @@
+package com.qelery.chip8.fx;
+
+import com.qelery.chip8.Chip8VM;
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.Memory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Chip8DesktopTest {
+
+    @Test
+    @DisplayName("Should build a Chip8 machine with a display, sound, keyboard, memory, and cpu components")
+    void shouldHaveNonNullComponents() {
+        Chip8VM chip8 = Chip8Desktop.defaultBuild();
+
+        assertNotNull(chip8.getFrameBuffer());
+        assertNotNull(chip8.getSound());
+        assertNotNull(chip8.getKeypad());
+        assertNotNull(chip8.getMemory());
+        assertNotNull(chip8.getCpu());
+    }
+
+    @Test
+    @DisplayName("Should have a CPU clock speed of 500")
+    void shouldHaveClockSpeed500() {
+        int expectedClockSpeed = 500;
+
+        Chip8VM chip8 = Chip8Desktop.defaultBuild();
+
+        assertEquals(expectedClockSpeed, chip8.getCpu().getClockSpeed());
+    }
+
+
+    @Test
+    @DisplayName("Should have a blank screen")
+    void shouldHaveBlankScreen() {
+        Chip8VM chip8 = Chip8Desktop.defaultBuild();
+
+        for (int y = 0; y < FrameBuffer.HEIGHT_IN_PIXELS; y++) {
+            assertEquals(0L, chip8.getFrameBuffer().getRow(y));
+        }
+    }
+
+    @Test
+    @DisplayName("Should have a memory size of 4096")
+    void shouldHaveMemorySize4096() {
+        int expectedMemorySize = 4096;
+
+        Chip8VM chip8 = Chip8Desktop.defaultBuild();
+
+        assertMemorySize(expectedMemorySize, chip8.getMemory());
+    }
+
+    private void assertMemorySize(int expectedMemorySize, Memory memory) {
+        assertEquals(expectedMemorySize, memory.size());
+        // Addresses past the last memory block wrap around to the first
+        memory.writeByte(0xAB, expectedMemorySize - 1);
+        assertEquals(0xAB, memory.readByte(-1));
+        assertEquals(memory.readByte(0), memory.readByte(expectedMemorySize));
+    }
+}
@@ -0,0 +1,134 @@
+package com.qelery.chip8.fx;
+
+import com.qelery.chip8.components.FrameBuffer;
+import com.qelery.chip8.components.PackedFrameBuffer;
+import javafx.scene.image.PixelReader;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DisplayTest {
+
+    @Test
+    @DisplayName("Should create a Display with default primary and secondary color")
+    void constructorSetsDefaultColors() {
+        int scale = 10;
+        Display display = new Display(scale);
+
+        Color actualPrimaryColor = display.getPrimaryColor();
+        Color actualSecondaryColor = display.getSecondaryColor();
+
+        assertEquals(Display.DEFAULT_PRIMARY_COLOR, actualPrimaryColor);
+        assertEquals(Display.DEFAULT_SECONDARY_COLOR, actualSecondaryColor);
+    }
+
+    @Test
+    @DisplayName("Should create a Display with black as the secondary color by default if only a primary color is supplied")
+    void constructorSetsDefaultSecondaryColors() {
+        int scale = 10;
+        Color primaryColor = Color.LIMEGREEN;
+        Display display = new Display(scale, primaryColor);
+
+        Color actualPrimaryColor = display.getPrimaryColor();
+        Color actualSecondaryColor = display.getSecondaryColor();
+
+
+        assertEquals(primaryColor, actualPrimaryColor);
+        assertEquals(Display.DEFAULT_SECONDARY_COLOR, actualSecondaryColor);
+    }
+
+    @Test
+    @DisplayName("Should create a Display with passed in primary and secondary colors")
+    void constructorWithPassedInColors() {
+        int scale = 10;
+        Color primaryColor = Color.LIGHTCYAN;
+        Color secondaryColor = Color.SEAGREEN;
+        Display display = new Display(scale, primaryColor, secondaryColor);
+
+        Color actualPrimaryColor = display.getPrimaryColor();
+        Color actualSecondaryColor = display.getSecondaryColor();
+
+
+        assertEquals(primaryColor, actualPrimaryColor);
+        assertEquals(secondaryColor, actualSecondaryColor);
+    }
+
+    @Test
+    @DisplayName("Should render ON and OFF pixels into the image in the display colors")
+    void renderWritesImage() {
+        Display display = new Display(10, Color.LIMEGREEN, Color.NAVY);
+        FrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.drawSpriteRow(62, 4, 0b10100000);
+
+        display.render(frameBuffer);
+
+        PixelReader reader = display.getImage().getPixelReader();
+        assertEquals(Color.LIMEGREEN, reader.getColor(62, 4));
+        assertEquals(Color.NAVY, reader.getColor(63, 4));
+        assertEquals(Color.LIMEGREEN, reader.getColor(0, 4));
+        assertEquals(Color.NAVY, reader.getColor(0, 5));
+    }
+
+    @Test
+    @DisplayName("Should take the dirty rows of the frame buffer it renders")
+    void renderTakesDirtyRows() {
+        Display display = new Display(10);
+        FrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.drawSpriteRow(62, 0, 0b11000011);
+        frameBuffer.setPixel(5, 31, FrameBuffer.PIXEL_ON_VALUE);
+
+        display.render(frameBuffer);
+
+        assertEquals(0, frameBuffer.takeDirtyRows());
+    }
+
+    @Test
+    @DisplayName("Should repaint every pixel in the new color after a color change")
+    void renderAfterColorChange() {
+        Display display = new Display(10);
+        FrameBuffer frameBuffer = new PackedFrameBuffer();
+        frameBuffer.setPixel(3, 3, FrameBuffer.PIXEL_ON_VALUE);
+        display.render(frameBuffer);
+
+        display.setSecondaryColor(Color.RED);
+        display.render(frameBuffer);
+
+        PixelReader reader = display.getImage().getPixelReader();
+        assertEquals(Display.DEFAULT_PRIMARY_COLOR, reader.getColor(3, 3));
+        assertEquals(Color.RED, reader.getColor(4, 3));
+        assertEquals(Color.RED, reader.getColor(63, 31));
+    }
+
+    @Test
+    @DisplayName("Should render a frame copied from a frame buffer")
+    void renderFrame() {
+        FrameBuffer source = new PackedFrameBuffer();
+        source.drawSpriteRow(10, 12, 0xF0);
+        long[] frame = new long[FrameBuffer.HEIGHT_IN_PIXELS];
+        source.copyRowsTo(frame);
+        Display display = new Display(10, Color.LIMEGREEN, Color.NAVY);
+
+        display.render(frame);
+
+        PixelReader reader = display.getImage().getPixelReader();
+        assertEquals(Color.LIMEGREEN, reader.getColor(13, 12));
+        assertEquals(Color.NAVY, reader.getColor(14, 12));
+    }
+
+    @Test
+    @DisplayName("Should repaint rows that differ from the last rendered frame")
+    void renderFrameRepaintsChangedRows() {
+        Display display = new Display(10, Color.LIMEGREEN, Color.NAVY);
+        long[] frame = new long[FrameBuffer.HEIGHT_IN_PIXELS];
+        display.render(frame);
+
+        frame[31] = 1L;
+        display.render(frame);
+
+        PixelReader reader = display.getImage().getPixelReader();
+        assertEquals(Color.LIMEGREEN, reader.getColor(63, 31));
+        assertEquals(Color.NAVY, reader.getColor(62, 31));
+    }
+}
@@ -0,0 +1,86 @@
+package com.qelery.chip8.fx;
+
+import com.qelery.chip8.components.Keypad;
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyboardTest {
+
+    Keypad keypad;
+    Keyboard keyboard;
+
+    @BeforeEach
+    void setUp() {
+        this.keypad = new Keypad();
+        this.keyboard = new Keyboard(keypad);
+    }
+
+    @Test
+    @DisplayName("Should set array index of corresponding key to true on key down")
+    void keyDown() {
+        int indexOfAKey = 7;
+        keypad.getKeys()[indexOfAKey] = false;
+        KeyCode aKey = KeyCode.A;
+
+        keyboard.keyDown(aKey);
+
+        assertTrue(keypad.getKeys()[indexOfAKey]);
+    }
+
+    @Test
+    @DisplayName("Should set array index of corresponding key to false on key up")
+    void keyUp() {
+        int indexOfAKey = 7;
+        keypad.getKeys()[indexOfAKey] = true;
+        KeyCode aKey = KeyCode.A;
+
+        keyboard.keyUp(aKey);
+
+        assertFalse(keypad.getKeys()[indexOfAKey]);
+    }
+
+    @Test
+    @DisplayName("Should only apply posted key events once they are applied")
+    void postKeyDown() {
+        keyboard.postKeyDown(KeyCode.A);
+
+        assertFalse(keypad.isKeyDown(0x7));
+
+        keypad.applyPostedKeys();
+
+        assertTrue(keypad.isKeyDown(0x7));
+    }
+
+    @Test
+    @DisplayName("Should apply posted key events in order, holding a tapped key until the next apply")
+    void postKeyUp() {
+        keyboard.postKeyDown(KeyCode.V);
+        keyboard.postKeyUp(KeyCode.V);
+        keyboard.postKeyDown(KeyCode.X);
+
+        keypad.applyPostedKeys();
+
+        assertTrue(keypad.isKeyDown(0xF));
+        assertTrue(keypad.isKeyDown(0x0));
+
+        keypad.applyPostedKeys();
+
+        assertFalse(keypad.isKeyDown(0xF));
+        assertTrue(keypad.isKeyDown(0x0));
+    }
+
+    @Test
+    @DisplayName("Should ignore posted events for unmapped keys")
+    void postUnmappedKey() {
+        keyboard.postKeyDown(KeyCode.P);
+
+        keypad.applyPostedKeys();
+
+        assertEquals(-1, keypad.getDownedKeyValue());
+        assertFalse(keypad.isKeyDown(0x0));
+    }
+}